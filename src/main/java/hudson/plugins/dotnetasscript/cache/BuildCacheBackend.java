@@ -0,0 +1,65 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A storage for the compiled script archives shared between nodes and controllers,
+ * the archives are addressed by the cache key and they are never modified once stored.
+ * @author Ariel.Lenis
+ */
+public interface BuildCacheBackend {
+
+    /**
+     * Determines if the backend has the archive
+     * @param key
+     * @return
+     * @throws IOException 
+     */
+    boolean contains(String key) throws IOException;
+
+    /**
+     * Opens the archive for reading
+     * @param key
+     * @return the archive content or null if the backend doesn't have it
+     * @throws IOException 
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Stores the archive, the archive must be visible only when it is complete
+     * @param key
+     * @param archive a local file with the archive content
+     * @throws IOException 
+     */
+    void put(String key, File archive) throws IOException;
+
+    /**
+     * @return a description of the backend for the build log
+     */
+    String getDescription();
+}
@@ -0,0 +1,224 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.cache;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The persistent index of a cache root, it records the last use, the size and the hits
+ * of every entry so the eviction doesn't need to scan the cache folders.
+ * Every line of the index file is {@code key<TAB>lastUsed<TAB>size<TAB>hits}.
+ * @author Ariel.Lenis
+ */
+public class CacheIndex {
+    private static final String ENCODING = "UTF-8";
+
+    private final File file;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final boolean existed;
+
+    /**
+     * The usage record of a cache entry
+     */
+    public static class Entry {
+        private final String key;
+        private long lastUsed;
+        private long size;
+        private long hits;
+
+        /**
+         * The entry constructor
+         * @param key
+         * @param lastUsed
+         * @param size
+         * @param hits 
+         */
+        public Entry(String key, long lastUsed, long size, long hits) {
+            this.key = key;
+            this.lastUsed = lastUsed;
+            this.size = size;
+            this.hits = hits;
+        }
+
+        /**
+         * @return the cache key
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return the last use time in milliseconds
+         */
+        public long getLastUsed() {
+            return lastUsed;
+        }
+
+        /**
+         * @return the size of the entry in bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the times the entry was used
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * Records a new use of the entry
+         * @param time 
+         */
+        public void use(long time) {
+            this.lastUsed = time;
+            this.hits++;
+        }
+    }
+
+    private CacheIndex(File file, boolean existed) {
+        this.file = file;
+        this.existed = existed;
+    }
+
+    /**
+     * Loads the index, an index that doesn't exist is loaded empty
+     * @param file
+     * @return
+     * @throws IOException 
+     */
+    public static CacheIndex load(File file) throws IOException {
+        CacheIndex index = new CacheIndex(file, file.isFile());
+
+        if (!index.existed) {
+            return index;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length != 4) {
+                    continue;
+                }
+                try {
+                    index.put(new Entry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+                } catch (NumberFormatException error) {
+                    // A damaged line only loses the statistics of one entry
+                }
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * @return true if the index file existed when it was loaded
+     */
+    public boolean existed() {
+        return this.existed;
+    }
+
+    /**
+     * Saves the index, the file is replaced with a single rename
+     * @throws IOException 
+     */
+    public void save() throws IOException {
+        File temporary = new File(this.file.getPath() + ".tmp");
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temporary), ENCODING)) {
+            for (Entry entry : this.entries.values()) {
+                writer.write(entry.key + "\t" + entry.lastUsed + "\t" + entry.size + "\t" + entry.hits + "\n");
+            }
+        }
+
+        Files.move(temporary.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param key
+     * @return the entry or null if the index doesn't have it
+     */
+    public Entry get(String key) {
+        return this.entries.get(key);
+    }
+
+    /**
+     * Adds or replaces an entry
+     * @param entry 
+     */
+    public void put(Entry entry) {
+        this.entries.put(entry.key, entry);
+    }
+
+    /**
+     * Removes an entry
+     * @param key 
+     */
+    public void remove(String key) {
+        this.entries.remove(key);
+    }
+
+    /**
+     * @return the total size of the indexed entries
+     */
+    public long getTotalSize() {
+        long total = 0;
+        for (Entry entry : this.entries.values()) {
+            total += entry.size;
+        }
+        return total;
+    }
+
+    /**
+     * @return the entries, the least recently used first
+     */
+    public List<Entry> getLeastRecentlyUsed() {
+        List<Entry> result = new ArrayList<>(this.entries.values());
+        Collections.sort(result, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry first, Entry second) {
+                return Long.compare(first.lastUsed, second.lastUsed);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The locks of the cache keys in the current process. The threads of the process
+ * are coordinated with a semaphore per key and the processes with a lock file per key,
+ * the locks are kept between the remote calls of a build until they are released.
+ * @author Ariel.Lenis
+ */
+public class CacheLocks {
+    private static final long POLL_MILLIS = 500;
+
+    private static final Map<String, KeyLock> KEYS = new HashMap<>();
+    private static final ConcurrentMap<String, Holder> HELD = new ConcurrentHashMap<>();
+
+    /**
+     * The semaphore of a key, it is removed when no thread holds it or waits for it
+     */
+    private static class KeyLock {
+        private final Semaphore semaphore = new Semaphore(1, true);
+        private int users;
+    }
+
+    private static class Holder {
+        private final String key;
+        private final KeyLock keyLock;
+        private final RandomAccessFile file;
+        private final FileLock lock;
+
+        Holder(String key, KeyLock keyLock, RandomAccessFile file, FileLock lock) {
+            this.key = key;
+            this.keyLock = keyLock;
+            this.file = file;
+            this.lock = lock;
+        }
+    }
+
+    private CacheLocks() {
+    }
+
+    /**
+     * Acquires the lock of a key, waiting for the build that holds it
+     * @param lockFolder the folder for the lock files
+     * @param key
+     * @param token the identifier of the holder, used to release the lock
+     * @param timeoutMillis
+     * @return false if the lock was not acquired in time
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public static boolean acquire(File lockFolder, String key, String token, long timeoutMillis) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        KeyLock keyLock = useKey(key);
+        boolean acquired = false;
+        boolean held = false;
+
+        try {
+            if (!keyLock.semaphore.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            acquired = true;
+
+            if (!lockFolder.isDirectory() && !lockFolder.mkdirs() && !lockFolder.isDirectory()) {
+                throw new IOException("Cannot create the lock folder " + lockFolder);
+            }
+
+            RandomAccessFile file = new RandomAccessFile(new File(lockFolder, key + ".lock"), "rw");
+            try {
+                FileLock lock = file.getChannel().tryLock();
+                while (lock == null) {
+                    if (System.currentTimeMillis() > deadline) {
+                        file.close();
+                        return false;
+                    }
+                    Thread.sleep(POLL_MILLIS);
+                    lock = file.getChannel().tryLock();
+                }
+
+                HELD.put(token, new Holder(key, keyLock, file, lock));
+                held = true;
+                return true;
+            } catch (IOException | InterruptedException | RuntimeException error) {
+                file.close();
+                throw error;
+            }
+        } finally {
+            // The semaphore is kept by the holder until the lock is released
+            if (!held) {
+                if (acquired) {
+                    keyLock.semaphore.release();
+                }
+                releaseKey(key, keyLock);
+            }
+        }
+    }
+
+    /**
+     * Releases a lock acquired with {@link #acquire}
+     * @param token
+     * @throws IOException 
+     */
+    public static void release(String token) throws IOException {
+        Holder holder = HELD.remove(token);
+        if (holder == null) {
+            return;
+        }
+
+        try {
+            holder.lock.release();
+        } finally {
+            holder.file.close();
+            holder.keyLock.semaphore.release();
+            releaseKey(holder.key, holder.keyLock);
+        }
+    }
+
+    /**
+     * Gets the semaphore of a key and registers the current thread as one of its users
+     * @param key
+     * @return 
+     */
+    private static KeyLock useKey(String key) {
+        synchronized (KEYS) {
+            KeyLock keyLock = KEYS.get(key);
+            if (keyLock == null) {
+                keyLock = new KeyLock();
+                KEYS.put(key, keyLock);
+            }
+            keyLock.users++;
+            return keyLock;
+        }
+    }
+
+    /**
+     * Unregisters a user of the semaphore of a key, the semaphore is removed with its last user
+     * @param key
+     * @param keyLock 
+     */
+    private static void releaseKey(String key, KeyLock keyLock) {
+        synchronized (KEYS) {
+            if (--keyLock.users == 0) {
+                KEYS.remove(key);
+            }
+        }
+    }
+
+    /**
+     * @return the keys with a semaphore in the current process, for the tests
+     */
+    static int getKeyCount() {
+        synchronized (KEYS) {
+            return KEYS.size();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Stores the archives in a folder of the controller, it can be a network
+ * folder shared by several controllers.
+ * The archives are sharded by the first two characters of the key.
+ * @author Ariel.Lenis
+ */
+public class FileSystemBuildCacheBackend implements BuildCacheBackend {
+    private static final String ARCHIVE_EXTENSION = ".tgz";
+
+    private final File root;
+
+    /**
+     * The file system backend constructor
+     * @param root 
+     */
+    public FileSystemBuildCacheBackend(File root) {
+        this.root = root;
+    }
+
+    private File getArchive(String key) {
+        File shard = new File(this.root, key.substring(0, 2));
+        return new File(shard, key + ARCHIVE_EXTENSION);
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return this.getArchive(key).isFile();
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        File archive = this.getArchive(key);
+        if (!archive.isFile()) {
+            return null;
+        }
+        return new FileInputStream(archive);
+    }
+
+    @Override
+    public void put(String key, File archive) throws IOException {
+        File target = this.getArchive(key);
+        if (target.isFile()) {
+            return;
+        }
+
+        File shard = target.getParentFile();
+        if (!shard.isDirectory() && !shard.mkdirs()) {
+            throw new IOException("Cannot create the cache folder " + shard);
+        }
+
+        // Copied next to the target first, so the final rename is atomic
+        File temporary = File.createTempFile(key, ".tmp", shard);
+        try {
+            Files.copy(archive.toPath(), temporary.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException error) {
+            if (!target.isFile()) {
+                throw error;
+            }
+        } finally {
+            Files.deleteIfExists(temporary.toPath());
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "the folder " + this.root;
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.cache;
+
+import hudson.ProxyConfiguration;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.tools.StringTools;
+import hudson.util.Secret;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Stores the archives in a HTTP server, the archive of a key is read
+ * with a GET and stored with a PUT to {@code <base url>/<key>.tgz}.
+ * The producer stores the SHA-256 of the archive in {@code <base url>/<key>.tgz.sha256}
+ * after the archive, an archive is only returned when its content matches it.
+ * @author Ariel.Lenis
+ */
+public class HttpBuildCacheBackend implements BuildCacheBackend {
+    private static final String ARCHIVE_EXTENSION = ".tgz";
+    private static final String DIGEST_EXTENSION = ".sha256";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 60000;
+
+    private final String baseUrl;
+    private final String authorization;
+
+    /**
+     * The HTTP backend constructor
+     * @param baseUrl 
+     * @param username the user of the basic authentication, null to send no credentials
+     * @param password 
+     */
+    public HttpBuildCacheBackend(String baseUrl, String username, Secret password) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+
+        if (username == null || username.isEmpty()) {
+            this.authorization = null;
+        } else {
+            String plain = username + ":" + Secret.toString(password);
+            try {
+                this.authorization = "Basic " + Base64.encodeBase64String(plain.getBytes(ProjectConstants.ENCODING));
+            } catch (IOException error) {
+                throw new IllegalStateException(error);
+            }
+        }
+    }
+
+    /**
+     * Validates the URL of the build cache, the archives are run by the nodes so
+     * plain http is only accepted for the loopback address
+     * @param baseUrl
+     * @return the validation error or null if the URL can be used
+     */
+    public static String checkUrl(String baseUrl) {
+        URL url;
+        try {
+            url = new URL(baseUrl);
+        } catch (MalformedURLException error) {
+            return "The build cache URL is not valid: " + error.getMessage();
+        }
+
+        if ("https".equals(url.getProtocol())) {
+            return null;
+        }
+
+        String host = url.getHost();
+        if ("http".equals(url.getProtocol()) && ("localhost".equalsIgnoreCase(host) || "127.0.0.1".equals(host) || "[::1]".equals(host))) {
+            return null;
+        }
+
+        return "The build cache URL must use https, plain http is only accepted for the loopback address.";
+    }
+
+    private HttpURLConnection connect(String path, String method) throws IOException {
+        URL url = new URL(this.baseUrl + path);
+        HttpURLConnection connection = (HttpURLConnection) ProxyConfiguration.open(url);
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        connection.setInstanceFollowRedirects(false);
+
+        if (this.authorization != null) {
+            connection.setRequestProperty("Authorization", this.authorization);
+        }
+        return connection;
+    }
+
+    private static MessageDigest createDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException error) {
+            throw new IOException(error);
+        }
+    }
+
+    /**
+     * An archive without its digest is not complete
+     * @param key
+     * @return
+     * @throws IOException 
+     */
+    @Override
+    public boolean contains(String key) throws IOException {
+        HttpURLConnection connection = this.connect(key + ARCHIVE_EXTENSION + DIGEST_EXTENSION, "HEAD");
+        try {
+            return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Downloads the archive to a temporary file and verifies its digest before returning it
+     * @param key
+     * @return the verified archive, the temporary file is removed when it is closed
+     * @throws IOException when the archive doesn't match its digest
+     */
+    @Override
+    public InputStream open(String key) throws IOException {
+        String expected = this.read(key + ARCHIVE_EXTENSION + DIGEST_EXTENSION);
+        if (expected == null) {
+            return null;
+        }
+
+        HttpURLConnection connection = this.connect(key + ARCHIVE_EXTENSION, "GET");
+        File download = null;
+        boolean verified = false;
+        try {
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+                return null;
+            }
+
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("The build cache returned " + status + " for " + key);
+            }
+
+            download = File.createTempFile("dotnetascript", ARCHIVE_EXTENSION);
+            MessageDigest digest = createDigest();
+            try (InputStream input = new DigestInputStream(connection.getInputStream(), digest); OutputStream output = new FileOutputStream(download)) {
+                IOUtils.copy(input, output);
+            }
+
+            if (!StringTools.toHex(digest.digest()).equalsIgnoreCase(expected.trim())) {
+                throw new IOException("The archive of " + key + " doesn't match the digest recorded by its producer.");
+            }
+
+            verified = true;
+            return new TemporaryFileInputStream(download);
+        } finally {
+            connection.disconnect();
+            if (!verified && download != null && !download.delete()) {
+                download.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Stores the archive and then its digest, so the archive is used only when it is complete
+     * @param key
+     * @param archive
+     * @throws IOException 
+     */
+    @Override
+    public void put(String key, File archive) throws IOException {
+        MessageDigest digest = createDigest();
+        try (InputStream input = new DigestInputStream(new FileInputStream(archive), digest)) {
+            this.write(key + ARCHIVE_EXTENSION, input, archive.length(), "application/gzip");
+        }
+
+        byte[] content = StringTools.toHex(digest.digest()).getBytes(ProjectConstants.ENCODING);
+        try (InputStream input = new ByteArrayInputStream(content)) {
+            this.write(key + ARCHIVE_EXTENSION + DIGEST_EXTENSION, input, content.length, "text/plain");
+        }
+    }
+
+    private String read(String path) throws IOException {
+        HttpURLConnection connection = this.connect(path, "GET");
+        try {
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+                return null;
+            }
+
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("The build cache returned " + status + " for " + path);
+            }
+
+            try (InputStream input = connection.getInputStream()) {
+                return IOUtils.toString(input, ProjectConstants.ENCODING);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private void write(String path, InputStream input, long length, String contentType) throws IOException {
+        HttpURLConnection connection = this.connect(path, "PUT");
+        try {
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(length);
+            connection.setRequestProperty("Content-Type", contentType);
+
+            try (OutputStream output = connection.getOutputStream()) {
+                IOUtils.copy(input, output);
+            }
+
+            int status = connection.getResponseCode();
+            if (status < 200 || status >= 300) {
+                throw new IOException("The build cache returned " + status + " storing " + path);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return this.baseUrl;
+    }
+
+    /**
+     * Removes the downloaded archive once it is read
+     */
+    private static class TemporaryFileInputStream extends FileInputStream {
+        private final File file;
+
+        TemporaryFileInputStream(File file) throws IOException {
+            super(file);
+            this.file = file;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!this.file.delete()) {
+                    this.file.deleteOnExit();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.callables;
+
+import hudson.plugins.dotnetasscript.cache.CacheIndex;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Updates or reads the record of an entry in the index of a cache root, under the same
+ * locks as the cache maintenance
+ * @author Ariel.Lenis
+ */
+public class CacheIndexCallable extends MasterToSlaveFileCallable<Long> {
+
+    private static final long serialVersionUID = -2684035917263458871L;
+
+    private final String key;
+    private final boolean measure;
+
+    private CacheIndexCallable(String key, boolean measure) {
+        this.key = key;
+        this.measure = measure;
+    }
+
+    /**
+     * Creates the callable that measures an entry and records its size,
+     * the last use and the hits of an indexed entry are kept
+     * @param key
+     * @return 
+     */
+    public static CacheIndexCallable record(String key) {
+        return new CacheIndexCallable(key, true);
+    }
+
+    /**
+     * Creates the callable that reads the hits of an entry, the times a build used it
+     * @param key
+     * @return 
+     */
+    public static CacheIndexCallable hits(String key) {
+        return new CacheIndexCallable(key, false);
+    }
+
+    /**
+     * @param root the cache root
+     * @param channel
+     * @return the size of the entry in bytes when it is recorded, its hits when they are read
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    @Override
+    public Long invoke(File root, VirtualChannel channel) throws IOException, InterruptedException {
+        synchronized (CacheMaintenanceCallable.INDEX_LOCK) {
+            try (RandomAccessFile lockFile = new RandomAccessFile(new File(root, ProjectConstants.CACHE_LOCK_FILE), "rw");
+                    FileLock lock = lockFile.getChannel().lock()) {
+                CacheIndex index = CacheIndex.load(new File(root, ProjectConstants.CACHE_INDEX_FILE));
+
+                if (!this.measure) {
+                    CacheIndex.Entry entry = index.get(this.key);
+                    return entry == null ? 0L : entry.getHits();
+                }
+
+                if (!index.existed()) {
+                    CacheMaintenanceCallable.indexExistingEntries(root, index);
+                }
+
+                long size = CacheMaintenanceCallable.getSize(CacheMaintenanceCallable.getEntryFolder(root, this.key));
+                CacheIndex.Entry entry = index.get(this.key);
+
+                if (entry == null) {
+                    index.put(new CacheIndex.Entry(this.key, System.currentTimeMillis(), size, 0));
+                } else {
+                    index.put(new CacheIndex.Entry(this.key, entry.getLastUsed(), size, entry.getHits()));
+                }
+
+                index.save();
+                return size;
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.callables;
+
+import hudson.plugins.dotnetasscript.cache.CacheLocks;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Acquires or releases the lock of a cache key in the node of the cache
+ * @author Ariel.Lenis
+ */
+public class CacheLockCallable extends MasterToSlaveFileCallable<Boolean> {
+
+    private static final long serialVersionUID = -7215480314986127093L;
+
+    private final String key;
+    private final String token;
+    private final long timeoutMillis;
+    private final boolean release;
+
+    private CacheLockCallable(String key, String token, long timeoutMillis, boolean release) {
+        this.key = key;
+        this.token = token;
+        this.timeoutMillis = timeoutMillis;
+        this.release = release;
+    }
+
+    /**
+     * Creates the callable that acquires the lock
+     * @param key
+     * @param token
+     * @param timeoutMillis
+     * @return 
+     */
+    public static CacheLockCallable acquire(String key, String token, long timeoutMillis) {
+        return new CacheLockCallable(key, token, timeoutMillis, false);
+    }
+
+    /**
+     * Creates the callable that releases the lock
+     * @param token
+     * @return 
+     */
+    public static CacheLockCallable release(String token) {
+        return new CacheLockCallable(null, token, 0, true);
+    }
+
+    /**
+     * @param lockFolder the folder for the lock files
+     * @param channel
+     * @return true if the lock was acquired or released
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    @Override
+    public Boolean invoke(File lockFolder, VirtualChannel channel) throws IOException, InterruptedException {
+        if (this.release) {
+            CacheLocks.release(this.token);
+            return true;
+        }
+        return CacheLocks.acquire(lockFolder, this.key, this.token, this.timeoutMillis);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.callables;
+
+import hudson.plugins.dotnetasscript.cache.CacheIndex;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.remoting.VirtualChannel;
+import hudson.Util;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Records the use of a cache entry and evicts the least recently used entries
+ * of the cache root when it is over its budget. The index is locked with a file
+ * lock, so the builds of every executor and agent process are coordinated.
+ * @author Ariel.Lenis
+ */
+public class CacheMaintenanceCallable extends MasterToSlaveFileCallable<Integer> {
+
+    private static final long serialVersionUID = 4817302956158314026L;
+    private static final long STALE_MILLIS = 24L * 60 * 60 * 1000;
+
+    /**
+     * The file lock of the index coordinates the processes, but it cannot be taken twice in the same process
+     */
+    static final Object INDEX_LOCK = new Object();
+
+    private final String key;
+    private final String pin;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+
+    /**
+     * The cache maintenance callable constructor
+     * @param key the entry used by the build
+     * @param pin the pin of the build over the entry, it is released
+     * @param maxBytes the size budget of the cache root
+     * @param maxAgeMillis the time that an entry is kept without being used
+     */
+    public CacheMaintenanceCallable(String key, String pin, long maxBytes, long maxAgeMillis) {
+        this.key = key;
+        this.pin = pin;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * @param root the cache root
+     * @param channel
+     * @return the number of evicted entries
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    @Override
+    public Integer invoke(File root, VirtualChannel channel) throws IOException, InterruptedException {
+        long now = System.currentTimeMillis();
+        File pins = new File(root, ProjectConstants.CACHE_PINS_FOLDER_NAME);
+        File staging = new File(root, ProjectConstants.CACHE_STAGING_FOLDER_NAME);
+
+        new File(pins, this.key + "." + this.pin).delete();
+
+        synchronized (INDEX_LOCK) {
+            try (RandomAccessFile lockFile = new RandomAccessFile(new File(root, ProjectConstants.CACHE_LOCK_FILE), "rw");
+                    FileLock lock = lockFile.getChannel().lock()) {
+                CacheIndex index = CacheIndex.load(new File(root, ProjectConstants.CACHE_INDEX_FILE));
+
+                if (!index.existed()) {
+                    indexExistingEntries(root, index);
+                }
+
+                CacheIndex.Entry used = index.get(this.key);
+                if (used == null) {
+                    used = new CacheIndex.Entry(this.key, now, getSize(getEntryFolder(root, this.key)), 0);
+                    index.put(used);
+                }
+                used.use(now);
+
+                int evicted = this.evict(root, index, pins, staging, now);
+                this.removeStale(staging, now);
+
+                index.save();
+                return evicted;
+            }
+        }
+    }
+
+    private int evict(File root, CacheIndex index, File pins, File staging, long now) throws IOException, InterruptedException {
+        long total = index.getTotalSize();
+        int evicted = 0;
+
+        for (CacheIndex.Entry entry : index.getLeastRecentlyUsed()) {
+            boolean expired = now - entry.getLastUsed() > this.maxAgeMillis;
+            if (total <= this.maxBytes && !expired) {
+                break;
+            }
+
+            if (entry.getKey().equals(this.key) || this.isPinned(pins, entry.getKey(), now)) {
+                continue;
+            }
+
+            File folder = getEntryFolder(root, entry.getKey());
+            if (folder.exists()) {
+                // Renamed first, so the entry is never seen half deleted
+                File removed = new File(staging, entry.getKey() + ".evicted." + Long.toHexString(System.nanoTime()));
+                staging.mkdirs();
+                if (!folder.renameTo(removed)) {
+                    continue;
+                }
+                Util.deleteRecursive(removed);
+            }
+
+            index.remove(entry.getKey());
+            total -= entry.getSize();
+            evicted++;
+        }
+
+        return evicted;
+    }
+
+    private boolean isPinned(File pins, String entryKey, long now) {
+        File[] files = pins.listFiles();
+        if (files == null) {
+            return false;
+        }
+
+        for (File file : files) {
+            // The pins of builds that died are ignored after a while
+            if (file.getName().startsWith(entryKey + ".") && now - file.lastModified() < STALE_MILLIS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeStale(File staging, long now) throws IOException {
+        File[] files = staging.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (now - file.lastModified() > STALE_MILLIS) {
+                Util.deleteRecursive(file);
+            }
+        }
+    }
+
+    /**
+     * Adds the entries created before the index existed, it only happens once per cache root
+     * @param root
+     * @param index 
+     */
+    static void indexExistingEntries(File root, CacheIndex index) {
+        File[] shards = root.listFiles();
+        if (shards == null) {
+            return;
+        }
+
+        for (File shard : shards) {
+            if (!shard.isDirectory() || shard.getName().length() != 2) {
+                continue;
+            }
+
+            File[] entries = shard.listFiles();
+            if (entries == null) {
+                continue;
+            }
+
+            for (File entry : entries) {
+                if (entry.isDirectory()) {
+                    index.put(new CacheIndex.Entry(entry.getName(), entry.lastModified(), getSize(entry), 0));
+                }
+            }
+        }
+    }
+
+    static File getEntryFolder(File root, String entryKey) {
+        return new File(new File(root, entryKey.substring(0, 2)), entryKey);
+    }
+
+    static long getSize(File file) {
+        if (file.isFile()) {
+            return file.length();
+        }
+
+        long size = 0;
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                size += getSize(child);
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.callables;
+
+import hudson.plugins.dotnetasscript.tools.DataExchangeWriter;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Writes the data file of a script in the node with the content of the workspace files,
+ * the content never leaves the node.
+ * @author Ariel.Lenis
+ */
+public class DataInputCallable extends MasterToSlaveFileCallable<Integer> {
+
+    private static final long serialVersionUID = 2871460533172910364L;
+
+    private final String workspace;
+    private final LinkedHashMap<String, String> files;
+
+    /**
+     * The data input callable constructor
+     * @param workspace the folder of the relative paths
+     * @param files the path of the file of every key
+     */
+    public DataInputCallable(String workspace, Map<String, String> files) {
+        this.workspace = workspace;
+        this.files = new LinkedHashMap<>(files);
+    }
+
+    /**
+     * @param file the data file
+     * @param channel
+     * @return the number of entries written
+     * @throws IOException when a file doesn't exist
+     * @throws InterruptedException
+     */
+    @Override
+    public Integer invoke(File file, VirtualChannel channel) throws IOException, InterruptedException {
+        try (DataExchangeWriter writer = new DataExchangeWriter(file)) {
+            for (Map.Entry<String, String> entry : this.files.entrySet()) {
+                File source = new File(entry.getValue());
+                if (!source.isAbsolute()) {
+                    source = new File(this.workspace, entry.getValue());
+                }
+
+                if (!source.isFile()) {
+                    throw new IOException("The data file " + entry.getValue() + " of " + entry.getKey() + " doesn't exist.");
+                }
+
+                writer.put(entry.getKey(), source);
+            }
+        }
+
+        return this.files.size();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.callables;
+
+import hudson.plugins.dotnetasscript.tools.DataExchangeReader;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Extracts the data saved by a script in the node, every entry is written
+ * as a file named as its key in the target folder.
+ * @author Ariel.Lenis
+ */
+public class DataOutputCallable extends MasterToSlaveFileCallable<LinkedHashMap<String, Long>> {
+
+    private static final long serialVersionUID = -5308761927449163728L;
+
+    private final String folder;
+
+    /**
+     * The data output callable constructor
+     * @param folder the folder that receives the entries
+     */
+    public DataOutputCallable(String folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * @param file the data file written by the script
+     * @param channel
+     * @return the length of every extracted entry, empty if the script saved no data
+     * @throws IOException when the data file or a key is not valid
+     * @throws InterruptedException
+     */
+    @Override
+    public LinkedHashMap<String, Long> invoke(File file, VirtualChannel channel) throws IOException, InterruptedException {
+        LinkedHashMap<String, Long> extracted = new LinkedHashMap<>();
+
+        if (!file.exists()) {
+            return extracted;
+        }
+
+        File target = new File(this.folder);
+        if (!target.isDirectory() && !target.mkdirs()) {
+            throw new IOException("The data folder " + this.folder + " cannot be created.");
+        }
+
+        try (DataExchangeReader reader = new DataExchangeReader(file)) {
+            for (String key : reader.getKeys()) {
+                if (key.isEmpty() || key.equals(".") || key.equals("..") || key.contains("/") || key.contains("\\")) {
+                    throw new IOException("The data key " + key + " is not a valid file name.");
+                }
+
+                reader.copyTo(key, new File(target, key));
+                extracted.put(key, reader.getLength(key));
+            }
+        }
+
+        return extracted;
+    }
+}
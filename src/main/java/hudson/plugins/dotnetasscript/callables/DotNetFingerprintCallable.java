@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.callables;
+
+import java.io.File;
+import java.io.IOException;
+import jenkins.security.MasterToSlaveCallable;
+
+/**
+ * Computes the fingerprint of the dotnet installation in the target node
+ * without launching any process. The fingerprint changes when the dotnet
+ * executable or its sdk folder change.
+ * @author Ariel.Lenis
+ */
+public class DotNetFingerprintCallable extends MasterToSlaveCallable<String, IOException> {
+
+    private static final long serialVersionUID = -3620497612407367114L;
+
+    private final String path;
+    private final String dotNetRoot;
+
+    /**
+     * The fingerprint callable constructor
+     * @param path the PATH variable of the target environment
+     * @param dotNetRoot the DOTNET_ROOT variable of the target environment, can be null
+     */
+    public DotNetFingerprintCallable(String path, String dotNetRoot) {
+        this.path = path;
+        this.dotNetRoot = dotNetRoot;
+    }
+
+    /**
+     * Locates the dotnet executable in the current node
+     * @return the canonical executable file or null if it was not found
+     * @throws IOException
+     */
+    private File findExecutable() throws IOException {
+        String executableName = File.separatorChar == '\\' ? "dotnet.exe" : "dotnet";
+
+        if (this.dotNetRoot != null && !this.dotNetRoot.isEmpty()) {
+            File candidate = new File(this.dotNetRoot, executableName);
+            if (candidate.isFile()) {
+                return candidate.getCanonicalFile();
+            }
+        }
+
+        if (this.path == null) {
+            return null;
+        }
+
+        for (String folder : this.path.split(File.pathSeparator)) {
+            if (folder.isEmpty()) {
+                continue;
+            }
+            File candidate = new File(folder, executableName);
+            if (candidate.isFile()) {
+                return candidate.getCanonicalFile();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the fingerprint or null if dotnet is not installed
+     * @throws IOException
+     */
+    @Override
+    public String call() throws IOException {
+        File executable = this.findExecutable();
+
+        if (executable == null) {
+            return null;
+        }
+
+        File sdkFolder = new File(executable.getParentFile(), "sdk");
+
+        return String.format("%s|%d|%d|%d", executable.getPath(), executable.lastModified(), executable.length(), sdkFolder.lastModified());
+    }
+}
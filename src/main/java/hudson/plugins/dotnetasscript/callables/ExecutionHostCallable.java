@@ -0,0 +1,157 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.callables;
+
+import hudson.model.TaskListener;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.general.ServiceEndpoint;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import jenkins.security.MasterToSlaveCallable;
+import org.json.JSONObject;
+
+/**
+ * Runs a script in the execution host of the target node,
+ * the script output is streamed to the listener while it runs.
+ * When the call is interrupted the host receives a cancel frame and the connection is closed.
+ * @author Ariel.Lenis
+ */
+public class ExecutionHostCallable extends MasterToSlaveCallable<Integer, IOException> {
+
+    private static final long serialVersionUID = 3920571064178725461L;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * The time that a read waits before checking if the call was interrupted
+     */
+    private static final int READ_TIMEOUT_MILLIS = 1000;
+
+    private final ServiceEndpoint endpoint;
+    private final String request;
+    private final TaskListener listener;
+
+    /**
+     * The execution host callable constructor
+     * @param endpoint
+     * @param request
+     * @param listener
+     */
+    public ExecutionHostCallable(ServiceEndpoint endpoint, String request, TaskListener listener) {
+        this.endpoint = endpoint;
+        this.request = request;
+        this.listener = listener;
+    }
+
+    /**
+     * @return the script exit code or null if the host cannot run it
+     * @throws IOException when the host stops while the script runs
+     * @throws InterruptedIOException when the call is interrupted, the script is cancelled in the host
+     */
+    @Override
+    public Integer call() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.endpoint.getPort()), CONNECT_TIMEOUT_MILLIS);
+        } catch (ConnectException error) {
+            socket.close();
+            return null;
+        }
+
+        try {
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), ProjectConstants.ENCODING);
+            writer.write(this.endpoint.getToken());
+            writer.write('\n');
+            writer.write(this.request);
+            writer.write('\n');
+            writer.flush();
+
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+            while (true) {
+                int value;
+                try {
+                    value = input.read();
+                } catch (SocketTimeoutException timeout) {
+                    if (Thread.interrupted()) {
+                        this.cancel(writer);
+                        throw new InterruptedIOException("The script was cancelled in the execution host.");
+                    }
+                    continue;
+                }
+
+                if (value == -1) {
+                    break;
+                }
+
+                if (value != '\n') {
+                    line.write(value);
+                    continue;
+                }
+
+                JSONObject frame = new JSONObject(line.toString(ProjectConstants.ENCODING));
+                line.reset();
+                String type = frame.getString("type");
+
+                if ("output".equals(type)) {
+                    this.listener.getLogger().println(frame.getString("value"));
+                } else if ("exit".equals(type)) {
+                    return frame.getInt("value");
+                } else if ("unavailable".equals(type)) {
+                    return null;
+                }
+            }
+        } finally {
+            socket.close();
+        }
+
+        throw new IOException("The execution host stopped while running the script.");
+    }
+
+    /**
+     * Sends the cancel frame, the host also cancels the script when the connection is closed
+     * @param writer
+     */
+    private void cancel(Writer writer) {
+        try {
+            writer.write("{\"type\":\"cancel\"}\n");
+            writer.flush();
+        } catch (IOException error) {
+            // The connection is closed anyway
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.callables;
+
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Replaces the content of a file in the node with a single rename, the readers
+ * of the file see the old content or the new one, never a partial write
+ * @author Ariel.Lenis
+ */
+public class ReplaceFileCallable extends MasterToSlaveFileCallable<Void> {
+
+    private static final long serialVersionUID = 6093712458823570145L;
+
+    private final String content;
+
+    /**
+     * The replace file callable constructor
+     * @param content the new content of the file
+     */
+    public ReplaceFileCallable(String content) {
+        this.content = content;
+    }
+
+    /**
+     * @param file the file to replace
+     * @param channel
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    @Override
+    public Void invoke(File file, VirtualChannel channel) throws IOException, InterruptedException {
+        File temporary = new File(file.getParentFile(), file.getName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+
+        try {
+            Files.write(temporary.toPath(), this.content.getBytes(ProjectConstants.ENCODING));
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary.toPath());
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.callables;
+
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Reads the complete lines appended to a file after the given offset,
+ * a line that is still being written is left for the next read.
+ * @author Ariel.Lenis
+ */
+public class ResultTailCallable extends MasterToSlaveFileCallable<byte[]> {
+
+    private static final long serialVersionUID = -1468207536431085617L;
+
+    private final long offset;
+
+    /**
+     * The tail callable constructor
+     * @param offset the bytes already read from the file
+     */
+    public ResultTailCallable(long offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * @param file
+     * @param channel
+     * @return the new complete lines, empty if there is nothing new
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    @Override
+    public byte[] invoke(File file, VirtualChannel channel) throws IOException, InterruptedException {
+        if (!file.exists() || file.length() <= this.offset) {
+            return new byte[0];
+        }
+
+        try (RandomAccessFile reader = new RandomAccessFile(file, "r")) {
+            byte[] content = new byte[(int) (reader.length() - this.offset)];
+            reader.seek(this.offset);
+            reader.readFully(content);
+
+            int end = content.length;
+            while (end > 0 && content[end - 1] != '\n') {
+                end--;
+            }
+
+            return Arrays.copyOf(content, end);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.callables;
+
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.TaskListener;
+import hudson.plugins.dotnetasscript.general.RunnerSettings;
+import hudson.plugins.dotnetasscript.general.ScriptStepResult;
+import hudson.plugins.dotnetasscript.main.DotNetAsScriptPluginFacade;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jenkins.security.MasterToSlaveCallable;
+
+/**
+ * Runs a whole step in the node, the cache lookup, the project files, the dotnet
+ * commands and the result channel are handled there without remote calls.
+ * @author Ariel.Lenis
+ */
+public class ScriptStepCallable extends MasterToSlaveCallable<ScriptStepResult, IOException> {
+
+    private static final long serialVersionUID = 6043381722458712925L;
+
+    private final String targetCode;
+    private final String targetPackagesJson;
+    private final String runtimeConfigTemplate;
+    private final LinkedHashMap<String, String> dataFiles;
+    private final String dataFolder;
+    private final EnvVars env;
+    private final String nodeRoot;
+    private final String nodeName;
+    private final String workspace;
+    private final int buildNumber;
+    private final RunnerSettings settings;
+    private final TaskListener listener;
+
+    /**
+     * The step callable constructor
+     * @param targetCode
+     * @param targetPackagesJson
+     * @param runtimeConfigTemplate the runtime options of the script, can be null
+     * @param dataFiles the workspace file of every data key the script reads
+     * @param dataFolder the workspace folder that receives the data saved by the script, can be null
+     * @param env the environment of the build
+     * @param nodeRoot the root folder of the node
+     * @param nodeName
+     * @param workspace the workspace of the build
+     * @param buildNumber
+     * @param settings
+     * @param listener the listener of the build, the output is sent through it
+     */
+    public ScriptStepCallable(String targetCode, String targetPackagesJson, String runtimeConfigTemplate, Map<String, String> dataFiles, String dataFolder, EnvVars env, String nodeRoot, String nodeName, String workspace, int buildNumber, RunnerSettings settings, TaskListener listener) {
+        this.targetCode = targetCode;
+        this.targetPackagesJson = targetPackagesJson;
+        this.runtimeConfigTemplate = runtimeConfigTemplate;
+        this.dataFiles = new LinkedHashMap<>(dataFiles);
+        this.dataFolder = dataFolder;
+        this.env = env;
+        this.nodeRoot = nodeRoot;
+        this.nodeName = nodeName;
+        this.workspace = workspace;
+        this.buildNumber = buildNumber;
+        this.settings = settings;
+        this.listener = listener;
+    }
+
+    /**
+     * @return the saved variables, the typed values and the error of the step
+     * @throws IOException
+     */
+    @Override
+    public ScriptStepResult call() throws IOException {
+        Launcher launcher = new Launcher.LocalLauncher(this.listener);
+        DotNetAsScriptPluginFacade facade = new DotNetAsScriptPluginFacade(this.listener.getLogger(), new FilePath(new File(this.nodeRoot)), this.nodeName,
+                new FilePath(new File(this.workspace)), this.buildNumber, launcher, this.listener, this.settings);
+        facade.setRuntimeConfigTemplate(this.runtimeConfigTemplate);
+        facade.setDataExchange(this.dataFiles, this.dataFolder);
+        Map<String, String> variables = new LinkedHashMap<>();
+        Map<String, Object> values = new LinkedHashMap<>();
+
+        try {
+            facade.runStep(this.targetCode, this.targetPackagesJson, this.env, variables, values);
+        } catch (Exception error) {
+            // The variables saved before the failure are kept
+            return new ScriptStepResult(variables, values, error);
+        }
+
+        return new ScriptStepResult(variables, values, null);
+    }
+}
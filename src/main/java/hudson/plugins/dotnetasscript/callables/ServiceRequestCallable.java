@@ -0,0 +1,83 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.callables;
+
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.general.ServiceEndpoint;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import jenkins.security.MasterToSlaveCallable;
+
+/**
+ * Sends a single line request to a local service in the target node
+ * and returns its single line response, the request is preceded by the token of the service
+ * @author Ariel.Lenis
+ */
+public class ServiceRequestCallable extends MasterToSlaveCallable<String, IOException> {
+
+    private static final long serialVersionUID = -1452238740310858406L;
+
+    private final ServiceEndpoint endpoint;
+    private final String request;
+
+    /**
+     * The request callable constructor
+     * @param endpoint
+     * @param request the request, it cannot contain line breaks
+     */
+    public ServiceRequestCallable(ServiceEndpoint endpoint, String request) {
+        this.endpoint = endpoint;
+        this.request = request;
+    }
+
+    /**
+     * @return the response line
+     * @throws IOException
+     */
+    @Override
+    public String call() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.endpoint.getPort())) {
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), ProjectConstants.ENCODING);
+            writer.write(this.endpoint.getToken());
+            writer.write('\n');
+            writer.write(this.request);
+            writer.write('\n');
+            writer.flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), ProjectConstants.ENCODING));
+            String response = reader.readLine();
+
+            if (response == null) {
+                throw new IOException("The service closed the connection without response.");
+            }
+
+            return response;
+        }
+    }
+}
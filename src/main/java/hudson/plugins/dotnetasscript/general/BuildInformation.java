@@ -1,123 +1,278 @@
-/*
- * The MIT License
- *
- * Copyright 2017 Ariel.Lenis.
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package hudson.plugins.dotnetasscript.general;
-
-import net.sf.json.JSONObject;
-
-/**
- *
- * @author Ariel.Lenis
- */
-public class BuildInformation {
-    
-    private int buildNumber;
-    private String packagesHash;
-    private String dotNetVersion;
-    
-    /**
-     * Load the build information from a JSON string
-     * @param json
-     * @return 
-     */
-    public static BuildInformation loadFromJson(String json) {
-        BuildInformation newOne = new BuildInformation();
-        
-        JSONObject jsonObject = JSONObject.fromObject(json);
-
-        Object objBuildNumber = jsonObject.get("buildNumber");
-        Object objPackagesHash = jsonObject.get("packagesHash");
-        Object objDotNetVersion = jsonObject.get("dotNetVersion");
-        
-        if (objBuildNumber != null && objBuildNumber instanceof Integer) {
-            newOne.buildNumber = (int)objBuildNumber;
-        }
-        
-        if (objPackagesHash != null && objPackagesHash instanceof String) {
-            newOne.packagesHash = (String)objPackagesHash;
-        }
-        
-        if (objDotNetVersion != null && objDotNetVersion instanceof String) {
-            newOne.dotNetVersion = (String)objDotNetVersion;
-        }        
-        
-        return newOne;
-    }
-    
-    /**
-     * Gets the current object as a JSON string
-     * @return the JSON string that represent this object
-     */
-    public String getAsJson() {
-        JSONObject jsonObject = new JSONObject();
-        
-        jsonObject.put("buildNumber", this.buildNumber);
-        jsonObject.put("packagesHash", this.packagesHash);
-        jsonObject.put("dotNetVersion", this.dotNetVersion);
-        
-        return jsonObject.toString();
-    }
-
-    /**
-     * @return the buildNumber
-     */
-    public int getBuildNumber() {
-        return buildNumber;
-    }
-
-    /**
-     * @param buildNumber the buildNumber to set
-     */
-    public void setBuildNumber(int buildNumber) {
-        this.buildNumber = buildNumber;
-    }
-
-    /**
-     * @return the packagesHash
-     */
-    public String getPackagesHash() {
-        return packagesHash;
-    }
-
-    /**
-     * @param packagesHash the packagesHash to set
-     */
-    public void setPackagesHash(String packagesHash) {
-        this.packagesHash = packagesHash;
-    }
-
-    /**
-     * @return the dotNetVersion
-     */
-    public String getDotNetVersion() {
-        return dotNetVersion;
-    }
-
-    /**
-     * @param dotNetVersion the dotNetVersion to set
-     */
-    public void setDotNetVersion(String dotNetVersion) {
-        this.dotNetVersion = dotNetVersion;
-    }
-    
-}
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.general;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import net.sf.json.JSONObject;
+
+/**
+ *
+ * @author Ariel.Lenis
+ */
+public class BuildInformation {
+    
+    private int buildNumber;
+    private String packagesHash;
+    private String dotNetVersion;
+    private Map<String, String> files = new TreeMap<>();
+    private String outputAssembly;
+    private String runtimeConfig;
+    private String targetFramework;
+    private String hotAssembly;
+    private String hotRuntimeConfig;
+    private boolean hotPublishFailed;
+    
+    /**
+     * Load the build information from a JSON string
+     * @param json
+     * @return 
+     */
+    public static BuildInformation loadFromJson(String json) {
+        BuildInformation newOne = new BuildInformation();
+        
+        JSONObject jsonObject = JSONObject.fromObject(json);
+
+        Object objBuildNumber = jsonObject.get("buildNumber");
+        Object objPackagesHash = jsonObject.get("packagesHash");
+        Object objDotNetVersion = jsonObject.get("dotNetVersion");
+        Object objFiles = jsonObject.get("files");
+        Object objOutputAssembly = jsonObject.get("outputAssembly");
+        Object objRuntimeConfig = jsonObject.get("runtimeConfig");
+        Object objTargetFramework = jsonObject.get("targetFramework");
+        Object objHotAssembly = jsonObject.get("hotAssembly");
+        Object objHotRuntimeConfig = jsonObject.get("hotRuntimeConfig");
+        Object objHotPublishFailed = jsonObject.get("hotPublishFailed");
+        
+        if (objBuildNumber != null && objBuildNumber instanceof Integer) {
+            newOne.buildNumber = (int)objBuildNumber;
+        }
+        
+        if (objPackagesHash != null && objPackagesHash instanceof String) {
+            newOne.packagesHash = (String)objPackagesHash;
+        }
+        
+        if (objDotNetVersion != null && objDotNetVersion instanceof String) {
+            newOne.dotNetVersion = (String)objDotNetVersion;
+        }        
+        
+        if (objFiles != null && objFiles instanceof JSONObject) {
+            JSONObject jsonFiles = (JSONObject)objFiles;
+            Iterator iterator = jsonFiles.keys();
+            while (iterator.hasNext()) {
+                String path = iterator.next().toString();
+                newOne.files.put(path, jsonFiles.getString(path));
+            }
+        }
+        
+        if (objOutputAssembly != null && objOutputAssembly instanceof String) {
+            newOne.outputAssembly = (String)objOutputAssembly;
+        }
+        
+        if (objRuntimeConfig != null && objRuntimeConfig instanceof String) {
+            newOne.runtimeConfig = (String)objRuntimeConfig;
+        }
+        
+        if (objTargetFramework != null && objTargetFramework instanceof String) {
+            newOne.targetFramework = (String)objTargetFramework;
+        }
+        
+        if (objHotAssembly != null && objHotAssembly instanceof String) {
+            newOne.hotAssembly = (String)objHotAssembly;
+        }
+        
+        if (objHotRuntimeConfig != null && objHotRuntimeConfig instanceof String) {
+            newOne.hotRuntimeConfig = (String)objHotRuntimeConfig;
+        }
+        
+        if (objHotPublishFailed != null && objHotPublishFailed instanceof Boolean) {
+            newOne.hotPublishFailed = (boolean)objHotPublishFailed;
+        }
+        
+        return newOne;
+    }
+    
+    /**
+     * Gets the current object as a JSON string
+     * @return the JSON string that represent this object
+     */
+    public String getAsJson() {
+        JSONObject jsonObject = new JSONObject();
+        
+        jsonObject.put("buildNumber", this.buildNumber);
+        jsonObject.put("packagesHash", this.packagesHash);
+        jsonObject.put("dotNetVersion", this.dotNetVersion);
+        jsonObject.put("files", JSONObject.fromObject(this.files));
+        jsonObject.put("outputAssembly", this.outputAssembly);
+        jsonObject.put("runtimeConfig", this.runtimeConfig);
+        jsonObject.put("targetFramework", this.targetFramework);
+        jsonObject.put("hotAssembly", this.hotAssembly);
+        jsonObject.put("hotRuntimeConfig", this.hotRuntimeConfig);
+        jsonObject.put("hotPublishFailed", this.hotPublishFailed);
+        
+        return jsonObject.toString();
+    }
+
+    /**
+     * @return the buildNumber
+     */
+    public int getBuildNumber() {
+        return buildNumber;
+    }
+
+    /**
+     * @param buildNumber the buildNumber to set
+     */
+    public void setBuildNumber(int buildNumber) {
+        this.buildNumber = buildNumber;
+    }
+
+    /**
+     * @return the packagesHash
+     */
+    public String getPackagesHash() {
+        return packagesHash;
+    }
+
+    /**
+     * @param packagesHash the packagesHash to set
+     */
+    public void setPackagesHash(String packagesHash) {
+        this.packagesHash = packagesHash;
+    }
+
+    /**
+     * @return the dotNetVersion
+     */
+    public String getDotNetVersion() {
+        return dotNetVersion;
+    }
+
+    /**
+     * @param dotNetVersion the dotNetVersion to set
+     */
+    public void setDotNetVersion(String dotNetVersion) {
+        this.dotNetVersion = dotNetVersion;
+    }
+
+    /**
+     * @return the manifest of the generated files, the content hash of every file by its relative path
+     */
+    public Map<String, String> getFiles() {
+        return files;
+    }
+
+    /**
+     * @param files the manifest of the generated files to set
+     */
+    public void setFiles(Map<String, String> files) {
+        this.files = new TreeMap<>(files);
+    }
+
+    /**
+     * @return the compiled assembly path, relative to the project folder
+     */
+    public String getOutputAssembly() {
+        return outputAssembly;
+    }
+
+    /**
+     * @param outputAssembly the outputAssembly to set
+     */
+    public void setOutputAssembly(String outputAssembly) {
+        this.outputAssembly = outputAssembly;
+    }
+
+    /**
+     * @return the runtime configuration path, relative to the project folder
+     */
+    public String getRuntimeConfig() {
+        return runtimeConfig;
+    }
+
+    /**
+     * @param runtimeConfig the runtimeConfig to set
+     */
+    public void setRuntimeConfig(String runtimeConfig) {
+        this.runtimeConfig = runtimeConfig;
+    }
+
+    /**
+     * @return the target framework of the compiled assembly
+     */
+    public String getTargetFramework() {
+        return targetFramework;
+    }
+
+    /**
+     * @param targetFramework the targetFramework to set
+     */
+    public void setTargetFramework(String targetFramework) {
+        this.targetFramework = targetFramework;
+    }
+
+    /**
+     * @return the ReadyToRun published assembly path, relative to the project folder, null if the script is not hot
+     */
+    public String getHotAssembly() {
+        return hotAssembly;
+    }
+
+    /**
+     * @param hotAssembly the hotAssembly to set
+     */
+    public void setHotAssembly(String hotAssembly) {
+        this.hotAssembly = hotAssembly;
+    }
+
+    /**
+     * @return the runtime configuration path of the published assembly, relative to the project folder
+     */
+    public String getHotRuntimeConfig() {
+        return hotRuntimeConfig;
+    }
+
+    /**
+     * @param hotRuntimeConfig the hotRuntimeConfig to set
+     */
+    public void setHotRuntimeConfig(String hotRuntimeConfig) {
+        this.hotRuntimeConfig = hotRuntimeConfig;
+    }
+
+    /**
+     * @return true if the publish failed, it is not tried again for the same output
+     */
+    public boolean isHotPublishFailed() {
+        return hotPublishFailed;
+    }
+
+    /**
+     * @param hotPublishFailed the hotPublishFailed to set
+     */
+    public void setHotPublishFailed(boolean hotPublishFailed) {
+        this.hotPublishFailed = hotPublishFailed;
+    }
+    
+}
@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.general;
+
+/**
+ * The stages that a build really needs to execute
+ * @author Ariel.Lenis
+ */
+public class BuildPlan {
+    private boolean restoreNeeded;
+    private boolean buildNeeded;
+    private boolean sourcesChanged;
+
+    /**
+     * @return true if the packages must be restored
+     */
+    public boolean isRestoreNeeded() {
+        return restoreNeeded;
+    }
+
+    /**
+     * @param restoreNeeded the restoreNeeded to set
+     */
+    public void setRestoreNeeded(boolean restoreNeeded) {
+        this.restoreNeeded = restoreNeeded;
+    }
+
+    /**
+     * @return true if the project must be compiled
+     */
+    public boolean isBuildNeeded() {
+        return buildNeeded;
+    }
+
+    /**
+     * @param buildNeeded the buildNeeded to set
+     */
+    public void setBuildNeeded(boolean buildNeeded) {
+        this.buildNeeded = buildNeeded;
+    }
+
+    /**
+     * @return true if the source files differ from the last successful build
+     */
+    public boolean isSourcesChanged() {
+        return sourcesChanged;
+    }
+
+    /**
+     * @param sourcesChanged the sourcesChanged to set
+     */
+    public void setSourcesChanged(boolean sourcesChanged) {
+        this.sourcesChanged = sourcesChanged;
+    }
+}
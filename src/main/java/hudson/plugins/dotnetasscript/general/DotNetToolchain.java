@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.general;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The DOTNET toolchain installed in a node
+ * @author Ariel.Lenis
+ */
+public class DotNetToolchain implements Serializable {
+
+    private static final long serialVersionUID = 2876416360924515331L;
+    private static final String RUNTIME_NAME = "Microsoft.NETCore.App";
+
+    private final String defaultSdk;
+    private final List<String> sdks;
+    private final List<String> runtimes;
+    private final String fingerprint;
+
+    /**
+     * The toolchain constructor
+     * @param defaultSdk
+     * @param sdks
+     * @param runtimes
+     * @param fingerprint
+     */
+    public DotNetToolchain(String defaultSdk, List<String> sdks, List<String> runtimes, String fingerprint) {
+        this.defaultSdk = defaultSdk;
+        this.sdks = Collections.unmodifiableList(new ArrayList<>(sdks));
+        this.runtimes = Collections.unmodifiableList(new ArrayList<>(runtimes));
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @return the SDK version resolved by the dotnet executable, null for the nodes with only the runtime
+     */
+    public String getDefaultSdk() {
+        return defaultSdk;
+    }
+
+    /**
+     * @return the installed SDK versions
+     */
+    public List<String> getSdks() {
+        return sdks;
+    }
+
+    /**
+     * @return the installed runtimes, as "name version"
+     */
+    public List<String> getRuntimes() {
+        return runtimes;
+    }
+
+    /**
+     * @return the fingerprint of the dotnet installation when it was discovered
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return true if the node can build projects, otherwise it can only run them
+     */
+    public boolean hasSdk() {
+        return this.defaultSdk != null;
+    }
+
+    /**
+     * Gets the target framework moniker that the default SDK creates projects for
+     * @return the target framework, like netcoreapp2.1 or net8.0
+     */
+    public String getTargetFramework() {
+        return toTargetFramework(this.defaultSdk, true);
+    }
+
+    /**
+     * Gets the target frameworks that the installed runtimes can run, the newest first
+     * @return
+     */
+    public List<String> getRuntimeTargetFrameworks() {
+        List<String> result = new ArrayList<>();
+
+        for (int i = this.runtimes.size() - 1; i >= 0; i--) {
+            String[] runtime = this.runtimes.get(i).split(" ");
+            if (runtime.length == 2 && RUNTIME_NAME.equals(runtime[0])) {
+                String targetFramework = toTargetFramework(runtime[1], false);
+                if (!result.contains(targetFramework)) {
+                    result.add(targetFramework);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Determines if the node can run the projects built for the target framework
+     * @param targetFramework
+     * @return
+     */
+    public boolean canRun(String targetFramework) {
+        if (this.hasSdk() && this.getTargetFramework().equals(targetFramework)) {
+            return true;
+        }
+        return this.getRuntimeTargetFrameworks().contains(targetFramework);
+    }
+
+    /**
+     * Converts a SDK or runtime version to its target framework moniker
+     * @param version
+     * @param isSdk
+     * @return
+     */
+    private static String toTargetFramework(String version, boolean isSdk) {
+        String[] parts = version.split("[.-]");
+        int major = Integer.parseInt(parts[0]);
+        int minor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+
+        if (major >= 5) {
+            return String.format("net%d.%d", major, minor);
+        }
+
+        if (isSdk && major == 2 && minor == 1 && parts.length > 2 && Integer.parseInt(parts[2]) < 300) {
+            // The SDKs 2.1.1xx and 2.1.2xx shipped with the 2.0 runtime
+            return "netcoreapp2.0";
+        }
+
+        return String.format("netcoreapp%d.%d", major, minor);
+    }
+
+    /**
+     * Determines if this toolchain was discovered for the target installation fingerprint
+     * @param currentFingerprint
+     * @return
+     */
+    public boolean matches(String currentFingerprint) {
+        return this.fingerprint != null && this.fingerprint.equals(currentFingerprint);
+    }
+}
@@ -1,52 +1,158 @@
-package hudson.plugins.dotnetasscript.general;
-
-/*
- * The MIT License
- *
- * Copyright 2017 Ariel.Lenis.
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-
-/**
- *
- * @author Ariel.Lenis
- */
-public class ProjectConstants {
-    
-    /**
-     * The target encoding for this project
-     */
-    public static final String ENCODING = "UTF-8";
-    
-    /**
-     * The target folder name to create inside the unique folder
-     */
-    public static final String PROJECT_FOLDER_NAME = "dotnetascript";
-    
-    /**
-     * The file that will store the last build information
-     */
-    public static final String BUILD_INFORMATION_FILE = ".buildInformation";
-    
-    /**
-     * The cache folder name that contains all the unique folders
-     */
-    public static final String CACHE_FOLDER_NAME = ".dotnetascript";
-}
+package hudson.plugins.dotnetasscript.general;
+
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+/**
+ *
+ * @author Ariel.Lenis
+ */
+public class ProjectConstants {
+    
+    /**
+     * The target encoding for this project
+     */
+    public static final String ENCODING = "UTF-8";
+    
+    /**
+     * The target folder name to create inside the unique folder
+     */
+    public static final String PROJECT_FOLDER_NAME = "dotnetascript";
+    
+    /**
+     * The project file name inside the project folder
+     */
+    public static final String PROJECT_FILE_NAME = PROJECT_FOLDER_NAME + ".csproj";
+    
+    /**
+     * The file that will store the last build information
+     */
+    public static final String BUILD_INFORMATION_FILE = ".buildInformation";
+    
+    /**
+     * The result channel file that the script appends its results to, one JSON frame per line
+     */
+    public static final String RESULT_FILE_NAME = "jenkinsExecution.jsonl";
+    
+    /**
+     * The environment variable that tells the script where its result channel is
+     */
+    public static final String RESULT_FILE_VARIABLE = "DOTNETASSCRIPT_RESULT_FILE";
+    
+    /**
+     * The data files exchanged with the script, the script maps them in memory
+     */
+    public static final String DATA_INPUT_FILE_NAME = "jenkinsData.in";
+    public static final String DATA_OUTPUT_FILE_NAME = "jenkinsData.out";
+    
+    /**
+     * The environment variables that tell the script where its data files are
+     */
+    public static final String DATA_INPUT_VARIABLE = "DOTNETASSCRIPT_DATA_INPUT";
+    public static final String DATA_OUTPUT_VARIABLE = "DOTNETASSCRIPT_DATA_OUTPUT";
+    
+    /**
+     * The runtime options of the script, the SDK merges them in the runtime configuration
+     */
+    public static final String RUNTIME_CONFIG_TEMPLATE_NAME = "runtimeconfig.template.json";
+    
+    /**
+     * The folder inside the project folder of a hot script entry with the ReadyToRun output
+     */
+    public static final String HOT_SCRIPT_FOLDER_NAME = "bin/ReadyToRun";
+    
+    /**
+     * The suffix of the cache key of a compiled script that gives the key of its ReadyToRun output
+     */
+    public static final String HOT_SCRIPT_KEY_SUFFIX = ".r2r";
+    
+    /**
+     * The environment variables that tell a script of a parallel run its position and its shard
+     */
+    public static final String TASK_INDEX_VARIABLE = "DOTNETASSCRIPT_TASK_INDEX";
+    public static final String TASK_COUNT_VARIABLE = "DOTNETASSCRIPT_TASK_COUNT";
+    public static final String SHARD_VARIABLE = "DOTNETASSCRIPT_SHARD";
+    
+    /**
+     * The folder name inside the workspace for the files of every build
+     */
+    public static final String CACHE_FOLDER_NAME = ".dotnetascript";
+    
+    /**
+     * The folder name inside the node root that contains the compiled scripts
+     */
+    public static final String NODE_CACHE_FOLDER_NAME = "dotnetascript-cache";
+    
+    /**
+     * The folder inside a cache root where the entries are built before they are published
+     */
+    public static final String CACHE_STAGING_FOLDER_NAME = "staging";
+    
+    /**
+     * The folder inside a cache root with the entries that are in use
+     */
+    public static final String CACHE_PINS_FOLDER_NAME = "pins";
+    
+    /**
+     * The folder inside a cache root with the lock files of the entries that are being built
+     */
+    public static final String CACHE_LOCKS_FOLDER_NAME = "locks";
+    
+    /**
+     * The index file of a cache root
+     */
+    public static final String CACHE_INDEX_FILE = "index.tsv";
+    
+    /**
+     * The lock file of the index of a cache root
+     */
+    public static final String CACHE_LOCK_FILE = "index.lock";
+    
+    /**
+     * The folder name inside the controller root that contains the compiled scripts of every node
+     */
+    public static final String STORE_FOLDER_NAME = "dotnetascript-store";
+    
+    /**
+     * The package of the JSON serializer of the former harness, the harness still uses it for the frameworks
+     * older than netcoreapp3.0, which have no System.Text.Json
+     */
+    public static final String NEWTONSOFT_PACKAGE = "Newtonsoft.Json";
+    
+    /**
+     * The version of the embedded harness and project layout, part of every cache key.
+     * It must be raised when the project template changes.
+     */
+    public static final String HARNESS_VERSION = "8";
+    
+    /**
+     * The folder name inside the node root that contains the helper services
+     */
+    public static final String SERVICES_FOLDER_NAME = "dotnetascript-services";
+    
+    /**
+     * The minutes that a helper service waits for requests before stopping
+     */
+    public static final int SERVICE_IDLE_MINUTES = 30;
+}
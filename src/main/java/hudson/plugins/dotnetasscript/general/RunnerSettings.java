@@ -0,0 +1,278 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.general;
+
+import hudson.util.Secret;
+import java.io.Serializable;
+
+/**
+ * The global configuration used by a step, it is sent to the node
+ * when the step runs there.
+ * @author Ariel.Lenis
+ */
+public class RunnerSettings implements Serializable {
+
+    private static final long serialVersionUID = 3921850412277960153L;
+
+    private boolean useCompileService;
+    private boolean distributeCompiledScripts;
+    private String buildCacheType;
+    private String buildCacheLocation;
+    private String buildCacheUsername;
+    private Secret buildCachePassword;
+    private int cacheMaxSize;
+    private int cacheMaxAge;
+    private boolean useExecutionHost;
+    private int executionHostConcurrency;
+    private int executionHostMaxExecutions;
+    private int executionHostMaxMemory;
+    private boolean orchestrateOnAgent;
+    private boolean batchSteps;
+    private boolean hotScripts;
+    private int hotScriptThreshold;
+
+    /**
+     * @return true if the scripts are compiled through the compile service
+     */
+    public boolean getUseCompileService() {
+        return useCompileService;
+    }
+
+    /**
+     * @param useCompileService the useCompileService to set
+     */
+    public void setUseCompileService(boolean useCompileService) {
+        this.useCompileService = useCompileService;
+    }
+
+    /**
+     * @return true if the compiled scripts are shared between the nodes
+     */
+    public boolean getDistributeCompiledScripts() {
+        return distributeCompiledScripts;
+    }
+
+    /**
+     * @param distributeCompiledScripts the distributeCompiledScripts to set
+     */
+    public void setDistributeCompiledScripts(boolean distributeCompiledScripts) {
+        this.distributeCompiledScripts = distributeCompiledScripts;
+    }
+
+    /**
+     * @return the backend that stores the shared compiled scripts
+     */
+    public String getBuildCacheType() {
+        return buildCacheType;
+    }
+
+    /**
+     * @param buildCacheType the buildCacheType to set
+     */
+    public void setBuildCacheType(String buildCacheType) {
+        this.buildCacheType = buildCacheType;
+    }
+
+    /**
+     * @return the folder or the URL of the backend
+     */
+    public String getBuildCacheLocation() {
+        return buildCacheLocation;
+    }
+
+    /**
+     * @param buildCacheLocation the buildCacheLocation to set
+     */
+    public void setBuildCacheLocation(String buildCacheLocation) {
+        this.buildCacheLocation = buildCacheLocation;
+    }
+
+    /**
+     * @return the user of the HTTP build cache, null when it sends no credentials
+     */
+    public String getBuildCacheUsername() {
+        return buildCacheUsername;
+    }
+
+    /**
+     * @param buildCacheUsername the buildCacheUsername to set
+     */
+    public void setBuildCacheUsername(String buildCacheUsername) {
+        this.buildCacheUsername = buildCacheUsername;
+    }
+
+    /**
+     * @return the password of the HTTP build cache user
+     */
+    public Secret getBuildCachePassword() {
+        return buildCachePassword;
+    }
+
+    /**
+     * @param buildCachePassword the buildCachePassword to set
+     */
+    public void setBuildCachePassword(Secret buildCachePassword) {
+        this.buildCachePassword = buildCachePassword;
+    }
+
+    /**
+     * @return the size in megabytes of the compiled scripts cache of every node
+     */
+    public int getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    /**
+     * @param cacheMaxSize the cacheMaxSize to set
+     */
+    public void setCacheMaxSize(int cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    /**
+     * @return the days that a compiled script is kept in the node cache without being used
+     */
+    public int getCacheMaxAge() {
+        return cacheMaxAge;
+    }
+
+    /**
+     * @param cacheMaxAge the cacheMaxAge to set
+     */
+    public void setCacheMaxAge(int cacheMaxAge) {
+        this.cacheMaxAge = cacheMaxAge;
+    }
+
+    /**
+     * @return true if the compiled scripts run through the execution host
+     */
+    public boolean getUseExecutionHost() {
+        return useExecutionHost;
+    }
+
+    /**
+     * @param useExecutionHost the useExecutionHost to set
+     */
+    public void setUseExecutionHost(boolean useExecutionHost) {
+        this.useExecutionHost = useExecutionHost;
+    }
+
+    /**
+     * @return the scripts that the execution host runs at the same time, zero to use the processor count of the node
+     */
+    public int getExecutionHostConcurrency() {
+        return executionHostConcurrency;
+    }
+
+    /**
+     * @param executionHostConcurrency the executionHostConcurrency to set
+     */
+    public void setExecutionHostConcurrency(int executionHostConcurrency) {
+        this.executionHostConcurrency = executionHostConcurrency;
+    }
+
+    /**
+     * @return the scripts that the execution host runs before it is recycled
+     */
+    public int getExecutionHostMaxExecutions() {
+        return executionHostMaxExecutions;
+    }
+
+    /**
+     * @param executionHostMaxExecutions the executionHostMaxExecutions to set
+     */
+    public void setExecutionHostMaxExecutions(int executionHostMaxExecutions) {
+        this.executionHostMaxExecutions = executionHostMaxExecutions;
+    }
+
+    /**
+     * @return the working set in megabytes that recycles the execution host
+     */
+    public int getExecutionHostMaxMemory() {
+        return executionHostMaxMemory;
+    }
+
+    /**
+     * @param executionHostMaxMemory the executionHostMaxMemory to set
+     */
+    public void setExecutionHostMaxMemory(int executionHostMaxMemory) {
+        this.executionHostMaxMemory = executionHostMaxMemory;
+    }
+
+    /**
+     * @return true if the whole step runs in the node with a single remote call
+     */
+    public boolean getOrchestrateOnAgent() {
+        return orchestrateOnAgent;
+    }
+
+    /**
+     * @param orchestrateOnAgent the orchestrateOnAgent to set
+     */
+    public void setOrchestrateOnAgent(boolean orchestrateOnAgent) {
+        this.orchestrateOnAgent = orchestrateOnAgent;
+    }
+
+    /**
+     * @return true if the consecutive steps of a build run in one batch
+     */
+    public boolean getBatchSteps() {
+        return batchSteps;
+    }
+
+    /**
+     * @param batchSteps the batchSteps to set
+     */
+    public void setBatchSteps(boolean batchSteps) {
+        this.batchSteps = batchSteps;
+    }
+
+    /**
+     * @return true if the scripts that run often are published with ReadyToRun code
+     */
+    public boolean getHotScripts() {
+        return hotScripts;
+    }
+
+    /**
+     * @param hotScripts the hotScripts to set
+     */
+    public void setHotScripts(boolean hotScripts) {
+        this.hotScripts = hotScripts;
+    }
+
+    /**
+     * @return the executions of a compiled script before it is published as a hot script
+     */
+    public int getHotScriptThreshold() {
+        return hotScriptThreshold;
+    }
+
+    /**
+     * @param hotScriptThreshold the hotScriptThreshold to set
+     */
+    public void setHotScriptThreshold(int hotScriptThreshold) {
+        this.hotScriptThreshold = hotScriptThreshold;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.general;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The result of a step that ran in the node
+ * @author Ariel.Lenis
+ */
+public class ScriptStepResult implements Serializable {
+
+    private static final long serialVersionUID = -2215806378390173552L;
+
+    private final LinkedHashMap<String, String> variables;
+    private final LinkedHashMap<String, Object> values;
+    private final Exception error;
+
+    /**
+     * The step result constructor
+     * @param variables the variables saved by the script
+     * @param values the typed values saved by the script
+     * @param error the error of the step, null if the step succeeded
+     */
+    public ScriptStepResult(Map<String, String> variables, Map<String, Object> values, Exception error) {
+        this.variables = new LinkedHashMap<>(variables);
+        this.values = new LinkedHashMap<>(values);
+        this.error = error;
+    }
+
+    /**
+     * @return the variables saved by the script, even when the step failed
+     */
+    public Map<String, String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * @return the typed values saved by the script, even when the step failed
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    /**
+     * @return the error of the step, null if the step succeeded
+     */
+    public Exception getError() {
+        return error;
+    }
+}
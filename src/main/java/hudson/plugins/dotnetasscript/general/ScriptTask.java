@@ -0,0 +1,72 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.general;
+
+import java.io.Serializable;
+
+/**
+ * A script of a parallel run, the shard is passed to the script in its environment
+ * @author Ariel.Lenis
+ */
+public class ScriptTask implements Serializable {
+
+    private static final long serialVersionUID = 7752034193384214563L;
+
+    private final String name;
+    private final String targetCode;
+    private final String shard;
+
+    /**
+     * The script task constructor
+     * @param name the name of the task in the build log
+     * @param targetCode
+     * @param shard the shard argument, can be null
+     */
+    public ScriptTask(String name, String targetCode, String shard) {
+        this.name = name;
+        this.targetCode = targetCode;
+        this.shard = shard;
+    }
+
+    /**
+     * @return the name of the task in the build log
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the code of the script
+     */
+    public String getTargetCode() {
+        return targetCode;
+    }
+
+    /**
+     * @return the shard argument, null if the task has no shard
+     */
+    public String getShard() {
+        return shard;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.general;
+
+import java.io.Serializable;
+
+/**
+ * The loopback address of a helper service of the node, every request
+ * starts with the token of the service instance
+ * @author Ariel.Lenis
+ */
+public class ServiceEndpoint implements Serializable {
+
+    private static final long serialVersionUID = 5093317780271628439L;
+
+    private final int port;
+    private final String token;
+
+    /**
+     * The service endpoint constructor
+     * @param port
+     * @param token the secret written by the service next to its port
+     */
+    public ServiceEndpoint(int port, String token) {
+        this.port = port;
+        this.token = token;
+    }
+
+    /**
+     * @return the loopback port of the service
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return the secret that authenticates the requests
+     */
+    public String getToken() {
+        return token;
+    }
+}
@@ -1,206 +1,599 @@
-/*
- * The MIT License
- *
- * Copyright 2017 Ariel.Lenis.
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package hudson.plugins.dotnetasscript.main;
-
-import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
-import hudson.plugins.dotnetasscript.exceptions.DotNetPluginException;
-import hudson.plugins.dotnetasscript.exceptions.DotNetProjectManagerException;
-import hudson.plugins.dotnetasscript.general.NodeFile;
-import hudson.plugins.dotnetasscript.general.ProjectConstants;
-import hudson.plugins.dotnetasscript.managers.DotNetCommandLineManager;
-import hudson.plugins.dotnetasscript.managers.DotNetPackagesManager;
-import hudson.plugins.dotnetasscript.managers.DotNetProjectManager;
-import hudson.plugins.dotnetasscript.tools.FileTools;
-import hudson.plugins.dotnetasscript.tools.StringTools;
-import hudson.EnvVars;
-import hudson.Launcher;
-import hudson.model.AbstractBuild;
-import hudson.model.BuildListener;
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.PrintStream;
-import java.io.UnsupportedEncodingException;
-import java.security.NoSuchAlgorithmException;
-import java.util.Iterator;
-import javax.annotation.Nonnull;
-import net.sf.json.JSONObject;
-import org.apache.commons.io.IOUtils;
-import org.jenkinsci.lib.envinject.EnvInjectException;
-import org.jenkinsci.plugins.envinject.EnvInjectBuilder;
-
-/**
- *
- * @author Ariel.Lenis
- */
-public class DotNetAsScriptPluginFacade {
-    private final AbstractBuild<?, ?> build;
-    private final Launcher launcher;
-    private final BuildListener listener;
-    private final NodeFile workspaceFolder;
-    private final PrintStream logger;
-    
-    /**
-     * The facade to encapsulate the engine
-     * @param logger
-     * @param build
-     * @param launcher
-     * @param listener
-     * @throws IOException
-     * @throws InterruptedException 
-     */
-    public DotNetAsScriptPluginFacade(PrintStream logger, @Nonnull AbstractBuild<?, ?> build, @Nonnull Launcher launcher, @Nonnull BuildListener listener) throws IOException, InterruptedException {
-        this.logger = logger;
-        this.build = build;
-        this.launcher = launcher;
-        this.listener = listener;
-        this.workspaceFolder = new NodeFile(build.getWorkspace());
-    }
-    
-    /**
-     * Gets the target resource file as string
-     * @param fileName
-     * @return 
-     * @throws java.io.IOException 
-     */
-    public String getResourceFileContent(String fileName) throws IOException {
-	ClassLoader classLoader = getClass().getClassLoader();
-        InputStream inputStream = classLoader.getResourceAsStream(fileName);
-        String content = IOUtils.toString(inputStream, ProjectConstants.ENCODING);
-        return content;
-    } 
-    
-    /**
-     * Gets the unique folder name based in the target DOTNET code
-     * @param targetCode
-     * @return
-     * @throws NoSuchAlgorithmException
-     * @throws UnsupportedEncodingException 
-     */
-    private String getUniqueFolderName(String targetCode) throws NoSuchAlgorithmException, UnsupportedEncodingException {
-        return StringTools.getStringIdentificator(targetCode);
-    }
-    
-    /**
-     * Runs the plugin configuration
-     * @param targetCode
-     * @param targetPackagesJson
-     * @throws IOException
-     * @throws InterruptedException
-     * @throws NoSuchAlgorithmException
-     * @throws EnvInjectException 
-     */
-    public void runAll(String targetCode, String targetPackagesJson) throws IOException, InterruptedException, NoSuchAlgorithmException, EnvInjectException, UnsupportedEncodingException, DotNetPluginException, DotNetCommandLineException {
-        NodeFile dotScriptWorkspace = new NodeFile(this.workspaceFolder, ProjectConstants.CACHE_FOLDER_NAME);
-        
-        DotNetPackagesManager dotNetPackages = new DotNetPackagesManager(this.logger, targetPackagesJson);                
-        
-        String uniqueFolderName = this.getUniqueFolderName(targetCode);        
-        NodeFile uniqueFolder = new NodeFile(dotScriptWorkspace, uniqueFolderName);
-
-        EnvVars env = this.build.getEnvironment(this.listener);
-        DotNetCommandLineManager dotNetCommandLine = new DotNetCommandLineManager(this.logger, this.launcher, env, this.listener, uniqueFolder, ProjectConstants.PROJECT_FOLDER_NAME);
-        
-        NodeFile currentProjectFolder = new NodeFile(uniqueFolder, ProjectConstants.PROJECT_FOLDER_NAME);        
-        DotNetProjectManager projectManager = null;
-        
-        try {
-            projectManager = new DotNetProjectManager(this.logger, build.getNumber(), dotNetCommandLine, dotNetPackages, currentProjectFolder);
-        } catch (DotNetProjectManagerException error) {
-            throw new DotNetPluginException("Error initalizing the dotnet project manager class", error);
-        }        
-        
-        projectManager.addFileForCreation("JenkinsExecutor.cs", this.getResourceFileContent("hudson/plugins/dotnetasscript/resources/JenkinsExecutor.cs"));
-        projectManager.addFileForCreation("JenkinsManager.cs", this.getResourceFileContent("hudson/plugins/dotnetasscript/resources/JenkinsManager.cs"));
-        projectManager.addFileForCreation("Program.cs", this.getResourceFileContent("hudson/plugins/dotnetasscript/resources/Program.cs"));
-        projectManager.addFileForCreation("TargetCode.cs", targetCode);
-   
-        if (!uniqueFolder.exists()) {
-            uniqueFolder.mkdir();
-        }
-        
-        try {
-            projectManager.createProject();
-            projectManager.buildProject();
-            projectManager.runProject();
-        } catch (DotNetCommandLineException error) {
-            throw new DotNetPluginException("Error running the project.", error);
-        }
-        
-        NodeFile resultsFile = new NodeFile(currentProjectFolder, "jenkinsExecution.json");
-        
-        this.processResultFile(resultsFile, build, launcher, env, listener);                
-    }
-    
-    /**
-     * Process the result file generated by the DOTNET application
-     * @param resultsFile
-     * @param build
-     * @param launcher
-     * @param env
-     * @param listener
-     * @throws IOException
-     * @throws EnvInjectException
-     * @throws InterruptedException 
-     */
-    private void processResultFile(NodeFile resultsFile, AbstractBuild<?,?> build, Launcher launcher, EnvVars env, BuildListener listener) throws IOException, EnvInjectException, InterruptedException { 
-        
-        //String theJson = FileUtils.readFileToString(resultsFile, "utf-8");
-        String theJson = FileTools.getFileContent(resultsFile);
-        JSONObject jsonObject = JSONObject.fromObject(theJson);
-        
-        String environmentTemplate = "%s=%s%n";
-        String environmentVariables;        
-        StringBuilder environmentVariablesBuffer = new StringBuilder();
-        
-        if (jsonObject.containsKey("SavedEnvironment"))
-        {
-            JSONObject environment = jsonObject.getJSONObject("SavedEnvironment");
-               
-            Iterator iterator = environment.keys();
-            while (iterator.hasNext())
-            {               
-                String key = iterator.next().toString();
-                String value = environment.getString(key);
-                
-                if (value == null) {
-                    value = "null";
-                }
-                    
-                String scapedValue = value.replace("\\", "\\\\");
-
-                environmentVariablesBuffer.append(String.format(environmentTemplate, key, scapedValue));
-            }
-
-            environmentVariables = environmentVariablesBuffer.toString();
-            EnvInjectBuilder envInjectBuilder = new EnvInjectBuilder(null, environmentVariables);
-            envInjectBuilder.perform(build, launcher, listener); 
-        }
-        else
-        {            
-           this.listener.getLogger().println("##### SavedEnvironment not found");    
-        }
-    }
-}
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.main;
+
+import hudson.plugins.dotnetasscript.cache.BuildCacheBackend;
+import hudson.plugins.dotnetasscript.cache.FileSystemBuildCacheBackend;
+import hudson.plugins.dotnetasscript.cache.HttpBuildCacheBackend;
+import hudson.plugins.dotnetasscript.callables.ScriptStepCallable;
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.exceptions.DotNetPluginException;
+import hudson.plugins.dotnetasscript.general.DotNetToolchain;
+import hudson.plugins.dotnetasscript.general.NodeFile;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.general.RunnerSettings;
+import hudson.plugins.dotnetasscript.general.ScriptStepResult;
+import hudson.plugins.dotnetasscript.general.ScriptTask;
+import hudson.plugins.dotnetasscript.managers.BatchRunManager;
+import hudson.plugins.dotnetasscript.managers.DataExchangeManager;
+import hudson.plugins.dotnetasscript.managers.DotNetPackagesManager;
+import hudson.plugins.dotnetasscript.managers.DotNetProjectManager;
+import hudson.plugins.dotnetasscript.managers.DotNetToolchainManager;
+import hudson.plugins.dotnetasscript.managers.ParallelRunManager;
+import hudson.plugins.dotnetasscript.managers.ResultChannelManager;
+import hudson.plugins.dotnetasscript.managers.ScriptCompilationManager;
+import hudson.plugins.dotnetasscript.managers.ScriptRunner;
+import hudson.plugins.dotnetasscript.managers.ScriptSourcesManager;
+import hudson.plugins.dotnetasscript.tools.ResourceTools;
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.Node;
+import hudson.model.Project;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.tasks.Builder;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+
+/**
+ *
+ * @author Ariel.Lenis
+ */
+public class DotNetAsScriptPluginFacade implements ScriptRunner {
+    private static final String WARM_UP_CODE = "class WarmUp { public static void ScriptMain() { } }";
+    private static final String WARM_UP_PACKAGES = "{}";
+    
+    private final AbstractBuild<?, ?> build;
+    private final FilePath nodeRoot;
+    private final String nodeName;
+    private final int buildNumber;
+    private final Launcher launcher;
+    private final TaskListener listener;
+    private final NodeFile workspaceFolder;
+    private final PrintStream logger;
+    private final RunnerSettings settings;
+    private String runtimeConfigTemplate;
+    private Map<String, String> dataFiles = new LinkedHashMap<>();
+    private String dataFolder;
+    
+    /**
+     * The facade to encapsulate the engine
+     * @param logger
+     * @param build
+     * @param launcher
+     * @param listener
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public DotNetAsScriptPluginFacade(PrintStream logger, @Nonnull AbstractBuild<?, ?> build, @Nonnull Launcher launcher, @Nonnull BuildListener listener) throws IOException, InterruptedException {
+        this.logger = logger;
+        Node node = build.getBuiltOn();
+        
+        this.build = build;
+        this.nodeRoot = node == null ? null : node.getRootPath();
+        this.nodeName = build.getBuiltOnStr();
+        this.buildNumber = build.getNumber();
+        this.launcher = launcher;
+        this.listener = listener;
+        this.workspaceFolder = new NodeFile(build.getWorkspace());
+        this.settings = Jenkins.getInstance().getDescriptorByType(DotNetCoreRunner.DescriptorImpl.class).createRunnerSettings();
+    }
+    
+    /**
+     * The facade to compile scripts in a node outside of a build
+     * @param logger
+     * @param node
+     * @param launcher
+     * @param listener 
+     */
+    public DotNetAsScriptPluginFacade(PrintStream logger, @Nonnull Node node, @Nonnull Launcher launcher, @Nonnull TaskListener listener) {
+        this.logger = logger;
+        this.build = null;
+        this.nodeRoot = node.getRootPath();
+        this.nodeName = node.getNodeName();
+        this.buildNumber = 0;
+        this.launcher = launcher;
+        this.listener = listener;
+        this.workspaceFolder = null;
+        this.settings = Jenkins.getInstance().getDescriptorByType(DotNetCoreRunner.DescriptorImpl.class).createRunnerSettings();
+    }
+    
+    /**
+     * The facade to run a step inside the node, where the files are local
+     * @param logger
+     * @param nodeRoot
+     * @param nodeName
+     * @param workspace
+     * @param buildNumber
+     * @param launcher
+     * @param listener
+     * @param settings 
+     */
+    public DotNetAsScriptPluginFacade(PrintStream logger, @Nonnull FilePath nodeRoot, String nodeName, @Nonnull FilePath workspace, int buildNumber, @Nonnull Launcher launcher, @Nonnull TaskListener listener, @Nonnull RunnerSettings settings) {
+        this.logger = logger;
+        this.build = null;
+        this.nodeRoot = nodeRoot;
+        this.nodeName = nodeName;
+        this.buildNumber = buildNumber;
+        this.launcher = launcher;
+        this.listener = listener;
+        this.workspaceFolder = new NodeFile(workspace);
+        this.settings = settings;
+    }
+    
+    /**
+     * Gets the target resource file as string
+     * @param fileName
+     * @return 
+     * @throws java.io.IOException 
+     */
+    public String getResourceFileContent(String fileName) throws IOException {
+        return ResourceTools.getResourceContent(fileName);
+    } 
+    
+    /**
+     * Sets the runtime options of the next scripts, they are part of the sources so
+     * the scripts with different options are compiled and cached apart
+     * @param runtimeConfigTemplate the content of the runtimeconfig.template.json, null for the runtime defaults
+     */
+    public void setRuntimeConfigTemplate(String runtimeConfigTemplate) {
+        this.runtimeConfigTemplate = runtimeConfigTemplate;
+    }
+    
+    /**
+     * Sets the data exchanged with the next scripts through memory mapped files
+     * @param dataFiles the workspace file of every key the script reads, empty for none
+     * @param dataFolder the workspace folder that receives the data saved by the script, null to discard it
+     */
+    public void setDataExchange(Map<String, String> dataFiles, String dataFolder) {
+        this.dataFiles = new LinkedHashMap<>(dataFiles);
+        this.dataFolder = dataFolder;
+    }
+    
+    /**
+     * Creates the manager of the source files of the script projects
+     * @return 
+     */
+    private ScriptSourcesManager createScriptSources() {
+        return new ScriptSourcesManager(this.logger, this.runtimeConfigTemplate);
+    }
+    
+    /**
+     * Creates the manager that gets the compiled scripts in the node where the build runs
+     * @param env
+     * @param toolchain
+     * @return
+     * @throws DotNetPluginException 
+     */
+    private ScriptCompilationManager createCompilation(EnvVars env, DotNetToolchain toolchain) throws DotNetPluginException {
+        BuildCacheBackend backend = this.settings.getDistributeCompiledScripts() ? this.createBuildCacheBackend() : null;
+        return new ScriptCompilationManager(this.logger, this.nodeRoot, this.buildNumber, this.launcher, this.listener, this.settings, backend, env, toolchain);
+    }
+    
+    /**
+     * Creates the build cache backend selected in the global configuration
+     * @return
+     * @throws DotNetPluginException 
+     */
+    private BuildCacheBackend createBuildCacheBackend() throws DotNetPluginException {
+        String location = this.settings.getBuildCacheLocation();
+        
+        switch (this.settings.getBuildCacheType()) {
+            case DotNetCoreRunner.BUILD_CACHE_FILESYSTEM:
+                if (location.isEmpty()) {
+                    throw new DotNetPluginException("The build cache folder is not configured.");
+                }
+                return new FileSystemBuildCacheBackend(new File(location));
+            case DotNetCoreRunner.BUILD_CACHE_HTTP:
+                if (location.isEmpty()) {
+                    throw new DotNetPluginException("The build cache URL is not configured.");
+                }
+                String urlError = HttpBuildCacheBackend.checkUrl(location);
+                if (urlError != null) {
+                    throw new DotNetPluginException(urlError);
+                }
+                return new HttpBuildCacheBackend(location, this.settings.getBuildCacheUsername(), this.settings.getBuildCachePassword());
+            default:
+                return new FileSystemBuildCacheBackend(new File(Jenkins.getInstance().getRootDir(), ProjectConstants.STORE_FOLDER_NAME));
+        }
+    }
+    
+    /**
+     * Compiles a script in the node cache without running it, so the builds
+     * that use it later start with the compiled assembly
+     * @param targetCode
+     * @param targetPackagesJson
+     * @param env
+     * @param toolchain
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException 
+     */
+    public void precompile(String targetCode, String targetPackagesJson, EnvVars env, DotNetToolchain toolchain) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        ScriptSourcesManager scriptSources = this.createScriptSources();
+        DotNetPackagesManager dotNetPackages = new DotNetPackagesManager(this.logger, targetPackagesJson);
+        Map<String, String> sources = scriptSources.getSources(targetCode);
+        scriptSources.addImplicitPackages(dotNetPackages, Arrays.asList(targetCode));
+        
+        this.createCompilation(env, toolchain).getCompiledScript(dotNetPackages, sources);
+    }
+    
+    /**
+     * Compiles an empty script, it prepares the runtime of the node
+     * and starts the build servers of the SDK
+     * @param env
+     * @param toolchain
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException 
+     */
+    public void warmUp(EnvVars env, DotNetToolchain toolchain) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        this.precompile(WARM_UP_CODE, WARM_UP_PACKAGES, env, toolchain);
+    }
+    
+    /**
+     * Runs the plugin configuration
+     * @param targetCode
+     * @param targetPackagesJson
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     */
+    public void runAll(String targetCode, String targetPackagesJson) throws IOException, InterruptedException, NoSuchAlgorithmException, UnsupportedEncodingException, DotNetPluginException, DotNetCommandLineException {
+        EnvVars env = this.build.getEnvironment(this.listener);
+        DotNetEnvironmentAction environmentAction = DotNetEnvironmentAction.forBuild(this.build);
+        
+        this.runScript(targetCode, targetPackagesJson, env, environmentAction.getVariables(), null);
+    }
+    
+    /**
+     * Runs the step from the controller or, when it is configured, with one call to the node
+     * @param targetCode
+     * @param targetPackagesJson
+     * @param env the environment of the build
+     * @param variables the map that receives the variables saved by the script
+     * @param values the map that receives the typed values saved by the script, can be null
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException 
+     */
+    public void runScript(String targetCode, String targetPackagesJson, EnvVars env, Map<String, String> variables, Map<String, Object> values) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        if (!this.settings.getOrchestrateOnAgent()) {
+            this.runStep(targetCode, targetPackagesJson, env, variables, values);
+            return;
+        }
+        
+        if (this.settings.getDistributeCompiledScripts() && DotNetCoreRunner.BUILD_CACHE_CONTROLLER.equals(this.settings.getBuildCacheType())) {
+            // The controller build cache is not reachable from the node
+            this.logger.println("#### The step runs from the controller because the build cache is in the controller.");
+            this.runStep(targetCode, targetPackagesJson, env, variables, values);
+            return;
+        }
+        
+        VirtualChannel channel = this.launcher.getChannel();
+        if (channel == null || this.nodeRoot == null) {
+            throw new DotNetPluginException("The node of the build is not available.");
+        }
+        
+        ScriptStepCallable step = new ScriptStepCallable(targetCode, targetPackagesJson, this.runtimeConfigTemplate, this.dataFiles, this.dataFolder, env, this.nodeRoot.getRemote(), this.nodeName,
+                this.workspaceFolder.getFilePath().getRemote(), this.buildNumber, this.settings, this.listener);
+        ScriptStepResult result = channel.call(step);
+        
+        variables.putAll(result.getVariables());
+        if (values != null) {
+            values.putAll(result.getValues());
+        }
+        
+        if (result.getError() != null) {
+            throw new DotNetPluginException("Error running the step in the node.", result.getError());
+        }
+    }
+    
+    /**
+     * Runs the step, the cache lookup, the compilation and the script execution
+     * @param targetCode
+     * @param targetPackagesJson
+     * @param env the environment of the build
+     * @param variables the map that receives the variables saved by the script
+     * @param values the map that receives the typed values saved by the script, can be null
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException 
+     */
+    public void runStep(String targetCode, String targetPackagesJson, EnvVars env, Map<String, String> variables, Map<String, Object> values) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        ScriptSourcesManager scriptSources = this.createScriptSources();
+        DotNetPackagesManager dotNetPackages = new DotNetPackagesManager(this.logger, targetPackagesJson);                
+        Map<String, String> sources = scriptSources.getSources(targetCode);
+        scriptSources.addImplicitPackages(dotNetPackages, Arrays.asList(targetCode));
+        
+        this.runSources(sources, dotNetPackages, env, this.createResultChannel(variables, values));
+    }
+    
+    /**
+     * Runs the step with its own log, in the same node and workspace of this facade
+     * @param targetCode
+     * @param targetPackagesJson
+     * @param env the environment of the step
+     * @param listener the listener of the log of the step
+     * @param variables the map that receives the variables saved by the script
+     * @param values the map that receives the typed values saved by the script
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException 
+     */
+    @Override
+    public void runStep(String targetCode, String targetPackagesJson, EnvVars env, TaskListener listener, Map<String, String> variables, Map<String, Object> values) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        DotNetAsScriptPluginFacade stepFacade = new DotNetAsScriptPluginFacade(listener.getLogger(), this.nodeRoot, this.nodeName,
+                this.workspaceFolder.getFilePath(), this.buildNumber, this.launcher, listener, this.settings);
+        stepFacade.setRuntimeConfigTemplate(this.runtimeConfigTemplate);
+        
+        stepFacade.runStep(targetCode, targetPackagesJson, env, variables, values);
+    }
+    
+    /**
+     * Runs the tasks at the same time in the node where the build runs
+     * @param tasks
+     * @param targetPackagesJson
+     * @param env the environment of the build
+     * @param maxConcurrency the tasks that run at the same time, zero to use the processors of the node
+     * @param conflictPolicy how a result saved by many tasks with different values is merged
+     * @param variables the map that receives the variables saved by the scripts
+     * @param values the map that receives the typed values saved by the scripts
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException 
+     */
+    public void runParallel(List<ScriptTask> tasks, String targetPackagesJson, EnvVars env, int maxConcurrency, String conflictPolicy, Map<String, String> variables, Map<String, Object> values) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        DotNetToolchain toolchain = new DotNetToolchainManager(this.logger, this.launcher, env, this.nodeName).getToolchain();
+        ParallelRunManager parallelRun = new ParallelRunManager(this.logger, this, this.createScriptSources(), this.createCompilation(env, toolchain));
+        
+        parallelRun.run(tasks, targetPackagesJson, env, maxConcurrency, conflictPolicy, variables, values);
+    }
+    
+    /**
+     * Runs the step inside a batch with the next consecutive steps of the build. The first step
+     * of the batch compiles and runs all of them in one process, the next ones only report their results.
+     * @param step
+     * @return false if the step must run alone
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException 
+     */
+    public boolean runBatchedStep(DotNetCoreRunner step) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        if (!this.settings.getBatchSteps() || !(this.build.getProject() instanceof Project)) {
+            return false;
+        }
+        
+        List<Builder> builders = ((Project<?, ?>)this.build.getProject()).getBuilders();
+        int position = -1;
+        
+        for (int i = 0; i < builders.size() && position < 0; i++) {
+            if (builders.get(i) == step) {
+                position = i;
+            }
+        }
+        
+        if (position < 0) {
+            return false;
+        }
+        
+        DotNetBatchAction batch = DotNetBatchAction.forBuild(this.build);
+        
+        if (batch.isBatched(position)) {
+            this.logger.println("#### The step ran in the batch of the previous steps.");
+        } else if (batch.isAttempted(position)) {
+            return false;
+        } else {
+            List<DotNetCoreRunner> steps = new ArrayList<>();
+            for (int i = position; i < builders.size() && builders.get(i) instanceof DotNetCoreRunner; i++) {
+                steps.add((DotNetCoreRunner)builders.get(i));
+            }
+            
+            if (steps.size() < 2) {
+                return false;
+            }
+            
+            this.runBatch(position, steps, batch);
+        }
+        
+        Integer exitCode = batch.getResult(position);
+        
+        if (exitCode == null) {
+            return false;
+        }
+        
+        if (exitCode != 0) {
+            throw new DotNetPluginException("The step finished with the exit code " + exitCode + " in the batch.");
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Compiles the steps in one project and runs them in order in one process,
+     * the variables saved by a step are available for the next ones
+     * @param first the position of the first step in the builders of the project
+     * @param steps
+     * @param batch the action that receives the result of every step
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    private void runBatch(int first, List<DotNetCoreRunner> steps, DotNetBatchAction batch) throws IOException, InterruptedException {
+        BatchRunManager batchRun = new BatchRunManager(this.logger, this, this.createScriptSources(), this.runtimeConfigTemplate);
+        
+        for (int i = 0; i < steps.size(); i++) {
+            batch.setAttempted(first + i);
+        }
+        
+        for (DotNetCoreRunner step : steps) {
+            if (!batchRun.addStep(step.getTargetCode(), step.getAdditionalPackages(), step.getRuntimeConfigTemplate())) {
+                return;
+            }
+        }
+        
+        EnvVars env = this.build.getEnvironment(this.listener);
+        ResultChannelManager results = this.createResultChannel(DotNetEnvironmentAction.forBuild(this.build).getVariables(), null);
+        Map<Integer, Integer> stepResults = batchRun.run(env, results);
+        
+        // A batch that ran no step leaves every step to run alone
+        if (stepResults.isEmpty()) {
+            return;
+        }
+        
+        for (int i = 0; i < steps.size(); i++) {
+            batch.setBatched(first + i);
+        }
+        
+        for (Map.Entry<Integer, Integer> stepResult : stepResults.entrySet()) {
+            batch.setResult(first + stepResult.getKey() - 1, stepResult.getValue());
+        }
+    }
+    
+    /**
+     * Creates the result channel of the current run in the workspace, every run gets its own
+     * files so the steps that share a workspace can run at the same time
+     * @param variables the map that receives the variables saved by the script
+     * @param values the map that receives the typed values saved by the script, can be null
+     * @return
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    private ResultChannelManager createResultChannel(Map<String, String> variables, Map<String, Object> values) throws IOException, InterruptedException {
+        NodeFile dotScriptWorkspace = new NodeFile(this.workspaceFolder, ProjectConstants.CACHE_FOLDER_NAME);
+        
+        if (!dotScriptWorkspace.exists()) {
+            dotScriptWorkspace.mkdir();
+        }
+        
+        String prefix = String.format("%d.%x-", this.buildNumber, System.nanoTime());
+        NodeFile resultFile = new NodeFile(dotScriptWorkspace, prefix + ProjectConstants.RESULT_FILE_NAME);
+        ResultChannelManager results = new ResultChannelManager(this.logger, resultFile, variables, values);
+        
+        if (!this.dataFiles.isEmpty() || this.dataFolder != null) {
+            NodeFile outputFolder = this.dataFolder == null ? null : new NodeFile(this.workspaceFolder, this.dataFolder);
+            results.setDataExchange(new DataExchangeManager(this.logger, new NodeFile(dotScriptWorkspace, prefix + ProjectConstants.DATA_INPUT_FILE_NAME),
+                    new NodeFile(dotScriptWorkspace, prefix + ProjectConstants.DATA_OUTPUT_FILE_NAME), this.workspaceFolder, this.dataFiles, outputFolder));
+        }
+        
+        return results;
+    }
+    
+    /**
+     * Gets the compiled project of the sources and runs it
+     * @param sources
+     * @param dotNetPackages
+     * @param env the environment of the build
+     * @param results the result channel of the script
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException 
+     */
+    @Override
+    public void runSources(Map<String, String> sources, DotNetPackagesManager dotNetPackages, EnvVars env, ResultChannelManager results) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        DotNetToolchainManager toolchainManager = new DotNetToolchainManager(this.logger, this.launcher, env, this.nodeName);
+        ScriptCompilationManager compilation = this.createCompilation(env, toolchainManager.getToolchain());
+        
+        // Every candidate entry is pinned before the lookup, so the maintenance of other build cannot evict it in between
+        Map<String, String> cachePins = compilation.pin(sources, dotNetPackages);
+        
+        String cacheKey = null;
+        try {
+            NodeFile cacheEntry = compilation.getCompiledScript(dotNetPackages, sources);
+            cacheKey = cacheEntry.getFilePath().getName();
+            
+            DotNetProjectManager projectManager = compilation.createProjectManager(cacheEntry, dotNetPackages, sources);
+            projectManager.setWorkingDirectory(this.workspaceFolder);
+            
+            if (this.settings.getUseExecutionHost() && compilation.getToolchain().hasSdk()) {
+                if (sources.containsKey(ProjectConstants.RUNTIME_CONFIG_TEMPLATE_NAME)) {
+                    // The runtime options apply to a whole process, not to a script inside the host
+                    this.logger.println("#### The script has its own runtime options, it runs in its own process.");
+                } else {
+                    projectManager.setExecutionHost(compilation.createExecutionHost());
+                }
+            }
+            
+            results.reset();
+            
+            // The ReadyToRun output is published in the background while the script runs
+            Future<String> hotPublish = null;
+            if (this.settings.getHotScripts() && compilation.getToolchain().hasSdk()) {
+                projectManager.setHotProject(compilation.getHotProject(cacheKey, dotNetPackages, sources));
+                hotPublish = compilation.publishHotScript(cacheKey, projectManager, dotNetPackages, sources);
+            }
+            
+            try {
+                if (!projectManager.runCompiledProject(results)) {
+                    projectManager.runProject(results);
+                }
+            } catch (DotNetCommandLineException error) {
+                // The variables saved before the failure are kept
+                results.finish();
+                throw new DotNetPluginException("Error running the project.", error);
+            } finally {
+                if (hotPublish != null) {
+                    compilation.awaitHotScript(hotPublish);
+                }
+            }
+        } finally {
+            compilation.release(cachePins, cacheKey);
+        }
+        
+        results.finish();
+        
+        if (results.getReceivedCount() == 0) {
+            this.logger.println("##### SavedEnvironment not found");
+        }
+    }
+}
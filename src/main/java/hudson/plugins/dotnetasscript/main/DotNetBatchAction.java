@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.main;
+
+import hudson.model.AbstractBuild;
+import hudson.model.InvisibleAction;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the results of the steps of a build that ran in one batch,
+ * the steps are identified by their position in the builders of the project
+ * @author Ariel.Lenis
+ */
+public class DotNetBatchAction extends InvisibleAction {
+    private final Set<Integer> attemptedSteps = new HashSet<>();
+    private final Set<Integer> batchedSteps = new HashSet<>();
+    private final Map<Integer, Integer> stepResults = new HashMap<>();
+
+    /**
+     * Gets the action of the build, creating it the first time
+     * @param build
+     * @return 
+     */
+    public static DotNetBatchAction forBuild(AbstractBuild<?, ?> build) {
+        synchronized (build) {
+            DotNetBatchAction action = build.getAction(DotNetBatchAction.class);
+            if (action == null) {
+                action = new DotNetBatchAction();
+                build.addAction(action);
+            }
+            return action;
+        }
+    }
+
+    /**
+     * @param position
+     * @return true if a batch with the step was tried, even if it did not run
+     */
+    public synchronized boolean isAttempted(int position) {
+        return this.attemptedSteps.contains(position);
+    }
+
+    /**
+     * Marks the step as part of a batch that was tried, so the next steps don't try it again
+     * @param position 
+     */
+    public synchronized void setAttempted(int position) {
+        this.attemptedSteps.add(position);
+    }
+
+    /**
+     * @param position
+     * @return true if the step was part of a batch that ran
+     */
+    public synchronized boolean isBatched(int position) {
+        return this.batchedSteps.contains(position);
+    }
+
+    /**
+     * Marks the step as part of a batch that ran
+     * @param position 
+     */
+    public synchronized void setBatched(int position) {
+        this.batchedSteps.add(position);
+    }
+
+    /**
+     * @param position
+     * @return the exit code of the step, null if the batch did not run it
+     */
+    public synchronized Integer getResult(int position) {
+        return this.stepResults.get(position);
+    }
+
+    /**
+     * Sets the exit code of a step
+     * @param position
+     * @param exitCode 
+     */
+    public synchronized void setResult(int position, int exitCode) {
+        this.stepResults.put(position, exitCode);
+    }
+}
@@ -1,218 +1,665 @@
-package hudson.plugins.dotnetasscript.main;
-import hudson.Launcher;
-import hudson.Extension;
-import hudson.model.AbstractBuild;
-import hudson.util.FormValidation;
-import hudson.model.AbstractProject;
-import hudson.tasks.Builder;
-import hudson.tasks.BuildStepDescriptor;
-import net.sf.json.JSONObject;
-import org.kohsuke.stapler.DataBoundConstructor;
-import org.kohsuke.stapler.StaplerRequest;
-import org.kohsuke.stapler.QueryParameter;
-
-import javax.servlet.ServletException;
-import java.io.IOException;
-import hudson.model.BuildListener;
-import hudson.model.Result;
-import java.io.PrintStream;
-import java.io.Serializable;
-import javax.annotation.Nonnull;
-
-/**
- * Sample {@link Builder}.
- *
- * <p>
- * When the user configures the project and enables this builder,
- * {@link DescriptorImpl#newInstance(StaplerRequest)} is invoked
- * and a new {@link DotNetCoreRunner} is created. The created
- * instance is persisted to the project configuration XML by using
- * XStream, so this allows you to use instance fields (like {@link #targetCode})
- * to remember the configuration.
- *
- * <p>
- * When a build is performed, the {@link #perform} method will be invoked. 
- *
- * @author Kohsuke Kawaguchi
- */
-public class DotNetCoreRunner extends Builder implements Serializable {
-
-    private static final long serialVersionUID = -5887659218408478442L;
-
-    private BuildListener currentListener;
-    private final String targetCode;
-    private final String additionalPackages;
-
-    // Fields in config.jelly must match the parameter names in the "DataBoundConstructor"
-    
-    /**
-     * The main DotNetCoreRunner constructor
-     * @param targetCode
-     * @param additionalPackages 
-     */
-    @DataBoundConstructor
-    public DotNetCoreRunner(String targetCode, String additionalPackages) {
-        this.targetCode = targetCode;
-        this.additionalPackages = additionalPackages;
-    }
-
-    /**
-     * We'll use this from the {@code config.jelly}.
-     * @return 
-     */
-    public String getTargetCode() {
-        return this.targetCode;
-    }
-    
-    /**
-     * We'll use this from the {@code config.jelly}
-     * @return 
-     */
-    public String getAdditionalPackages() {
-        if (this.additionalPackages == null) {
-            return "";
-        }
-        return this.additionalPackages;
-    }       
-
-    /**
-     *
-     * @param build
-     * @param launcher
-     * @param listener
-     * @return
-     * @throws java.io.IOException
-     * @throws java.lang.InterruptedException
-     * @throws java.io.UnsupportedEncodingException
-     */
-    @Override
-    public boolean perform(@Nonnull AbstractBuild<?, ?> build, @Nonnull Launcher launcher, @Nonnull BuildListener listener) throws IOException, InterruptedException {
-        PrintStream targetLogger = listener.getLogger();
-        
-        DotNetAsScriptPluginFacade dotNetAsScriptFacade = new DotNetAsScriptPluginFacade(targetLogger, build, launcher, listener);
-        
-        try {
-            dotNetAsScriptFacade.runAll(this.getTargetCode(), this.getAdditionalPackages());  
-        } catch (Exception error) {
-            error.printStackTrace(targetLogger);
-            build.setResult(Result.FAILURE);            
-        }
-        
-        return true;
-    }
-    
-    // Overridden for better type safety.
-    // If your plugin doesn't really define any property on Descriptor,
-    // you don't have to do this.
-    /**
-     * Gets the current description
-     * @return 
-     */
-    @Override
-    public DescriptorImpl getDescriptor() {
-        return (DescriptorImpl)super.getDescriptor();
-    }
-    
-    /**
-     * Descriptor for {@link DotNetCoreRunner}. Used as a singleton.
-     * The class is marked as public so that it can be accessed from views.
-     *
-     * <p>
-     * See {@code src/main/resources/hudson/plugins/hello_world/HelloWorldBuilder/*.jelly}
-     * for the actual HTML fragment for the configuration screen.
-     */
-    @Extension // This indicates to Jenkins that this is an implementation of an extension point.
-    public static final class DescriptorImpl extends BuildStepDescriptor<Builder> {
-        
-        private static final String PLUGIN_NAME = "DotNet as Script";
-        /**
-         * To persist global configuration information,
-         * simply store it in a field and call save().
-         *
-         * <p>
-         * If you don't want fields to be persisted, use {@code transient}.
-         */
-        private boolean useFrench;
-
-        /**
-         * In order to load the persisted global configuration, you have to 
-         * call load() in the constructor.
-         */
-        public DescriptorImpl() {
-            load();
-        }
-
-        /**
-         * Performs on-the-fly validation of the form field 'name'.
-         *
-         * @param value
-         *      This parameter receives the value that the user has typed.
-         * @return
-         *      Indicates the outcome of the validation. This is sent to the browser.
-         *      <p>
-         *      Note that returning {@link FormValidation#error(String)} does not
-         *      prevent the form from being saved. It just means that a message
-         *      will be displayed to the user. 
-         * @throws java.io.IOException 
-         * @throws javax.servlet.ServletException 
-         */
-        public FormValidation doCheckName(@QueryParameter String value)
-                throws IOException, ServletException {
-            if (value.length() == 0)
-                return FormValidation.error("Please set a name");
-            if (value.length() < 4)
-                return FormValidation.warning("Isn't the name too short?");
-            return FormValidation.ok();
-        }
-
-        /**
-         * The isApplicable method
-         * @param aClass
-         * @return 
-         */
-        @Override
-        public boolean isApplicable(Class<? extends AbstractProject> aClass) {
-            // Indicates that this builder can be used with all kinds of project types 
-            return true;
-        }
-
-        /**
-         * This human readable name is used in the configuration screen.
-         * @return 
-         */
-        @Override
-        public String getDisplayName() {
-            return DescriptorImpl.PLUGIN_NAME;
-        }
-
-        /**
-         * configure method
-         * @param req
-         * @param formData
-         * @return
-         * @throws hudson.model.Descriptor.FormException 
-         */
-        @Override
-        public boolean configure(StaplerRequest req, JSONObject formData) throws FormException {
-            // To persist global configuration information,
-            // set that to properties and call save().
-            useFrench = formData.getBoolean("useFrench");
-            // ^Can also use req.bindJSON(this, formData);
-            //  (easier when there are many fields; need set* methods for this, like setUseFrench)
-            save();
-            return super.configure(req,formData);
-        }
-
-        /**
-         * This method returns true if the global configuration says we should speak French.
-         *
-         * The method name is bit awkward because global.jelly calls this method to determine
-         * the initial state of the checkbox by the naming convention.
-         * @return 
-         */
-        public boolean getUseFrench() {
-            return useFrench;
-        }
-    }
-}
-
+package hudson.plugins.dotnetasscript.main;
+import com.cloudbees.plugins.credentials.CredentialsMatchers;
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardUsernameListBoxModel;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.cloudbees.plugins.credentials.domains.DomainRequirement;
+import hudson.Launcher;
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import hudson.model.AbstractProject;
+import hudson.plugins.dotnetasscript.cache.HttpBuildCacheBackend;
+import hudson.plugins.dotnetasscript.general.RunnerSettings;
+import hudson.security.ACL;
+import hudson.plugins.dotnetasscript.tools.RuntimeConfigTools;
+import hudson.tasks.Builder;
+import hudson.tasks.BuildStepDescriptor;
+import net.sf.json.JSONObject;
+import org.json.JSONException;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.QueryParameter;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import hudson.model.BuildListener;
+import hudson.model.Result;
+import java.io.PrintStream;
+import java.io.Serializable;
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.List;
+import jenkins.model.Jenkins;
+
+/**
+ * Sample {@link Builder}.
+ *
+ * <p>
+ * When the user configures the project and enables this builder,
+ * {@link DescriptorImpl#newInstance(StaplerRequest)} is invoked
+ * and a new {@link DotNetCoreRunner} is created. The created
+ * instance is persisted to the project configuration XML by using
+ * XStream, so this allows you to use instance fields (like {@link #targetCode})
+ * to remember the configuration.
+ *
+ * <p>
+ * When a build is performed, the {@link #perform} method will be invoked. 
+ *
+ * @author Kohsuke Kawaguchi
+ */
+public class DotNetCoreRunner extends Builder implements Serializable {
+
+    private static final long serialVersionUID = -5887659218408478442L;
+    
+    /**
+     * The compiled scripts are shared through a folder of the controller
+     */
+    public static final String BUILD_CACHE_CONTROLLER = "controller";
+    
+    /**
+     * The compiled scripts are shared through a folder, it can be a network folder
+     */
+    public static final String BUILD_CACHE_FILESYSTEM = "filesystem";
+    
+    /**
+     * The compiled scripts are shared through a HTTP server that supports GET and PUT
+     */
+    public static final String BUILD_CACHE_HTTP = "http";
+
+    private BuildListener currentListener;
+    private final String targetCode;
+    private final String additionalPackages;
+    private String runtimeProfile;
+    private String runtimeOptions;
+
+    // Fields in config.jelly must match the parameter names in the "DataBoundConstructor"
+    
+    /**
+     * The main DotNetCoreRunner constructor
+     * @param targetCode
+     * @param additionalPackages 
+     */
+    @DataBoundConstructor
+    public DotNetCoreRunner(String targetCode, String additionalPackages) {
+        this.targetCode = targetCode;
+        this.additionalPackages = additionalPackages;
+    }
+
+    /**
+     * We'll use this from the {@code config.jelly}.
+     * @return 
+     */
+    public String getTargetCode() {
+        return this.targetCode;
+    }
+    
+    /**
+     * We'll use this from the {@code config.jelly}
+     * @return 
+     */
+    public String getAdditionalPackages() {
+        if (this.additionalPackages == null) {
+            return "";
+        }
+        return this.additionalPackages;
+    }       
+    
+    /**
+     * We'll use this from the {@code config.jelly}
+     * @return the runtime profile of the script
+     */
+    public String getRuntimeProfile() {
+        if (this.runtimeProfile == null || this.runtimeProfile.isEmpty()) {
+            return RuntimeConfigTools.PROFILE_DEFAULT;
+        }
+        return this.runtimeProfile;
+    }
+    
+    /**
+     * @param runtimeProfile the runtime profile of the script
+     */
+    @DataBoundSetter
+    public void setRuntimeProfile(String runtimeProfile) {
+        this.runtimeProfile = runtimeProfile;
+    }
+    
+    /**
+     * We'll use this from the {@code config.jelly}
+     * @return the JSON object with the custom runtime options
+     */
+    public String getRuntimeOptions() {
+        if (this.runtimeOptions == null) {
+            return "";
+        }
+        return this.runtimeOptions;
+    }
+    
+    /**
+     * @param runtimeOptions the JSON object with the custom runtime options
+     */
+    @DataBoundSetter
+    public void setRuntimeOptions(String runtimeOptions) {
+        this.runtimeOptions = runtimeOptions;
+    }
+    
+    /**
+     * Gets the runtime options of the script as a runtimeconfig.template.json
+     * @return the template, null if the script uses the runtime defaults
+     */
+    public String getRuntimeConfigTemplate() {
+        return RuntimeConfigTools.getTemplate(this.getRuntimeProfile(), this.getRuntimeOptions());
+    }
+
+    /**
+     *
+     * @param build
+     * @param launcher
+     * @param listener
+     * @return
+     * @throws java.io.IOException
+     * @throws java.lang.InterruptedException
+     * @throws java.io.UnsupportedEncodingException
+     */
+    @Override
+    public boolean perform(@Nonnull AbstractBuild<?, ?> build, @Nonnull Launcher launcher, @Nonnull BuildListener listener) throws IOException, InterruptedException {
+        PrintStream targetLogger = listener.getLogger();
+        
+        DotNetAsScriptPluginFacade dotNetAsScriptFacade = new DotNetAsScriptPluginFacade(targetLogger, build, launcher, listener);
+        
+        try {
+            dotNetAsScriptFacade.setRuntimeConfigTemplate(this.getRuntimeConfigTemplate());
+            
+            if (!dotNetAsScriptFacade.runBatchedStep(this)) {
+                dotNetAsScriptFacade.runAll(this.getTargetCode(), this.getAdditionalPackages());
+            }
+        } catch (Exception error) {
+            error.printStackTrace(targetLogger);
+            build.setResult(Result.FAILURE);            
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Fills the runtime profile combo of the steps
+     * @return 
+     */
+    public static ListBoxModel fillRuntimeProfileItems() {
+        ListBoxModel items = new ListBoxModel();
+        items.add("Runtime defaults", RuntimeConfigTools.PROFILE_DEFAULT);
+        items.add("Startup optimized", RuntimeConfigTools.PROFILE_STARTUP);
+        items.add("Throughput optimized", RuntimeConfigTools.PROFILE_THROUGHPUT);
+        items.add("Only the custom options", RuntimeConfigTools.PROFILE_CUSTOM);
+        return items;
+    }
+    
+    /**
+     * Validates the custom runtime options of the steps
+     * @param value
+     * @return 
+     */
+    public static FormValidation checkRuntimeOptions(String value) {
+        try {
+            RuntimeConfigTools.getTemplate(RuntimeConfigTools.PROFILE_CUSTOM, value);
+        } catch (JSONException error) {
+            return FormValidation.error("The runtime options must be a JSON object: " + error.getMessage());
+        }
+        return FormValidation.ok();
+    }
+    
+    // Overridden for better type safety.
+    // If your plugin doesn't really define any property on Descriptor,
+    // you don't have to do this.
+    /**
+     * Gets the current description
+     * @return 
+     */
+    @Override
+    public DescriptorImpl getDescriptor() {
+        return (DescriptorImpl)super.getDescriptor();
+    }
+    
+    /**
+     * Descriptor for {@link DotNetCoreRunner}. Used as a singleton.
+     * The class is marked as public so that it can be accessed from views.
+     *
+     * <p>
+     * See {@code src/main/resources/hudson/plugins/hello_world/HelloWorldBuilder/*.jelly}
+     * for the actual HTML fragment for the configuration screen.
+     */
+    @Extension // This indicates to Jenkins that this is an implementation of an extension point.
+    public static final class DescriptorImpl extends BuildStepDescriptor<Builder> {
+        
+        private static final String PLUGIN_NAME = "DotNet as Script";
+        private static final int DEFAULT_HOST_MAX_EXECUTIONS = 100;
+        private static final int DEFAULT_HOST_MAX_MEMORY = 1024;
+        private static final int DEFAULT_CACHE_MAX_SIZE = 10240;
+        private static final int DEFAULT_CACHE_MAX_AGE = 30;
+        private static final int DEFAULT_WARM_UP_SCRIPTS = 5;
+        private static final int DEFAULT_HOT_SCRIPT_THRESHOLD = 50;
+        /**
+         * To persist global configuration information,
+         * simply store it in a field and call save().
+         *
+         * <p>
+         * If you don't want fields to be persisted, use {@code transient}.
+         */
+        private boolean useFrench;
+        
+        /**
+         * Compile the scripts through the compile service of every node
+         */
+        private boolean useCompileService;
+        
+        /**
+         * Share the compiled scripts between the nodes through the controller
+         */
+        private boolean distributeCompiledScripts;
+        
+        /**
+         * The backend that stores the shared compiled scripts
+         */
+        private String buildCacheType;
+        
+        /**
+         * The folder or the URL of the backend
+         */
+        private String buildCacheLocation;
+        
+        /**
+         * The username and password credentials of the HTTP backend
+         */
+        private String buildCacheCredentialsId;
+        
+        /**
+         * The size in megabytes of the compiled scripts cache of every node
+         */
+        private int cacheMaxSize = DEFAULT_CACHE_MAX_SIZE;
+        
+        /**
+         * The days that a compiled script is kept in the node cache without being used
+         */
+        private int cacheMaxAge = DEFAULT_CACHE_MAX_AGE;
+        
+        /**
+         * Run the compiled scripts through the execution host of every node
+         */
+        private boolean useExecutionHost;
+        
+        /**
+         * The scripts that the execution host runs at the same time, zero to use the processor count
+         */
+        private int executionHostConcurrency;
+        
+        /**
+         * The scripts that the execution host runs before it is recycled
+         */
+        private int executionHostMaxExecutions = DEFAULT_HOST_MAX_EXECUTIONS;
+        
+        /**
+         * The working set in megabytes that recycles the execution host
+         */
+        private int executionHostMaxMemory = DEFAULT_HOST_MAX_MEMORY;
+        
+        /**
+         * Run the whole step in the node with a single remote call
+         */
+        private boolean orchestrateOnAgent;
+        
+        /**
+         * Compile the consecutive steps of a build in one project and run them in one process
+         */
+        private boolean batchSteps;
+        
+        /**
+         * Publish the scripts that run often with ReadyToRun code
+         */
+        private boolean hotScripts;
+        
+        /**
+         * The executions of a compiled script before it is published as a hot script
+         */
+        private int hotScriptThreshold = DEFAULT_HOT_SCRIPT_THRESHOLD;
+        
+        /**
+         * Warm up every node when it comes online
+         */
+        private boolean warmUpNodes;
+        
+        /**
+         * The scripts of the recently built projects that are compiled in the warm up
+         */
+        private int warmUpScripts = DEFAULT_WARM_UP_SCRIPTS;
+
+        /**
+         * In order to load the persisted global configuration, you have to 
+         * call load() in the constructor.
+         */
+        public DescriptorImpl() {
+            load();
+        }
+
+        /**
+         * Performs on-the-fly validation of the form field 'name'.
+         *
+         * @param value
+         *      This parameter receives the value that the user has typed.
+         * @return
+         *      Indicates the outcome of the validation. This is sent to the browser.
+         *      <p>
+         *      Note that returning {@link FormValidation#error(String)} does not
+         *      prevent the form from being saved. It just means that a message
+         *      will be displayed to the user. 
+         * @throws java.io.IOException 
+         * @throws javax.servlet.ServletException 
+         */
+        public FormValidation doCheckName(@QueryParameter String value)
+                throws IOException, ServletException {
+            if (value.length() == 0)
+                return FormValidation.error("Please set a name");
+            if (value.length() < 4)
+                return FormValidation.warning("Isn't the name too short?");
+            return FormValidation.ok();
+        }
+
+        /**
+         * The isApplicable method
+         * @param aClass
+         * @return 
+         */
+        @Override
+        public boolean isApplicable(Class<? extends AbstractProject> aClass) {
+            // Indicates that this builder can be used with all kinds of project types 
+            return true;
+        }
+
+        /**
+         * This human readable name is used in the configuration screen.
+         * @return 
+         */
+        @Override
+        public String getDisplayName() {
+            return DescriptorImpl.PLUGIN_NAME;
+        }
+
+        /**
+         * configure method
+         * @param req
+         * @param formData
+         * @return
+         * @throws hudson.model.Descriptor.FormException 
+         */
+        @Override
+        public boolean configure(StaplerRequest req, JSONObject formData) throws FormException {
+            // To persist global configuration information,
+            // set that to properties and call save().
+            useFrench = formData.getBoolean("useFrench");
+            useCompileService = formData.getBoolean("useCompileService");
+            useExecutionHost = formData.getBoolean("useExecutionHost");
+            distributeCompiledScripts = formData.getBoolean("distributeCompiledScripts");
+            buildCacheType = formData.optString("buildCacheType", BUILD_CACHE_CONTROLLER);
+            buildCacheLocation = formData.optString("buildCacheLocation", "").trim();
+            buildCacheCredentialsId = formData.optString("buildCacheCredentialsId", "");
+            cacheMaxSize = Math.max(1, formData.optInt("cacheMaxSize", DEFAULT_CACHE_MAX_SIZE));
+            cacheMaxAge = Math.max(1, formData.optInt("cacheMaxAge", DEFAULT_CACHE_MAX_AGE));
+            executionHostConcurrency = Math.max(0, formData.optInt("executionHostConcurrency", 0));
+            executionHostMaxExecutions = Math.max(1, formData.optInt("executionHostMaxExecutions", DEFAULT_HOST_MAX_EXECUTIONS));
+            executionHostMaxMemory = Math.max(64, formData.optInt("executionHostMaxMemory", DEFAULT_HOST_MAX_MEMORY));
+            orchestrateOnAgent = formData.getBoolean("orchestrateOnAgent");
+            batchSteps = formData.getBoolean("batchSteps");
+            hotScripts = formData.getBoolean("hotScripts");
+            hotScriptThreshold = Math.max(1, formData.optInt("hotScriptThreshold", DEFAULT_HOT_SCRIPT_THRESHOLD));
+            warmUpNodes = formData.getBoolean("warmUpNodes");
+            warmUpScripts = Math.max(0, formData.optInt("warmUpScripts", DEFAULT_WARM_UP_SCRIPTS));
+            // ^Can also use req.bindJSON(this, formData);
+            //  (easier when there are many fields; need set* methods for this, like setUseFrench)
+            save();
+            return super.configure(req,formData);
+        }
+
+        /**
+         * This method returns true if the global configuration says we should speak French.
+         *
+         * The method name is bit awkward because global.jelly calls this method to determine
+         * the initial state of the checkbox by the naming convention.
+         * @return 
+         */
+        public boolean getUseFrench() {
+            return useFrench;
+        }
+        
+        /**
+         * Determines if the scripts must be compiled through the compile service
+         * of the node, falling back to the command line when it is not available
+         * @return 
+         */
+        public boolean getUseCompileService() {
+            return useCompileService;
+        }
+        
+        /**
+         * Determines if the scripts compiled by a node are published to the controller,
+         * so the other nodes can run them without compiling
+         * @return 
+         */
+        public boolean getDistributeCompiledScripts() {
+            return distributeCompiledScripts;
+        }
+        
+        /**
+         * @return the size in megabytes of the compiled scripts cache of every node
+         */
+        public int getCacheMaxSize() {
+            return cacheMaxSize > 0 ? cacheMaxSize : DEFAULT_CACHE_MAX_SIZE;
+        }
+        
+        /**
+         * @return the days that a compiled script is kept in the node cache without being used
+         */
+        public int getCacheMaxAge() {
+            return cacheMaxAge > 0 ? cacheMaxAge : DEFAULT_CACHE_MAX_AGE;
+        }
+        
+        /**
+         * @return the backend that stores the shared compiled scripts
+         */
+        public String getBuildCacheType() {
+            if (buildCacheType == null || buildCacheType.isEmpty()) {
+                return BUILD_CACHE_CONTROLLER;
+            }
+            return buildCacheType;
+        }
+        
+        /**
+         * @return the folder or the URL of the backend
+         */
+        public String getBuildCacheLocation() {
+            return buildCacheLocation == null ? "" : buildCacheLocation;
+        }
+        
+        /**
+         * @return the credentials of the HTTP backend, empty to send no credentials
+         */
+        public String getBuildCacheCredentialsId() {
+            return buildCacheCredentialsId == null ? "" : buildCacheCredentialsId;
+        }
+        
+        /**
+         * Validates the location of the HTTP backend
+         * @param value
+         * @param buildCacheType
+         * @return 
+         */
+        public FormValidation doCheckBuildCacheLocation(@QueryParameter String value, @QueryParameter String buildCacheType) {
+            if (!BUILD_CACHE_HTTP.equals(buildCacheType) || value.trim().isEmpty()) {
+                return FormValidation.ok();
+            }
+            
+            String error = HttpBuildCacheBackend.checkUrl(value.trim());
+            return error == null ? FormValidation.ok() : FormValidation.error(error);
+        }
+        
+        /**
+         * Fills the username and password credentials for the {@code global.jelly}
+         * @return 
+         */
+        public ListBoxModel doFillBuildCacheCredentialsIdItems() {
+            if (!Jenkins.getInstance().hasPermission(Jenkins.ADMINISTER)) {
+                return new ListBoxModel();
+            }
+            return new StandardUsernameListBoxModel().withEmptySelection().withAll(this.lookupCredentials());
+        }
+        
+        private List<StandardUsernamePasswordCredentials> lookupCredentials() {
+            return CredentialsProvider.lookupCredentials(StandardUsernamePasswordCredentials.class, Jenkins.getInstance(), ACL.SYSTEM, Collections.<DomainRequirement>emptyList());
+        }
+        
+        /**
+         * Fills the runtime profiles for the {@code config.jelly}
+         * @return 
+         */
+        public ListBoxModel doFillRuntimeProfileItems() {
+            return fillRuntimeProfileItems();
+        }
+        
+        /**
+         * Validates the custom runtime options
+         * @param value
+         * @return 
+         */
+        public FormValidation doCheckRuntimeOptions(@QueryParameter String value) {
+            return checkRuntimeOptions(value);
+        }
+        
+        /**
+         * Fills the build cache backends for the {@code global.jelly}
+         * @return 
+         */
+        public ListBoxModel doFillBuildCacheTypeItems() {
+            ListBoxModel items = new ListBoxModel();
+            items.add("Controller", BUILD_CACHE_CONTROLLER);
+            items.add("Shared folder", BUILD_CACHE_FILESYSTEM);
+            items.add("HTTP server", BUILD_CACHE_HTTP);
+            return items;
+        }
+        
+        /**
+         * Determines if the compiled scripts must be run through the execution host
+         * of the node, falling back to the command line when it is not available
+         * @return 
+         */
+        public boolean getUseExecutionHost() {
+            return useExecutionHost;
+        }
+        
+        /**
+         * @return the scripts that the execution host runs at the same time, zero to use the processor count of every node
+         */
+        public int getExecutionHostConcurrency() {
+            return executionHostConcurrency;
+        }
+        
+        /**
+         * @return the scripts that the execution host runs before it is recycled
+         */
+        public int getExecutionHostMaxExecutions() {
+            return executionHostMaxExecutions > 0 ? executionHostMaxExecutions : DEFAULT_HOST_MAX_EXECUTIONS;
+        }
+        
+        /**
+         * @return the working set in megabytes that recycles the execution host
+         */
+        public int getExecutionHostMaxMemory() {
+            return executionHostMaxMemory > 0 ? executionHostMaxMemory : DEFAULT_HOST_MAX_MEMORY;
+        }
+        
+        /**
+         * Determines if the whole step runs in the node, so the controller
+         * makes a single remote call for every step
+         * @return 
+         */
+        public boolean getOrchestrateOnAgent() {
+            return orchestrateOnAgent;
+        }
+        
+        /**
+         * Determines if the consecutive steps of a build are compiled in one project
+         * and run in one process
+         * @return 
+         */
+        public boolean getBatchSteps() {
+            return batchSteps;
+        }
+        
+        /**
+         * Determines if the scripts that run often are published with ReadyToRun code
+         * @return 
+         */
+        public boolean getHotScripts() {
+            return hotScripts;
+        }
+        
+        /**
+         * @return the executions of a compiled script before it is published as a hot script
+         */
+        public int getHotScriptThreshold() {
+            if (hotScriptThreshold <= 0) {
+                return DEFAULT_HOT_SCRIPT_THRESHOLD;
+            }
+            return hotScriptThreshold;
+        }
+        
+        /**
+         * Gets the configuration used by the steps, it can be sent to the nodes
+         * @return 
+         */
+        public RunnerSettings createRunnerSettings() {
+            RunnerSettings settings = new RunnerSettings();
+            settings.setUseCompileService(this.getUseCompileService());
+            settings.setDistributeCompiledScripts(this.getDistributeCompiledScripts());
+            settings.setBuildCacheType(this.getBuildCacheType());
+            settings.setBuildCacheLocation(this.getBuildCacheLocation());
+            
+            // The credentials are resolved in the controller, the step can use the backend from the node
+            if (BUILD_CACHE_HTTP.equals(this.getBuildCacheType()) && !this.getBuildCacheCredentialsId().isEmpty()) {
+                StandardUsernamePasswordCredentials credentials = CredentialsMatchers.firstOrNull(this.lookupCredentials(), CredentialsMatchers.withId(this.getBuildCacheCredentialsId()));
+                if (credentials != null) {
+                    settings.setBuildCacheUsername(credentials.getUsername());
+                    settings.setBuildCachePassword(credentials.getPassword());
+                }
+            }
+            settings.setCacheMaxSize(this.getCacheMaxSize());
+            settings.setCacheMaxAge(this.getCacheMaxAge());
+            settings.setUseExecutionHost(this.getUseExecutionHost());
+            // Zero is kept, so the processor count of the node is used
+            settings.setExecutionHostConcurrency(Math.max(0, executionHostConcurrency));
+            settings.setExecutionHostMaxExecutions(this.getExecutionHostMaxExecutions());
+            settings.setExecutionHostMaxMemory(this.getExecutionHostMaxMemory());
+            settings.setOrchestrateOnAgent(this.getOrchestrateOnAgent());
+            settings.setBatchSteps(this.getBatchSteps());
+            settings.setHotScripts(this.getHotScripts());
+            settings.setHotScriptThreshold(this.getHotScriptThreshold());
+            return settings;
+        }
+        
+        /**
+         * Determines if the nodes must be warmed up when they come online,
+         * restoring the default packages and compiling the hot scripts
+         * @return 
+         */
+        public boolean getWarmUpNodes() {
+            return warmUpNodes;
+        }
+        
+        /**
+         * @return the scripts of the recently built projects that are compiled in the warm up
+         */
+        public int getWarmUpScripts() {
+            return Math.max(0, warmUpScripts);
+        }
+    }
+}
+
@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.main;
+
+import hudson.EnvVars;
+import hudson.model.AbstractBuild;
+import hudson.model.EnvironmentContributingAction;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contributes the environment variables saved by the scripts
+ * to the next steps of the build
+ * @author Ariel.Lenis
+ */
+public class DotNetEnvironmentAction implements EnvironmentContributingAction {
+    private final Map<String, String> variables = new LinkedHashMap<>();
+
+    /**
+     * Gets the action of the build, creating it the first time
+     * @param build
+     * @return 
+     */
+    public static DotNetEnvironmentAction forBuild(AbstractBuild<?, ?> build) {
+        synchronized (build) {
+            DotNetEnvironmentAction action = build.getAction(DotNetEnvironmentAction.class);
+            if (action == null) {
+                action = new DotNetEnvironmentAction();
+                build.addAction(action);
+            }
+            return action;
+        }
+    }
+
+    /**
+     * @return the variables that the scripts saved, the map is updated while the scripts run
+     */
+    public Map<String, String> getVariables() {
+        return this.variables;
+    }
+
+    /**
+     * Adds the saved variables to the build environment
+     * @param build
+     * @param env 
+     */
+    @Override
+    public void buildEnvVars(AbstractBuild<?, ?> build, EnvVars env) {
+        synchronized (this.variables) {
+            env.putAll(this.variables);
+        }
+    }
+
+    /**
+     * The action has no page
+     * @return 
+     */
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    /**
+     * The action has no page
+     * @return 
+     */
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    /**
+     * The action has no page
+     * @return 
+     */
+    @Override
+    public String getUrlName() {
+        return null;
+    }
+}
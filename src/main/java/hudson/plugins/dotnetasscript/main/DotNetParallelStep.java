@@ -0,0 +1,240 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.main;
+
+import hudson.Extension;
+import hudson.plugins.dotnetasscript.general.ScriptTask;
+import hudson.plugins.dotnetasscript.managers.ParallelRunManager;
+import hudson.util.ListBoxModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepDescriptorImpl;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepImpl;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * The Pipeline step that runs many scripts, or one script with many shards, at the same time
+ * @author Ariel.Lenis
+ */
+public class DotNetParallelStep extends AbstractStepImpl {
+    
+    /**
+     * The result of the last task in the list wins
+     */
+    public static final String CONFLICT_LAST = ParallelRunManager.CONFLICT_LAST;
+    
+    /**
+     * The result of the first task in the list wins
+     */
+    public static final String CONFLICT_FIRST = ParallelRunManager.CONFLICT_FIRST;
+    
+    /**
+     * The step fails when two tasks save different values for the same result
+     */
+    public static final String CONFLICT_FAIL = ParallelRunManager.CONFLICT_FAIL;
+    
+    private List<String> scripts;
+    private String targetCode;
+    private List<String> shards;
+    private String additionalPackages;
+    private int maxConcurrency;
+    private String conflictPolicy;
+
+    /**
+     * The parallel step constructor
+     */
+    @DataBoundConstructor
+    public DotNetParallelStep() {
+    }
+
+    /**
+     * @return the scripts to run, every one is a task
+     */
+    public List<String> getScripts() {
+        if (this.scripts == null) {
+            return Collections.emptyList();
+        }
+        return this.scripts;
+    }
+
+    /**
+     * @param scripts the scripts to run, every one is a task
+     */
+    @DataBoundSetter
+    public void setScripts(List<String> scripts) {
+        this.scripts = scripts;
+    }
+
+    /**
+     * @return the script that runs once for every shard
+     */
+    public String getTargetCode() {
+        return this.targetCode;
+    }
+
+    /**
+     * @param targetCode the script that runs once for every shard
+     */
+    @DataBoundSetter
+    public void setTargetCode(String targetCode) {
+        this.targetCode = targetCode;
+    }
+
+    /**
+     * @return the shard arguments of the target code
+     */
+    public List<String> getShards() {
+        if (this.shards == null) {
+            return Collections.emptyList();
+        }
+        return this.shards;
+    }
+
+    /**
+     * @param shards the shard arguments of the target code
+     */
+    @DataBoundSetter
+    public void setShards(List<String> shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * @return the JSON object with the additional packages of every script
+     */
+    public String getAdditionalPackages() {
+        if (this.additionalPackages == null) {
+            return "";
+        }
+        return this.additionalPackages;
+    }
+
+    /**
+     * @param additionalPackages the JSON object with the additional packages of every script
+     */
+    @DataBoundSetter
+    public void setAdditionalPackages(String additionalPackages) {
+        this.additionalPackages = additionalPackages;
+    }
+
+    /**
+     * @return the tasks that run at the same time, zero to use the processors of the node
+     */
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * @param maxConcurrency the tasks that run at the same time, zero to use the processors of the node
+     */
+    @DataBoundSetter
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = Math.max(0, maxConcurrency);
+    }
+
+    /**
+     * @return how a result saved by many tasks with different values is merged
+     */
+    public String getConflictPolicy() {
+        if (this.conflictPolicy == null || this.conflictPolicy.isEmpty()) {
+            return CONFLICT_LAST;
+        }
+        return this.conflictPolicy;
+    }
+
+    /**
+     * @param conflictPolicy how a result saved by many tasks with different values is merged
+     */
+    @DataBoundSetter
+    public void setConflictPolicy(String conflictPolicy) {
+        this.conflictPolicy = conflictPolicy;
+    }
+
+    /**
+     * Gets the tasks of the step, one for every script or one for every shard of the target code
+     * @return 
+     */
+    public List<ScriptTask> getTasks() {
+        List<ScriptTask> tasks = new ArrayList<>();
+        
+        for (int i = 0; i < this.getScripts().size(); i++) {
+            tasks.add(new ScriptTask("script " + (i + 1), this.getScripts().get(i), null));
+        }
+        
+        if (this.targetCode != null && !this.targetCode.isEmpty()) {
+            if (this.getShards().isEmpty()) {
+                tasks.add(new ScriptTask("target code", this.targetCode, null));
+            }
+            for (String shard : this.getShards()) {
+                tasks.add(new ScriptTask("shard " + shard, this.targetCode, shard));
+            }
+        }
+        
+        return tasks;
+    }
+
+    /**
+     * Descriptor for {@link DotNetParallelStep}
+     */
+    @Extension
+    public static final class DescriptorImpl extends AbstractStepDescriptorImpl {
+
+        /**
+         * The descriptor constructor
+         */
+        public DescriptorImpl() {
+            super(DotNetParallelStepExecution.class);
+        }
+
+        /**
+         * @return the name of the step in the Pipeline scripts
+         */
+        @Override
+        public String getFunctionName() {
+            return "dotnetParallel";
+        }
+
+        /**
+         * This human readable name is used in the snippet generator.
+         * @return 
+         */
+        @Override
+        public String getDisplayName() {
+            return "Run DotNet scripts in parallel";
+        }
+
+        /**
+         * Fills the conflict policy combo
+         * @return 
+         */
+        public ListBoxModel doFillConflictPolicyItems() {
+            ListBoxModel items = new ListBoxModel();
+            items.add("The last task in the list wins", CONFLICT_LAST);
+            items.add("The first task in the list wins", CONFLICT_FIRST);
+            items.add("Fail the step", CONFLICT_FAIL);
+            return items;
+        }
+    }
+}
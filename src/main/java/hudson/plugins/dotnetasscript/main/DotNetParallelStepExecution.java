@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.main;
+
+import com.google.inject.Inject;
+import hudson.EnvVars;
+import hudson.plugins.dotnetasscript.exceptions.DotNetPluginException;
+import hudson.plugins.dotnetasscript.general.ScriptTask;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the tasks of the {@link DotNetParallelStep}
+ * @author Ariel.Lenis
+ */
+public class DotNetParallelStepExecution extends DotNetStepExecutionBase {
+
+    private static final long serialVersionUID = 5518209734417603958L;
+
+    @Inject(optional = true)
+    private transient DotNetParallelStep step;
+
+    /**
+     * Runs the tasks at the same time and merges their results
+     * @param facade
+     * @param env
+     * @return the merged variables and typed values saved by the scripts
+     * @throws Exception 
+     */
+    @Override
+    protected Map<String, Object> runScripts(DotNetAsScriptPluginFacade facade, EnvVars env) throws Exception {
+        List<ScriptTask> tasks = this.step.getTasks();
+        
+        if (tasks.isEmpty()) {
+            throw new DotNetPluginException("The step has no scripts, set the scripts or the target code.");
+        }
+        
+        Map<String, String> variables = new LinkedHashMap<>();
+        Map<String, Object> values = new LinkedHashMap<>();
+        
+        facade.runParallel(tasks, this.step.getAdditionalPackages(), env, this.step.getMaxConcurrency(), this.step.getConflictPolicy(), variables, values);
+        
+        return getResult(variables, values);
+    }
+}
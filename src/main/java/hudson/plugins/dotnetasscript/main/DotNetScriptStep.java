@@ -0,0 +1,243 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.main;
+
+import hudson.Extension;
+import hudson.plugins.dotnetasscript.tools.JsonTools;
+import hudson.plugins.dotnetasscript.tools.RuntimeConfigTools;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.sf.json.JSONException;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepDescriptorImpl;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepImpl;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * The Pipeline step that compiles and runs a script, it returns the variables
+ * and the typed values saved by the script as a map. Large data is exchanged
+ * through workspace files that the script maps in memory
+ * @author Ariel.Lenis
+ */
+public class DotNetScriptStep extends AbstractStepImpl {
+    private final String targetCode;
+    private String additionalPackages;
+    private String runtimeProfile;
+    private String runtimeOptions;
+    private String dataFiles;
+    private String dataFolder;
+
+    /**
+     * The Pipeline step constructor
+     * @param targetCode 
+     */
+    @DataBoundConstructor
+    public DotNetScriptStep(String targetCode) {
+        this.targetCode = targetCode;
+    }
+
+    /**
+     * @return the code of the script
+     */
+    public String getTargetCode() {
+        return this.targetCode;
+    }
+
+    /**
+     * @return the JSON object with the additional packages
+     */
+    public String getAdditionalPackages() {
+        if (this.additionalPackages == null) {
+            return "";
+        }
+        return this.additionalPackages;
+    }
+
+    /**
+     * @param additionalPackages the JSON object with the additional packages
+     */
+    @DataBoundSetter
+    public void setAdditionalPackages(String additionalPackages) {
+        this.additionalPackages = additionalPackages;
+    }
+
+    /**
+     * @return the runtime profile of the script
+     */
+    public String getRuntimeProfile() {
+        if (this.runtimeProfile == null || this.runtimeProfile.isEmpty()) {
+            return RuntimeConfigTools.PROFILE_DEFAULT;
+        }
+        return this.runtimeProfile;
+    }
+
+    /**
+     * @param runtimeProfile the runtime profile of the script
+     */
+    @DataBoundSetter
+    public void setRuntimeProfile(String runtimeProfile) {
+        this.runtimeProfile = runtimeProfile;
+    }
+
+    /**
+     * @return the JSON object with the custom runtime options
+     */
+    public String getRuntimeOptions() {
+        if (this.runtimeOptions == null) {
+            return "";
+        }
+        return this.runtimeOptions;
+    }
+
+    /**
+     * @param runtimeOptions the JSON object with the custom runtime options
+     */
+    @DataBoundSetter
+    public void setRuntimeOptions(String runtimeOptions) {
+        this.runtimeOptions = runtimeOptions;
+    }
+
+    /**
+     * @return the JSON object with the workspace file of every data key the script reads
+     */
+    public String getDataFiles() {
+        if (this.dataFiles == null) {
+            return "";
+        }
+        return this.dataFiles;
+    }
+
+    /**
+     * @param dataFiles the JSON object with the workspace file of every data key the script reads
+     */
+    @DataBoundSetter
+    public void setDataFiles(String dataFiles) {
+        this.dataFiles = dataFiles;
+    }
+
+    /**
+     * @return the workspace folder that receives the data saved by the script, null to discard it
+     */
+    public String getDataFolder() {
+        if (this.dataFolder == null || this.dataFolder.trim().isEmpty()) {
+            return null;
+        }
+        return this.dataFolder.trim();
+    }
+
+    /**
+     * @param dataFolder the workspace folder that receives the data saved by the script
+     */
+    @DataBoundSetter
+    public void setDataFolder(String dataFolder) {
+        this.dataFolder = dataFolder;
+    }
+
+    /**
+     * @return the workspace file of every data key the script reads
+     */
+    public Map<String, String> getDataFilesMap() {
+        if (this.getDataFiles().trim().isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        return JsonTools.jsonToStringMap(this.getDataFiles());
+    }
+
+    /**
+     * Gets the runtime options of the script as a runtimeconfig.template.json
+     * @return the template, null if the script uses the runtime defaults
+     */
+    public String getRuntimeConfigTemplate() {
+        return RuntimeConfigTools.getTemplate(this.getRuntimeProfile(), this.getRuntimeOptions());
+    }
+
+    /**
+     * Descriptor for {@link DotNetScriptStep}
+     */
+    @Extension
+    public static final class DescriptorImpl extends AbstractStepDescriptorImpl {
+
+        /**
+         * The descriptor constructor
+         */
+        public DescriptorImpl() {
+            super(DotNetScriptStepExecution.class);
+        }
+
+        /**
+         * @return the name of the step in the Pipeline scripts
+         */
+        @Override
+        public String getFunctionName() {
+            return "dotnetScript";
+        }
+
+        /**
+         * This human readable name is used in the snippet generator.
+         * @return 
+         */
+        @Override
+        public String getDisplayName() {
+            return "Run a DotNet script";
+        }
+
+        /**
+         * Fills the runtime profile combo
+         * @return 
+         */
+        public ListBoxModel doFillRuntimeProfileItems() {
+            return DotNetCoreRunner.fillRuntimeProfileItems();
+        }
+
+        /**
+         * Validates the data files
+         * @param value
+         * @return 
+         */
+        public FormValidation doCheckDataFiles(@QueryParameter String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return FormValidation.ok();
+            }
+
+            try {
+                JsonTools.jsonToStringMap(value);
+            } catch (JSONException error) {
+                return FormValidation.error("The data files must be a JSON object: " + error.getMessage());
+            }
+            return FormValidation.ok();
+        }
+
+        /**
+         * Validates the custom runtime options
+         * @param value
+         * @return 
+         */
+        public FormValidation doCheckRuntimeOptions(@QueryParameter String value) {
+            return DotNetCoreRunner.checkRuntimeOptions(value);
+        }
+    }
+}
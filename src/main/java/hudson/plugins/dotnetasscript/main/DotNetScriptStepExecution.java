@@ -0,0 +1,37 @@
+package hudson.plugins.dotnetasscript.main;
+
+import com.google.inject.Inject;
+import hudson.EnvVars;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the script of the {@link DotNetScriptStep}
+ * @author Ariel.Lenis
+ */
+public class DotNetScriptStepExecution extends DotNetStepExecutionBase {
+
+    private static final long serialVersionUID = -4528630427187736391L;
+
+    @Inject(optional = true)
+    private transient DotNetScriptStep step;
+
+    /**
+     * Runs the script like the build step does
+     * @param facade
+     * @param env
+     * @return the variables and the typed values saved by the script
+     * @throws Exception 
+     */
+    @Override
+    protected Map<String, Object> runScripts(DotNetAsScriptPluginFacade facade, EnvVars env) throws Exception {
+        Map<String, String> variables = new LinkedHashMap<>();
+        Map<String, Object> values = new LinkedHashMap<>();
+        
+        facade.setRuntimeConfigTemplate(this.step.getRuntimeConfigTemplate());
+        facade.setDataExchange(this.step.getDataFilesMap(), this.step.getDataFolder());
+        facade.runScript(this.step.getTargetCode(), this.step.getAdditionalPackages(), env, variables, values);
+        
+        return getResult(variables, values);
+    }
+}
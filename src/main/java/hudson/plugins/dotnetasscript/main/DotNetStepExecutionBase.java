@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.main;
+
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.plugins.dotnetasscript.exceptions.DotNetPluginException;
+import hudson.plugins.dotnetasscript.general.RunnerSettings;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepExecutionImpl;
+import org.jenkinsci.plugins.workflow.steps.StepContextParameter;
+
+/**
+ * Base of the Pipeline step executions, the compile and the run happen out of the
+ * CPS thread in the remoting thread pool and the step completes when the scripts finish
+ * @author Ariel.Lenis
+ */
+public abstract class DotNetStepExecutionBase extends AbstractStepExecutionImpl {
+
+    private static final long serialVersionUID = 3179467154853367121L;
+
+    @StepContextParameter
+    private transient Run<?, ?> run;
+
+    @StepContextParameter
+    private transient FilePath workspace;
+
+    @StepContextParameter
+    private transient Launcher launcher;
+
+    @StepContextParameter
+    private transient TaskListener listener;
+
+    @StepContextParameter
+    private transient EnvVars env;
+
+    @StepContextParameter
+    private transient Computer computer;
+
+    private transient volatile Future<?> task;
+
+    /**
+     * Runs the scripts of the step, it is called out of the CPS thread
+     * @param facade the facade of the node where the step runs
+     * @param env the environment of the step
+     * @return the result of the step
+     * @throws Exception 
+     */
+    protected abstract Map<String, Object> runScripts(DotNetAsScriptPluginFacade facade, EnvVars env) throws Exception;
+
+    /**
+     * Starts the scripts in the background
+     * @return false, the step completes when the scripts finish
+     * @throws Exception 
+     */
+    @Override
+    public boolean start() throws Exception {
+        Node node = this.computer.getNode();
+        FilePath nodeRoot = node == null ? null : node.getRootPath();
+        
+        if (nodeRoot == null) {
+            throw new DotNetPluginException("The node of the step is not available.");
+        }
+        
+        RunnerSettings settings = Jenkins.getInstance().getDescriptorByType(DotNetCoreRunner.DescriptorImpl.class).createRunnerSettings();
+        final DotNetAsScriptPluginFacade facade = new DotNetAsScriptPluginFacade(this.listener.getLogger(), nodeRoot, node.getNodeName(),
+                this.workspace, this.run.getNumber(), this.launcher, this.listener, settings);
+        final EnvVars stepEnv = this.env;
+        
+        this.task = Computer.threadPoolForRemoting.submit(new Runnable() {
+            @Override
+            public void run() {
+                Map<String, Object> result;
+                
+                try {
+                    result = DotNetStepExecutionBase.this.runScripts(facade, stepEnv);
+                } catch (Throwable error) {
+                    // Any failure completes the step, otherwise the Pipeline waits for it forever
+                    getContext().onFailure(error);
+                    return;
+                }
+                
+                getContext().onSuccess(result);
+            }
+        });
+        
+        return false;
+    }
+
+    /**
+     * Gets the result of the step, the typed values win over the variables with the same name
+     * @param variables
+     * @param values
+     * @return 
+     */
+    protected static Map<String, Object> getResult(Map<String, String> variables, Map<String, Object> values) {
+        Map<String, Object> result = new LinkedHashMap<String, Object>(variables);
+        result.putAll(values);
+        return result;
+    }
+
+    /**
+     * Interrupts the thread of the scripts and fails the step with the cause without waiting for them.
+     * The interrupted thread kills the dotnet process it started, or asks the execution host
+     * to cancel the hosted script, the script itself must observe its cancellation token
+     * @param cause
+     * @throws Exception 
+     */
+    @Override
+    public void stop(Throwable cause) throws Exception {
+        Future<?> current = this.task;
+        if (current != null) {
+            current.cancel(true);
+        }
+        getContext().onFailure(cause);
+    }
+
+    /**
+     * The scripts do not survive a restart of Jenkins, the step fails so the
+     * Pipeline can run it again
+     */
+    @Override
+    public void onResume() {
+        super.onResume();
+        getContext().onFailure(new DotNetPluginException("The step was interrupted by a restart of Jenkins."));
+    }
+}
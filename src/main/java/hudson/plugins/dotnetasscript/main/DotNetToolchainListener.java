@@ -0,0 +1,205 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.main;
+
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.Launcher;
+import hudson.model.AbstractProject;
+import hudson.model.Computer;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.model.Project;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.general.DotNetToolchain;
+import hudson.plugins.dotnetasscript.managers.DotNetToolchainManager;
+import hudson.security.ACL;
+import hudson.slaves.ComputerListener;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import jenkins.model.Jenkins;
+import org.acegisecurity.context.SecurityContext;
+import org.acegisecurity.context.SecurityContextHolder;
+
+/**
+ * Discovers the DOTNET toolchain of every node when it comes online,
+ * and warms up the node when it is enabled in the global configuration.
+ * @author Ariel.Lenis
+ */
+@Extension
+public class DotNetToolchainListener extends ComputerListener {
+
+    /**
+     * Refreshes the toolchain inventory of the computer
+     * @param computer
+     * @param listener
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    @Override
+    public void onOnline(Computer computer, TaskListener listener) throws IOException, InterruptedException {
+        final Node node = computer.getNode();
+        if (node == null) {
+            return;
+        }
+
+        DotNetToolchainManager.invalidate(computer.getName());
+
+        final EnvVars env = computer.getEnvironment();
+        final Launcher launcher = node.createLauncher(listener);
+        final TaskListener warmUpListener = listener;
+        DotNetToolchainManager toolchainManager = new DotNetToolchainManager(listener.getLogger(), launcher, env, computer.getName());
+        final DotNetToolchain toolchain;
+
+        try {
+            toolchain = toolchainManager.refresh();
+        } catch (DotNetCommandLineException error) {
+            // The node does not have dotnet installed, it will be discovered again when used
+            listener.getLogger().println("[DotNetAsScript] " + error.getMessage());
+            return;
+        }
+
+        DotNetCoreRunner.DescriptorImpl settings = Jenkins.getInstance().getDescriptorByType(DotNetCoreRunner.DescriptorImpl.class);
+        if (settings == null || !settings.getWarmUpNodes() || !toolchain.hasSdk()) {
+            return;
+        }
+
+        final int warmUpScripts = settings.getWarmUpScripts();
+
+        // The warm up scans the projects and compiles them, the node must not wait for it to be online
+        Computer.threadPoolForRemoting.submit(new Runnable() {
+            @Override
+            public void run() {
+                List<DotNetCoreRunner> hotScripts;
+                // Every project is scanned, not only the ones visible to the thread of the pool
+                SecurityContext previous = ACL.impersonate(ACL.SYSTEM);
+                try {
+                    hotScripts = getHotScripts(node, warmUpScripts);
+                } finally {
+                    SecurityContextHolder.setContext(previous);
+                }
+
+                warmUp(node, launcher, env, toolchain, hotScripts, warmUpListener);
+            }
+        });
+    }
+
+    /**
+     * Restores the default packages, starts the build servers and compiles the hot scripts in the node
+     * @param node
+     * @param launcher
+     * @param env
+     * @param toolchain
+     * @param hotScripts
+     * @param listener 
+     */
+    private static void warmUp(Node node, Launcher launcher, EnvVars env, DotNetToolchain toolchain, List<DotNetCoreRunner> hotScripts, TaskListener listener) {
+        PrintStream logger = listener.getLogger();
+        DotNetAsScriptPluginFacade facade = new DotNetAsScriptPluginFacade(logger, node, launcher, listener);
+
+        try {
+            logger.println("[DotNetAsScript] Warming up the node.");
+            facade.warmUp(env, toolchain);
+
+            for (DotNetCoreRunner hotScript : hotScripts) {
+                facade.setRuntimeConfigTemplate(hotScript.getRuntimeConfigTemplate());
+                facade.precompile(hotScript.getTargetCode(), hotScript.getAdditionalPackages(), env, toolchain);
+            }
+
+            logger.println("[DotNetAsScript] The node is warm, " + hotScripts.size() + " scripts were compiled.");
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        } catch (Exception error) {
+            // The scripts are compiled again by the builds that use them
+            logger.println("[DotNetAsScript] The warm up failed: " + error.getMessage());
+        }
+    }
+
+    /**
+     * Gets the scripts of the projects that can run in the node, the scripts of
+     * the most recently built projects first
+     * @param node
+     * @param maxScripts
+     * @return 
+     */
+    private static List<DotNetCoreRunner> getHotScripts(Node node, int maxScripts) {
+        List<Project<?, ?>> projects = new ArrayList<>();
+
+        for (Project<?, ?> project : Jenkins.getInstance().getAllItems(Project.class)) {
+            if (project.isDisabled() || project.getLastBuild() == null || !canRunIn(project, node)) {
+                continue;
+            }
+            projects.add(project);
+        }
+
+        Collections.sort(projects, new Comparator<Project<?, ?>>() {
+            @Override
+            public int compare(Project<?, ?> first, Project<?, ?> second) {
+                return Long.compare(getLastBuildTime(second), getLastBuildTime(first));
+            }
+        });
+
+        List<DotNetCoreRunner> hotScripts = new ArrayList<>();
+
+        for (Project<?, ?> project : projects) {
+            for (DotNetCoreRunner runner : project.getBuildersList().getAll(DotNetCoreRunner.class)) {
+                if (hotScripts.size() >= maxScripts) {
+                    return hotScripts;
+                }
+                hotScripts.add(runner);
+            }
+        }
+
+        return hotScripts;
+    }
+
+    /**
+     * Determines if the project can be built in the node
+     * @param project
+     * @param node
+     * @return 
+     */
+    private static boolean canRunIn(AbstractProject<?, ?> project, Node node) {
+        Label label = project.getAssignedLabel();
+        if (label == null) {
+            return node.getMode() == Node.Mode.NORMAL;
+        }
+        return label.contains(node);
+    }
+
+    /**
+     * @param project
+     * @return the start time of the last build of the project
+     */
+    private static long getLastBuildTime(Project<?, ?> project) {
+        Run<?, ?> lastBuild = project.getLastBuild();
+        return lastBuild == null ? 0 : lastBuild.getTimeInMillis();
+    }
+}
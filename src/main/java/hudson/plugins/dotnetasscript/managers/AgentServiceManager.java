@@ -0,0 +1,259 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.plugins.dotnetasscript.callables.CacheLockCallable;
+import hudson.plugins.dotnetasscript.callables.ServiceProbeCallable;
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.general.NodeFile;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.general.ServiceEndpoint;
+import hudson.plugins.dotnetasscript.tools.FileTools;
+import hudson.plugins.dotnetasscript.tools.ProjectFileTools;
+import hudson.plugins.dotnetasscript.tools.StringTools;
+import hudson.remoting.VirtualChannel;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds and starts a long lived DOTNET helper service in the node, the service writes
+ * the port where it listens and the token of its requests inside its port file,
+ * the file can be read only by the user of the node.
+ * @author Ariel.Lenis
+ */
+public class AgentServiceManager extends ManagerBase {
+    private static final String PORT_FILE_NAME = "service.port";
+    private static final String BUILT_FILE_NAME = "service.built";
+    private static final long LOCK_TIMEOUT_MILLIS = 30L * 60 * 1000;
+    private static final int START_TIMEOUT_MILLIS = 60000;
+    private static final int START_POLL_MILLIS = 500;
+
+    private final DotNetCommandLineManager commandLine;
+    private final VirtualChannel channel;
+    private final Map<String, String> sources;
+    private final Map<String, String> packages;
+    private final List<String> arguments;
+
+    /**
+     * The agent service manager constructor
+     * @param logger
+     * @param commandLine the command line manager for the service project folder
+     * @param channel the channel of the target node
+     * @param sources the service source files by file name
+     * @param packages the packages required by the service
+     * @param arguments the service arguments after the port file
+     */
+    public AgentServiceManager(PrintStream logger, DotNetCommandLineManager commandLine, VirtualChannel channel, Map<String, String> sources, Map<String, String> packages, List<String> arguments) {
+        super(logger);
+
+        this.commandLine = commandLine;
+        this.channel = channel;
+        this.sources = sources;
+        this.packages = packages;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Gets a version name for the service sources, to use it as the service folder name
+     * @param serviceName
+     * @param sources
+     * @param packages
+     * @return
+     * @throws NoSuchAlgorithmException
+     * @throws UnsupportedEncodingException
+     */
+    public static String getVersionedName(String serviceName, Map<String, String> sources, Map<String, String> packages) throws NoSuchAlgorithmException, UnsupportedEncodingException {
+        StringBuilder content = new StringBuilder();
+
+        for (Map.Entry<String, String> source : new TreeMap<>(sources).entrySet()) {
+            content.append(source.getKey()).append('\n').append(source.getValue()).append('\n');
+        }
+        for (Map.Entry<String, String> thePackage : new TreeMap<>(packages).entrySet()) {
+            content.append(thePackage.getKey()).append('\n').append(thePackage.getValue()).append('\n');
+        }
+
+        return serviceName + "-" + StringTools.getStringIdentificator(content.toString()).substring(0, 12);
+    }
+
+    /**
+     * Gets the endpoint of the running service, the service is built and started when needed.
+     * The builds of the node that need the same service wait for the one that starts it.
+     * @return the service port and token
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException
+     */
+    public ServiceEndpoint getEndpoint() throws IOException, InterruptedException, DotNetCommandLineException {
+        NodeFile portFile = new NodeFile(this.commandLine.getProjectFolder(), PORT_FILE_NAME);
+
+        ServiceEndpoint endpoint = this.getRunningEndpoint(portFile);
+        if (endpoint != null) {
+            return endpoint;
+        }
+
+        String serviceName = this.commandLine.getProjectName();
+        NodeFile locks = new NodeFile(this.getServicesFolder(), ProjectConstants.CACHE_LOCKS_FOLDER_NAME);
+        String token = String.format("%s.%x", serviceName, System.nanoTime());
+
+        if (!locks.getFilePath().act(CacheLockCallable.acquire(serviceName, token, 0))) {
+            this.prettyLog("Waiting for another build that starts the service " + serviceName + ".");
+            if (!locks.getFilePath().act(CacheLockCallable.acquire(serviceName, token, LOCK_TIMEOUT_MILLIS))) {
+                throw new DotNetCommandLineException("Another build is taking too long to start the service " + serviceName + ".");
+            }
+        }
+
+        try {
+            // The build that held the lock may have started the service
+            endpoint = this.getRunningEndpoint(portFile);
+            if (endpoint != null) {
+                return endpoint;
+            }
+
+            return this.startService(portFile);
+        } finally {
+            locks.getFilePath().act(CacheLockCallable.release(token));
+        }
+    }
+
+    /**
+     * Builds the service when it is not built and starts it, the lock of the service must be held
+     * @param portFile
+     * @return the service port and token
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException 
+     */
+    private ServiceEndpoint startService(NodeFile portFile) throws IOException, InterruptedException, DotNetCommandLineException {
+        if (portFile.exists()) {
+            portFile.delete();
+        }
+
+        if (!new NodeFile(this.commandLine.getProjectFolder(), BUILT_FILE_NAME).exists()) {
+            this.buildService();
+        }
+
+        NodeFile serviceAssembly = this.commandLine.getOutputAssembly();
+        this.prettyLog("Starting the service " + serviceAssembly.getFilePath().getName() + ".");
+        this.commandLine.startDetached(serviceAssembly, portFile, this.arguments);
+
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(START_POLL_MILLIS);
+
+            ServiceEndpoint endpoint = this.readEndpoint(portFile);
+            if (endpoint != null && this.isListening(endpoint.getPort())) {
+                return endpoint;
+            }
+        }
+
+        throw new DotNetCommandLineException("The service did not start in time.");
+    }
+
+    /**
+     * Writes the service project and builds it in a staging folder, the built service
+     * replaces the service folder with a single rename, so an interrupted build
+     * never leaves a partial service behind
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException
+     */
+    private void buildService() throws IOException, InterruptedException, DotNetCommandLineException {
+        NodeFile projectFolder = this.commandLine.getProjectFolder();
+        this.prettyLog("Building the service " + projectFolder.getFilePath().getName() + ".");
+
+        NodeFile stagingRoot = new NodeFile(this.getServicesFolder(), ProjectConstants.CACHE_STAGING_FOLDER_NAME);
+        NodeFile staging = new NodeFile(stagingRoot, String.format("%s.%x", this.commandLine.getProjectName(), System.nanoTime()));
+
+        try {
+            DotNetCommandLineManager stagingCommandLine = this.commandLine.forWorkspace(staging);
+            NodeFile stagingFolder = stagingCommandLine.getProjectFolder();
+            stagingFolder.mkdir();
+
+            String projectFileName = stagingFolder.getFilePath().getName() + ".csproj";
+            String projectFile = ProjectFileTools.getProjectFileContent(stagingCommandLine.getTargetFramework(), this.packages);
+            FileTools.writeFile(new NodeFile(stagingFolder, projectFileName), projectFile);
+
+            for (Map.Entry<String, String> source : this.sources.entrySet()) {
+                FileTools.writeFile(new NodeFile(stagingFolder, source.getKey()), source.getValue());
+            }
+
+            stagingCommandLine.restoreDependencies();
+            stagingCommandLine.build();
+            FileTools.writeFile(new NodeFile(stagingFolder, BUILT_FILE_NAME), this.commandLine.getProjectName());
+
+            // A folder without the built mark was left by an interrupted build of a former version
+            if (projectFolder.exists()) {
+                projectFolder.getFilePath().deleteRecursive();
+            }
+            stagingFolder.getFilePath().renameTo(projectFolder.getFilePath());
+        } finally {
+            staging.getFilePath().deleteRecursive();
+        }
+    }
+
+    /**
+     * @return the folder of the services of the node
+     */
+    private NodeFile getServicesFolder() {
+        return new NodeFile(this.commandLine.getProjectFolder().getFilePath().getParent());
+    }
+
+    /**
+     * @param portFile
+     * @return the endpoint of the service if it is listening, null otherwise
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    private ServiceEndpoint getRunningEndpoint(NodeFile portFile) throws IOException, InterruptedException {
+        ServiceEndpoint endpoint = this.readEndpoint(portFile);
+        return endpoint != null && this.isListening(endpoint.getPort()) ? endpoint : null;
+    }
+
+    private ServiceEndpoint readEndpoint(NodeFile portFile) throws IOException, InterruptedException {
+        if (!portFile.exists()) {
+            return null;
+        }
+
+        String[] lines = FileTools.getFileContent(portFile).trim().split("\\s+");
+        if (lines.length != 2) {
+            // The service is still writing the file
+            return null;
+        }
+
+        try {
+            return new ServiceEndpoint(Integer.parseInt(lines[0]), lines[1]);
+        } catch (NumberFormatException error) {
+            return null;
+        }
+    }
+
+    private boolean isListening(int port) throws IOException, InterruptedException {
+        return this.channel.call(new ServiceProbeCallable(port));
+    }
+}
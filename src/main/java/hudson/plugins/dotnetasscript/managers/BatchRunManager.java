@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.EnvVars;
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.exceptions.DotNetPluginException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compiles consecutive steps in one project and runs them in order in one process,
+ * the variables saved by a step are available for the next ones.
+ * @author Ariel.Lenis
+ */
+public class BatchRunManager extends ManagerBase {
+    private static final String EMPTY_PACKAGES = "{}";
+
+    private final ScriptRunner runner;
+    private final ScriptSourcesManager scriptSources;
+    private final String runtimeConfigTemplate;
+    private final DotNetPackagesManager dotNetPackages;
+    private final List<String> targetCodes = new ArrayList<>();
+
+    /**
+     * The batch run manager constructor
+     * @param logger
+     * @param runner runs the project of the batch
+     * @param scriptSources
+     * @param runtimeConfigTemplate the runtime options of the batch, null for the runtime defaults
+     */
+    public BatchRunManager(PrintStream logger, ScriptRunner runner, ScriptSourcesManager scriptSources, String runtimeConfigTemplate) {
+        super(logger);
+
+        this.runner = runner;
+        this.scriptSources = scriptSources;
+        this.runtimeConfigTemplate = runtimeConfigTemplate;
+        this.dotNetPackages = new DotNetPackagesManager(logger, EMPTY_PACKAGES);
+    }
+
+    /**
+     * Adds the next step of the batch
+     * @param targetCode
+     * @param targetPackagesJson
+     * @param runtimeConfigTemplate the runtime options of the step
+     * @return false if the step cannot share the process with the previous ones and the steps must run one by one
+     */
+    public boolean addStep(String targetCode, String targetPackagesJson, String runtimeConfigTemplate) {
+        if (!Objects.equals(this.runtimeConfigTemplate, runtimeConfigTemplate)) {
+            this.log("#### The steps use different runtime profiles, they run one by one.");
+            return false;
+        }
+
+        Map<String, String> stepPackages = new DotNetPackagesManager(this.logger, targetPackagesJson).getPackagesMap();
+
+        for (Map.Entry<String, String> stepPackage : stepPackages.entrySet()) {
+            String version = this.dotNetPackages.getPackagesMap().get(stepPackage.getKey());
+
+            if (this.dotNetPackages.contains(stepPackage.getKey()) && (version == null ? stepPackage.getValue() != null : !version.equals(stepPackage.getValue()))) {
+                this.log("#### The steps use different versions of " + stepPackage.getKey() + ", they run one by one.");
+                return false;
+            }
+        }
+
+        for (Map.Entry<String, String> stepPackage : stepPackages.entrySet()) {
+            this.dotNetPackages.putPackage(stepPackage.getKey(), stepPackage.getValue());
+        }
+        this.targetCodes.add(targetCode);
+
+        return true;
+    }
+
+    /**
+     * Runs the steps added to the batch
+     * @param env the environment of the build
+     * @param results the result channel of the batch
+     * @return the exit code of every step that ran, by its position in the batch starting at one,
+     * empty if the batch failed before running any step
+     * @throws InterruptedException when the build is aborted
+     */
+    public Map<Integer, Integer> run(EnvVars env, ResultChannelManager results) throws InterruptedException {
+        this.scriptSources.addImplicitPackages(this.dotNetPackages, this.targetCodes);
+        this.log("#### Running " + this.targetCodes.size() + " steps in one batch.");
+
+        try {
+            Map<String, String> sources = this.scriptSources.getBatchSources(this.targetCodes);
+            this.runner.runSources(sources, this.dotNetPackages, env, results);
+        } catch (InterruptedIOException error) {
+            throw new InterruptedException(error.getMessage());
+        } catch (IOException | NoSuchAlgorithmException | DotNetPluginException | DotNetCommandLineException | RuntimeException error) {
+            // A failed step is reported by its own result
+            if (results.getStepResults().isEmpty()) {
+                this.log("#### The batch failed, the steps run one by one: " + error.getMessage());
+            }
+        }
+
+        return results.getStepResults();
+    }
+}
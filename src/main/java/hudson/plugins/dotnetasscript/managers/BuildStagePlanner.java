@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.plugins.dotnetasscript.general.BuildInformation;
+import hudson.plugins.dotnetasscript.general.BuildPlan;
+import java.io.PrintStream;
+import java.util.Map;
+
+/**
+ * Decides which stages are needed based in the last successful build information
+ * @author Ariel.Lenis
+ */
+public class BuildStagePlanner extends ManagerBase {
+
+    /**
+     * The stage planner constructor
+     * @param logger
+     */
+    public BuildStagePlanner(PrintStream logger) {
+        super(logger);
+    }
+
+    /**
+     * Plans the stages for the current build
+     * @param recreated true if the project folder was created again in this build
+     * @param lastBuild the information of the last successful build, can be null
+     * @param assetsExist true if the restore output exists
+     * @param outputExists true if the compiled assembly exists
+     * @param hasPackages true if the project references packages, without them the restore is not needed
+     * @param packagesHash
+     * @param manifest the content hash of every generated file
+     * @param dotNetVersion
+     * @return
+     */
+    public BuildPlan plan(boolean recreated, BuildInformation lastBuild, boolean assetsExist, boolean outputExists, boolean hasPackages, String packagesHash, Map<String, String> manifest, String dotNetVersion) {
+        BuildPlan plan = new BuildPlan();
+
+        plan.setRestoreNeeded(hasPackages && (recreated || !assetsExist));
+        plan.setSourcesChanged(lastBuild == null || !manifest.equals(lastBuild.getFiles()));
+
+        if (recreated || lastBuild == null) {
+            plan.setBuildNeeded(true);
+        } else if (!outputExists) {
+            this.prettyLog("The compiled assembly doesn't exists.");
+            plan.setBuildNeeded(true);
+        } else if (plan.isSourcesChanged()) {
+            this.prettyLog("The generated files changed since the last build.");
+            plan.setBuildNeeded(true);
+        } else if (!packagesHash.equals(lastBuild.getPackagesHash()) || !dotNetVersion.equals(lastBuild.getDotNetVersion())) {
+            this.prettyLog("The packages or the dotnet version changed since the last build.");
+            plan.setBuildNeeded(true);
+        } else {
+            plan.setBuildNeeded(plan.isRestoreNeeded());
+        }
+
+        return plan;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.plugins.dotnetasscript.callables.ServiceRequestCallable;
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.general.ServiceEndpoint;
+import hudson.remoting.VirtualChannel;
+import java.io.IOException;
+import java.io.PrintStream;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Compiles the projects through the compile service of the node,
+ * the caller must fall back to the command line when the service cannot be used.
+ * @author Ariel.Lenis
+ */
+public class CompileServiceManager extends ManagerBase {
+    /**
+     * The compile service name
+     */
+    public static final String SERVICE_NAME = "compileservice";
+
+    /**
+     * The compile service source file
+     */
+    public static final String SERVICE_SOURCE = "CompileService.cs";
+
+    /**
+     * The Roslyn package used by the compile service
+     */
+    public static final String ROSLYN_PACKAGE = "Microsoft.CodeAnalysis.CSharp";
+
+    /**
+     * The Roslyn package version used by the compile service
+     */
+    public static final String ROSLYN_VERSION = "4.8.0";
+
+    private final AgentServiceManager service;
+    private final VirtualChannel channel;
+
+    /**
+     * The compile service manager constructor
+     * @param logger
+     * @param service
+     * @param channel
+     */
+    public CompileServiceManager(PrintStream logger, AgentServiceManager service, VirtualChannel channel) {
+        super(logger);
+
+        this.service = service;
+        this.channel = channel;
+    }
+
+    /**
+     * Compiles the project of the command line manager, the packages must be already restored
+     * @param commandLine
+     * @param hasPackages false if the project is compiled only with the framework, without restore
+     * @return false if the compile service cannot be used for the project
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException when the compilation fails
+     */
+    public boolean compile(DotNetCommandLineManager commandLine, boolean hasPackages) throws IOException, InterruptedException, DotNetCommandLineException {
+        String targetFramework = commandLine.getTargetFramework();
+
+        if (!targetFramework.startsWith("net") || targetFramework.startsWith("netcoreapp")) {
+            return false;
+        }
+
+        ServiceEndpoint endpoint;
+        try {
+            endpoint = this.service.getEndpoint();
+        } catch (DotNetCommandLineException | IOException error) {
+            this.prettyLog("The compile service is not available: " + error.getMessage());
+            return false;
+        }
+
+        JSONObject request = new JSONObject();
+        request.put("projectFolder", commandLine.getProjectFolder().getFilePath().getRemote());
+        request.put("targetFramework", targetFramework);
+        request.put("assemblyName", commandLine.getProjectName());
+        request.put("outputAssembly", commandLine.getOutputAssemblyPath());
+        request.put("runtimeConfig", commandLine.getRuntimeConfigPath());
+        request.put("implicitUsings", !targetFramework.startsWith("net5."));
+        request.put("hasPackages", hasPackages);
+
+        String response;
+        try {
+            response = this.channel.call(new ServiceRequestCallable(endpoint, request.toString()));
+        } catch (IOException error) {
+            this.prettyLog("The compile service is not available: " + error.getMessage());
+            return false;
+        }
+
+        JSONObject result = new JSONObject(response);
+        JSONArray diagnostics = result.getJSONArray("diagnostics");
+        for (int i = 0; i < diagnostics.length(); i++) {
+            this.log(diagnostics.getString(i));
+        }
+
+        if (!result.getBoolean("supported")) {
+            this.prettyLog("The compile service cannot compile this project.");
+            return false;
+        }
+
+        if (!result.getBoolean("success")) {
+            throw new DotNetCommandLineException("Error at build step.");
+        }
+
+        this.prettyLog("The project was compiled by the compile service.");
+        return true;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.plugins.dotnetasscript.callables.DataInputCallable;
+import hudson.plugins.dotnetasscript.callables.DataOutputCallable;
+import hudson.plugins.dotnetasscript.general.NodeFile;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exchanges large binary data with a script through files that the script maps in memory,
+ * the data is written and read in the node and never goes through the result channel.
+ * @author Ariel.Lenis
+ */
+public class DataExchangeManager extends ManagerBase {
+    private final NodeFile inputFile;
+    private final NodeFile outputFile;
+    private final NodeFile workspace;
+    private final Map<String, String> inputs;
+    private final NodeFile outputFolder;
+
+    /**
+     * The data exchange manager constructor
+     * @param logger
+     * @param inputFile the data file read by the script
+     * @param outputFile the data file written by the script
+     * @param workspace the folder of the relative paths
+     * @param inputs the path of the file of every key the script receives
+     * @param outputFolder the folder that receives the data saved by the script, null to discard it
+     */
+    public DataExchangeManager(PrintStream logger, NodeFile inputFile, NodeFile outputFile, NodeFile workspace, Map<String, String> inputs, NodeFile outputFolder) {
+        super(logger);
+        this.inputFile = inputFile;
+        this.outputFile = outputFile;
+        this.workspace = workspace;
+        this.inputs = inputs;
+        this.outputFolder = outputFolder;
+    }
+
+    /**
+     * @return the environment variables that tell the script where its data files are
+     */
+    public Map<String, String> getVariables() {
+        Map<String, String> variables = new LinkedHashMap<>();
+
+        if (!this.inputs.isEmpty()) {
+            variables.put(ProjectConstants.DATA_INPUT_VARIABLE, this.inputFile.getFilePath().getRemote());
+        }
+        if (this.outputFolder != null) {
+            variables.put(ProjectConstants.DATA_OUTPUT_VARIABLE, this.outputFile.getFilePath().getRemote());
+        }
+        return variables;
+    }
+
+    /**
+     * Writes the data file read by the script and removes the data of a previous run
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void prepare() throws IOException, InterruptedException {
+        this.delete();
+
+        if (this.inputs.isEmpty()) {
+            return;
+        }
+
+        int count = this.inputFile.getFilePath().act(new DataInputCallable(this.workspace.getFilePath().getRemote(), this.inputs));
+        this.prettyLog(count + " data files are available to the script.");
+    }
+
+    /**
+     * Extracts the data saved by the script to the output folder and removes the data files
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void collect() throws IOException, InterruptedException {
+        try {
+            if (this.outputFolder == null || !this.outputFile.exists()) {
+                return;
+            }
+
+            Map<String, Long> extracted = this.outputFile.getFilePath().act(new DataOutputCallable(this.outputFolder.getFilePath().getRemote()));
+            for (Map.Entry<String, Long> entry : extracted.entrySet()) {
+                this.prettyLog(String.format("Data %s saved by the script (%d bytes).", entry.getKey(), entry.getValue()));
+            }
+        } finally {
+            this.delete();
+        }
+    }
+
+    /**
+     * Removes the data files
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    private void delete() throws IOException, InterruptedException {
+        if (this.inputFile.exists()) {
+            this.inputFile.delete();
+        }
+        if (this.outputFile.exists()) {
+            this.outputFile.delete();
+        }
+    }
+}
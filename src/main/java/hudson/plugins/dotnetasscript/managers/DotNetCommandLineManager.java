@@ -1,276 +1,457 @@
-/*
- * The MIT License
- *
- * Copyright 2017 Ariel.Lenis.
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package hudson.plugins.dotnetasscript.managers;
-
-import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
-import hudson.plugins.dotnetasscript.general.NodeFile;
-import hudson.plugins.dotnetasscript.general.ProjectConstants;
-import hudson.plugins.dotnetasscript.tools.FileTools;
-import hudson.EnvVars;
-import hudson.Launcher;
-import hudson.model.TaskListener;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.PrintStream;
-import java.util.Arrays;
-import java.util.List;
-
-/**
- *
- * @author Ariel.Lenis
- */
-public class DotNetCommandLineManager extends ManagerBase {
-    String projectName;
-    Launcher launcher;
-    EnvVars env;
-    NodeFile targetWorkspace;
-    TaskListener listener;
-    
-    /**
-     * 
-     * @param logger
-     * @param launcher
-     * @param env
-     * @param listener
-     * @param targetWorkspace
-     * @param projectName
-     * @throws IOException
-     * @throws InterruptedException 
-     */
-    public DotNetCommandLineManager(PrintStream logger, Launcher launcher, EnvVars env, TaskListener listener, NodeFile targetWorkspace, String projectName) throws IOException, InterruptedException {
-        super(logger);
-
-        this.launcher = launcher;
-        this.projectName = projectName;
-        this.env = env;
-        this.targetWorkspace = targetWorkspace;
-        this.listener = listener;
-    }
-    
-    private String getDotNetExecutable() {
-        return "dotnet";
-    }
-    
-    /**
-     * Creates the DOTNET project
-     * @throws IOException
-     * @throws InterruptedException 
-     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException 
-     */
-    public void createProject() throws IOException, InterruptedException, DotNetCommandLineException
-    {
-        List<String> argsCreate = Arrays.asList(this.getDotNetExecutable(), "new", "console", "-n", this.projectName);
-        
-        NodeFile projectFolder = this.getProjectFolder();
-        
-        if (projectFolder.exists())
-        {
-            if (projectFolder.isDirectory())
-                FileTools.deleteDirectory(projectFolder);
-            else
-                projectFolder.delete();                
-        }
-        
-        int result = this.executeArgs(argsCreate, this.targetWorkspace);        
-        if (result != 0) {
-            throw new DotNetCommandLineException("Error at create step.", result);
-        }
-    }
-    
-    /**
-     * Restores the DOTNET packages
-     * @throws IOException
-     * @throws InterruptedException 
-     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException 
-     */
-    public void restoreDependencies() throws IOException, InterruptedException, DotNetCommandLineException
-    {
-        List<String> argsCreate = Arrays.asList(this.getDotNetExecutable(), "restore");
-        
-        NodeFile projectFolder = this.getProjectFolder();
-        
-        if (!projectFolder.exists()) {
-            throw new DotNetCommandLineException("The project folder does not exists.");
-        } 
-        
-        int result = this.executeArgs(argsCreate, projectFolder);        
-        if (result != 0) {
-            throw new DotNetCommandLineException("Error at restore dependencies step.", result);
-        }
-    }
-    
-    /**
-     * Gets the current project folder
-     * @return 
-     */
-    public NodeFile getProjectFolder() {
-        return new NodeFile(this.targetWorkspace, this.projectName);
-    }
-
-    /**
-     * Adds a package to the project with the last version
-     * @param packageName
-     * @throws IOException
-     * @throws InterruptedException 
-     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException 
-     */
-    public void addPackage(String packageName) throws IOException, InterruptedException, DotNetCommandLineException {
-        List<String> argsCreate = Arrays.asList(this.getDotNetExecutable(), "add", "package", packageName);
-        
-        NodeFile projectFolder = this.getProjectFolder();
-        
-        if (!projectFolder.exists()) {
-            throw new DotNetCommandLineException("The project folder does not exists.");
-        } 
-        
-        int result = this.executeArgs(argsCreate, projectFolder);        
-        if (result != 0) {
-            throw new DotNetCommandLineException("Error at add package step.", result);
-        }
-    }
-    
-    /**
-     * Adds a package to the project with the specific version
-     * @param packageName
-     * @param version
-     * @throws IOException
-     * @throws InterruptedException 
-     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException 
-     */
-    public void addPackage(String packageName, String version) throws IOException, InterruptedException, DotNetCommandLineException {
-        List<String> argsCreate = Arrays.asList(this.getDotNetExecutable(), "add", "package", packageName, "-v", version);
-        
-        NodeFile projectFolder = this.getProjectFolder();
-        
-        if (!projectFolder.exists()) {
-            throw new DotNetCommandLineException("The project folder does not exists.");
-        } 
-        
-        int result = this.executeArgs(argsCreate, projectFolder);        
-        if (result != 0) {
-            throw new DotNetCommandLineException("Error at add package step.", result);
-        }
-    }
-    
-    /**
-     * Builds the current DOTNET project
-     * @throws IOException
-     * @throws InterruptedException 
-     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException 
-     */
-    public void build() throws IOException, InterruptedException, DotNetCommandLineException {
-        List<String> argsCreate = Arrays.asList(this.getDotNetExecutable(), "build");
-        
-        NodeFile projectFolder = this.getProjectFolder();
-        
-        if (!projectFolder.exists()) {
-            throw new DotNetCommandLineException("The project folder does not exists.");
-        } 
-        
-        int result = this.executeArgs(argsCreate, projectFolder);        
-        if (result != 0) {
-            throw new DotNetCommandLineException("Error at build step.", result);
-        }
-    }
-    
-    /**
-     * Runs the current DOTNET project
-     * @throws IOException
-     * @throws InterruptedException 
-     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException 
-     */
-    public void run() throws IOException, InterruptedException, DotNetCommandLineException
-    {
-        List<String> argsCreate = Arrays.asList(this.getDotNetExecutable(), "run");
-        
-        NodeFile projectFolder = this.getProjectFolder();
-        
-        if (!projectFolder.exists()) {
-            throw new DotNetCommandLineException("The project folder does not exists.");
-        }            
-        
-        int result = this.executeArgs(argsCreate, projectFolder);        
-        if (result != 0) {
-            throw new DotNetCommandLineException("Error at run step.", result);
-        }
-    }
-    
-    /**
-     * Execute the commands
-     * @param args
-     * @param targetDirectory
-     * @return
-     * @throws IOException
-     * @throws InterruptedException 
-     */
-    private int executeArgs(List<String> args, NodeFile targetDirectory) throws IOException, InterruptedException
-    {
-        return this.launcher
-                .launch()
-                .cmds(args)
-                .envs(this.env)
-                .stdout(this.listener)
-                .pwd(targetDirectory.getFilePath())
-                .join();        
-    }
-    
-    /**
-     * Validates the DOTNET version
-     * @return
-     * @throws IOException
-     * @throws InterruptedException
-     * @throws DotNetCommandLineException 
-     */
-    public boolean validateDotNetVersion() throws IOException, InterruptedException, DotNetCommandLineException {
-        // This command line class cannot work with the preview version of dotnet core
-        String preview = "1.0.0-preview";
-        String currentVersion = this.getDotNetVersion();
-        return !currentVersion.startsWith(preview);
-    }
-    
-    /**
-     * Gets the current DOTNET version
-     * @return
-     * @throws IOException
-     * @throws InterruptedException
-     * @throws DotNetCommandLineException 
-     */
-    public String getDotNetVersion() throws IOException, InterruptedException, DotNetCommandLineException {
-        ByteArrayOutputStream  baos = new ByteArrayOutputStream();
-        List<String> args = Arrays.asList(this.getDotNetExecutable(), "--version");
-        
-        int result = this.launcher
-                        .launch()
-                        .cmds(args).stdout(baos)            
-                        .join();        
-        
-        if (result != 0) {
-            throw new DotNetCommandLineException("Error trying to get the dotnet version", result);
-        }
-
-        String version = baos.toString(ProjectConstants.ENCODING);
-        
-        return version.trim();
-    }
-}
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.general.DotNetToolchain;
+import hudson.plugins.dotnetasscript.general.NodeFile;
+import hudson.plugins.dotnetasscript.tools.EnvironmentTools;
+import hudson.EnvVars;
+import hudson.Launcher;
+import hudson.Proc;
+import hudson.model.TaskListener;
+import hudson.util.NullStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *
+ * @author Ariel.Lenis
+ */
+public class DotNetCommandLineManager extends ManagerBase {
+    private static final long RESULT_POLL_MILLIS = 250;
+    private static final long RESULT_POLL_MAX_MILLIS = 2000;
+    
+    String projectName;
+    Launcher launcher;
+    EnvVars env;
+    NodeFile targetWorkspace;
+    TaskListener listener;
+    DotNetToolchain toolchain;
+    
+    /**
+     * 
+     * @param logger
+     * @param launcher
+     * @param env
+     * @param listener
+     * @param targetWorkspace
+     * @param projectName
+     * @param toolchain
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public DotNetCommandLineManager(PrintStream logger, Launcher launcher, EnvVars env, TaskListener listener, NodeFile targetWorkspace, String projectName, DotNetToolchain toolchain) throws IOException, InterruptedException {
+        super(logger);
+
+        this.launcher = launcher;
+        this.projectName = projectName;
+        this.env = EnvironmentTools.withFastStart(env);
+        this.targetWorkspace = targetWorkspace;
+        this.listener = listener;
+        this.toolchain = toolchain;
+    }
+    
+    /**
+     * Creates a command line manager for the project with the same name in other folder
+     * @param targetWorkspace the folder of the project
+     * @return
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public DotNetCommandLineManager forWorkspace(NodeFile targetWorkspace) throws IOException, InterruptedException {
+        return new DotNetCommandLineManager(this.logger, this.launcher, this.env, this.listener, targetWorkspace, this.projectName, this.toolchain);
+    }
+    
+    private String getDotNetExecutable() {
+        return "dotnet";
+    }
+    
+    /**
+     * Determines if the current SDK restores and builds implicitly,
+     * those SDKs also accept the --no-restore and --no-build options
+     * @return
+     * @throws DotNetCommandLineException 
+     */
+    private boolean hasImplicitStages() throws IOException, InterruptedException, DotNetCommandLineException {
+        return !this.getDotNetVersion().startsWith("1.");
+    }
+    
+    /**
+     * Restores the DOTNET packages
+     * @throws IOException
+     * @throws InterruptedException 
+     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException 
+     */
+    public void restoreDependencies() throws IOException, InterruptedException, DotNetCommandLineException
+    {
+        List<String> argsCreate = Arrays.asList(this.getDotNetExecutable(), "restore");
+        
+        NodeFile projectFolder = this.getProjectFolder();
+        
+        if (!projectFolder.exists()) {
+            throw new DotNetCommandLineException("The project folder does not exists.");
+        } 
+        
+        int result = this.executeArgs(argsCreate, projectFolder);        
+        if (result != 0) {
+            throw new DotNetCommandLineException("Error at restore dependencies step.", result);
+        }
+    }
+    
+    /**
+     * Gets the project name, it is also the compiled assembly name
+     * @return 
+     */
+    public String getProjectName() {
+        return this.projectName;
+    }
+    
+    /**
+     * Gets the current project folder
+     * @return 
+     */
+    public NodeFile getProjectFolder() {
+        return new NodeFile(this.targetWorkspace, this.projectName);
+    }
+
+    /**
+     * Gets the restore output of the project
+     * @return 
+     */
+    public NodeFile getAssetsFile() {
+        return new NodeFile(this.getProjectFolder(), "obj/project.assets.json");
+    }
+    
+    /**
+     * Gets the compiled assembly of the project
+     * @return
+     * @throws DotNetCommandLineException 
+     */
+    public NodeFile getOutputAssembly() throws DotNetCommandLineException {
+        return new NodeFile(this.getProjectFolder(), this.getOutputAssemblyPath());
+    }
+    
+    /**
+     * Gets the compiled assembly path relative to the project folder
+     * @return
+     * @throws DotNetCommandLineException 
+     */
+    public String getOutputAssemblyPath() throws DotNetCommandLineException {
+        return String.format("bin/Debug/%s/%s.dll", this.getTargetFramework(), this.projectName);
+    }
+    
+    /**
+     * Gets the runtime configuration path relative to the project folder
+     * @return
+     * @throws DotNetCommandLineException 
+     */
+    public String getRuntimeConfigPath() throws DotNetCommandLineException {
+        return String.format("bin/Debug/%s/%s.runtimeconfig.json", this.getTargetFramework(), this.projectName);
+    }
+    
+    /**
+     * Builds the current DOTNET project, the packages must be already restored.
+     * A project without packages is never restored, the build writes its assets file
+     * @throws IOException
+     * @throws InterruptedException 
+     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException 
+     */
+    public void build() throws IOException, InterruptedException, DotNetCommandLineException {
+        List<String> argsCreate = new ArrayList<>(Arrays.asList(this.getDotNetExecutable(), "build"));
+        
+        if (this.hasImplicitStages() && this.getAssetsFile().exists()) {
+            argsCreate.add("--no-restore");
+        }
+        
+        NodeFile projectFolder = this.getProjectFolder();
+        
+        if (!projectFolder.exists()) {
+            throw new DotNetCommandLineException("The project folder does not exists.");
+        } 
+        
+        int result = this.executeArgs(argsCreate, projectFolder);        
+        if (result != 0) {
+            throw new DotNetCommandLineException("Error at build step.", result);
+        }
+    }
+    
+    /**
+     * Determines if the current SDK can publish ReadyToRun output for the current runtime
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException 
+     */
+    public boolean supportsReadyToRun() throws IOException, InterruptedException, DotNetCommandLineException {
+        String version = this.getDotNetVersion();
+        int dot = version.indexOf('.');
+        
+        try {
+            // The --use-current-runtime option needs the SDK 6
+            return Integer.parseInt(dot < 0 ? version : version.substring(0, dot)) >= 6;
+        } catch (NumberFormatException error) {
+            return false;
+        }
+    }
+    
+    /**
+     * Publishes the project with ReadyToRun code for the runtime of the node, the published
+     * assembly starts without most of the JIT work
+     * @param outputPath the output folder relative to the project folder
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException 
+     */
+    public void publishReadyToRun(String outputPath) throws IOException, InterruptedException, DotNetCommandLineException {
+        List<String> argsCreate = Arrays.asList(this.getDotNetExecutable(), "publish", "--configuration", "Release",
+                "--use-current-runtime", "--self-contained", "false", "-p:PublishReadyToRun=true", "--output", outputPath);
+        
+        NodeFile projectFolder = this.getProjectFolder();
+        
+        if (!projectFolder.exists()) {
+            throw new DotNetCommandLineException("The project folder does not exists.");
+        }
+        
+        int result = this.executeArgs(argsCreate, projectFolder);
+        if (result != 0) {
+            throw new DotNetCommandLineException("Error at publish step.", result);
+        }
+    }
+    
+    /**
+     * Runs the current DOTNET project, the project must be already built. The project is passed
+     * by its path, so the script runs in the working directory as with {@link #exec} and not in the cache entry
+     * @param workingDirectory the working directory of the script
+     * @param results the result channel of the script
+     * @throws IOException
+     * @throws InterruptedException 
+     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException 
+     */
+    public void run(NodeFile workingDirectory, ResultChannelManager results) throws IOException, InterruptedException, DotNetCommandLineException
+    {
+        NodeFile projectFolder = this.getProjectFolder();
+        
+        if (!projectFolder.exists()) {
+            throw new DotNetCommandLineException("The project folder does not exists.");
+        }            
+        
+        // The SDK 1.x only accepts the project file, not its folder
+        NodeFile projectFile = new NodeFile(projectFolder, this.projectName + ".csproj");
+        List<String> argsCreate = new ArrayList<>(Arrays.asList(this.getDotNetExecutable(), "run", "--project", projectFile.getFilePath().getRemote()));
+        
+        if (this.hasImplicitStages()) {
+            argsCreate.add("--no-build");
+            if (this.getAssetsFile().exists()) {
+                argsCreate.add("--no-restore");
+            }
+        }
+        
+        int result = this.executeWithResults(argsCreate, workingDirectory, results);        
+        if (result != 0) {
+            throw new DotNetCommandLineException("Error at run step.", result);
+        }
+    }
+    
+    /**
+     * Runs the compiled assembly directly with the dotnet host, without MSBuild
+     * @param assembly
+     * @param runtimeConfig
+     * @param workingDirectory the working directory of the script
+     * @param results the result channel of the script
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException 
+     */
+    public void exec(NodeFile assembly, NodeFile runtimeConfig, NodeFile workingDirectory, ResultChannelManager results) throws IOException, InterruptedException, DotNetCommandLineException {
+        List<String> argsCreate = Arrays.asList(this.getDotNetExecutable(), "exec", "--runtimeconfig", runtimeConfig.getFilePath().getRemote(), assembly.getFilePath().getRemote());
+        
+        int result = this.executeWithResults(argsCreate, workingDirectory, results);        
+        if (result != 0) {
+            throw new DotNetCommandLineException("Error at run step.", result);
+        }
+    }
+    
+    /**
+     * Starts a long lived DOTNET application that must survive the current build
+     * @param assembly
+     * @param portFile the file where the application will write its port
+     * @param arguments the additional arguments
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public void startDetached(NodeFile assembly, NodeFile portFile, List<String> arguments) throws IOException, InterruptedException {
+        List<String> args = new ArrayList<>(Arrays.asList(this.getDotNetExecutable(), assembly.getFilePath().getRemote(), portFile.getFilePath().getRemote()));
+        args.addAll(arguments);
+        
+        EnvVars detachedEnv = new EnvVars(this.env);
+        // Prevents the process tree killer from stopping the service at the end of the build
+        detachedEnv.put("BUILD_ID", "dontKillMe");
+        detachedEnv.put("JENKINS_NODE_COOKIE", "dontKillMe");
+        
+        this.launcher
+                .launch()
+                .cmds(args)
+                .envs(detachedEnv)
+                .stdout(new NullStream())
+                .pwd(this.getProjectFolder().getFilePath())
+                .start();
+    }
+    
+    /**
+     * Execute the commands of a script, reading its result channel while it runs.
+     * The process is killed when the build is interrupted or the channel fails.
+     * @param args
+     * @param targetDirectory
+     * @param results
+     * @return
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    private int executeWithResults(List<String> args, NodeFile targetDirectory, ResultChannelManager results) throws IOException, InterruptedException
+    {
+        EnvVars scriptEnv = new EnvVars(this.env);
+        scriptEnv.putAll(results.getScriptVariables());
+        
+        Proc process = this.launcher
+                .launch()
+                .cmds(args)
+                .envs(scriptEnv)
+                .stdout(this.listener)
+                .pwd(targetDirectory.getFilePath())
+                .start();
+        
+        boolean finished = false;
+        try {
+            // Every poll is a call to the node, the interval grows while the script sends no results
+            long interval = RESULT_POLL_MILLIS;
+            while (process.isAlive()) {
+                interval = results.poll() ? RESULT_POLL_MILLIS : Math.min(interval * 2, RESULT_POLL_MAX_MILLIS);
+                Thread.sleep(interval);
+            }
+            
+            int exitCode = process.join();
+            finished = true;
+            return exitCode;
+        } finally {
+            if (!finished) {
+                this.kill(process);
+            }
+        }
+    }
+    
+    /**
+     * Kills a script process without hiding the error that stopped the execution
+     * @param process 
+     */
+    private void kill(Proc process) {
+        try {
+            process.kill();
+        } catch (IOException error) {
+            this.prettyLog("The script process cannot be killed: " + error.getMessage());
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Execute the commands
+     * @param args
+     * @param targetDirectory
+     * @return
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    private int executeArgs(List<String> args, NodeFile targetDirectory) throws IOException, InterruptedException
+    {
+        return this.launcher
+                .launch()
+                .cmds(args)
+                .envs(this.env)
+                .stdout(this.listener)
+                .pwd(targetDirectory.getFilePath())
+                .join();        
+    }
+    
+    /**
+     * Validates the DOTNET version
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException 
+     */
+    public boolean validateDotNetVersion() throws IOException, InterruptedException, DotNetCommandLineException {
+        // This command line class cannot work with the preview version of dotnet core
+        String preview = "1.0.0-preview";
+        String currentVersion = this.getDotNetVersion();
+        return !currentVersion.startsWith(preview);
+    }
+    
+    /**
+     * @return true if the node can build projects
+     */
+    public boolean hasSdk() {
+        return this.toolchain != null && this.toolchain.hasSdk();
+    }
+    
+    /**
+     * Determines if the node can run the assemblies built for the target framework
+     * @param targetFramework
+     * @return 
+     */
+    public boolean canRun(String targetFramework) {
+        return this.toolchain != null && targetFramework != null && this.toolchain.canRun(targetFramework);
+    }
+    
+    /**
+     * Gets the target framework for the projects created by the current toolchain
+     * @return
+     * @throws DotNetCommandLineException 
+     */
+    public String getTargetFramework() throws DotNetCommandLineException {
+        if (this.toolchain == null || this.toolchain.getDefaultSdk() == null) {
+            throw new DotNetCommandLineException("Error trying to get the dotnet version");
+        }
+        
+        return this.toolchain.getTargetFramework();
+    }
+    
+    /**
+     * Gets the current DOTNET version from the node toolchain inventory
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException 
+     */
+    public String getDotNetVersion() throws IOException, InterruptedException, DotNetCommandLineException {
+        if (this.toolchain == null || this.toolchain.getDefaultSdk() == null) {
+            throw new DotNetCommandLineException("Error trying to get the dotnet version");
+        }
+        
+        return this.toolchain.getDefaultSdk();
+    }
+}
@@ -1,273 +1,544 @@
-/*
- * The MIT License
- *
- * Copyright 2017 Ariel.Lenis.
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package hudson.plugins.dotnetasscript.managers;
-
-import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
-import hudson.plugins.dotnetasscript.exceptions.DotNetProjectManagerException;
-import hudson.plugins.dotnetasscript.general.FileForCreation;
-import hudson.plugins.dotnetasscript.general.ProjectConstants;
-import hudson.plugins.dotnetasscript.general.BuildInformation;
-import hudson.plugins.dotnetasscript.general.NodeFile;
-import hudson.plugins.dotnetasscript.tools.FileTools;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.PrintStream;
-import java.io.UnsupportedEncodingException;
-import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-
-/**
- *
- * @author Ariel.Lenis
- */
-public class DotNetProjectManager extends ManagerBase {
-    private final DotNetCommandLineManager commandLine;
-    private final List<FileForCreation> filesToCreate;
-    private final DotNetPackagesManager packages;
-    private final NodeFile projectFolder;
-    private final NodeFile buildInformationFile;
-    private final String[] additionalPackages = new String[]{"Newtonsoft.Json"};  
-    private final BuildInformationManager buildInformationManager;
-    private final int buildNumber;
-    
-    /**
-     * The project manager constructor
-     * @param logger
-     * @param buildNumber
-     * @param commandLine
-     * @param targetPackages
-     * @param projectFolder 
-     * @throws java.io.IOException 
-     * @throws java.lang.InterruptedException 
-     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetProjectManagerException 
-     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException 
-     */
-    public DotNetProjectManager(PrintStream logger, int buildNumber, DotNetCommandLineManager commandLine, DotNetPackagesManager targetPackages, NodeFile projectFolder) throws IOException, InterruptedException, InterruptedException, DotNetCommandLineException, DotNetProjectManagerException {
-        super(logger);
-        
-        this.buildNumber = buildNumber;
-        this.commandLine = commandLine;
-        this.projectFolder = projectFolder;
-        this.filesToCreate = new ArrayList<>();
-        this.packages = targetPackages;
-        this.buildInformationFile = new NodeFile(projectFolder, ProjectConstants.BUILD_INFORMATION_FILE);
-        this.buildInformationManager = new BuildInformationManager(this.logger, this.buildInformationFile);
-        
-        this.validateVersion();
-    }
-    
-    /**
-     * Prepares the packages
-     */
-    private void preparePackages() {  
-        for(String requiredPackage : this.additionalPackages) {
-            if (!this.packages.contains(requiredPackage)) {
-                this.packages.putPackage(requiredPackage, null);
-            }          
-        }
-    }
-    
-    /**
-     * Determine if this project needs be recreated
-     * @return
-     * @throws NoSuchAlgorithmException
-     * @throws UnsupportedEncodingException 
-     * @throws java.lang.InterruptedException 
-     */
-    public boolean needsRecreation() throws NoSuchAlgorithmException, UnsupportedEncodingException, IOException, InterruptedException, DotNetCommandLineException {
-        if (!this.projectFolder.exists() || !this.buildInformationFile.exists()) {
-            logger.println("#### The project folder and/or the build information file doesn't exists.");
-            return true;
-        }
-        
-        if (this.buildInformationManager.needsRecreation(this.packages.getPackagesHash(), this.commandLine.getDotNetVersion())) {
-            logger.println("#### The packages list changed.");
-            return true;
-        }
-        
-        return false;
-    }
-    
-    public void validateVersion() throws IOException, InterruptedException, DotNetCommandLineException, DotNetProjectManagerException {
-        String currentVersion = this.commandLine.getDotNetVersion();
-        boolean validation =  this.commandLine.validateDotNetVersion();
-        if (!validation) {
-            String message = String.format("Invalid dotnet version [%s].", currentVersion);
-            String step = "Validating version";
-            throw new DotNetProjectManagerException(message, step);
-        }
-    }
-    
-    /**
-     * Create the project
-     * @throws NoSuchAlgorithmException
-     * @throws UnsupportedEncodingException
-     * @throws IOException
-     * @throws InterruptedException 
-     */
-    public void createProject() throws NoSuchAlgorithmException, UnsupportedEncodingException, IOException, InterruptedException, DotNetCommandLineException {
-        if (this.needsRecreation()) {
-            logger.println("#### The project needs recreation.");
-            this.recreateProjectFolder();
-            this.preparePackages();
-            this.createDefaultProject();
-            this.addPackages();
-            this.restorePackages();
-            this.writeFiles();
-        } else {
-            logger.println("#### The project doesnt needs recreation.");
-        }
-    }
-    
-    /**
-     * Build the project
-     * @throws IOException
-     * @throws InterruptedException
-     * @throws NoSuchAlgorithmException 
-     */
-    public void buildProject() throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetCommandLineException {
-        this.commandLine.build();
-        this.updateBuildInformation();
-    }
-    
-    /**
-     * Run the project
-     * @throws IOException
-     * @throws InterruptedException
-     * @throws NoSuchAlgorithmException 
-     */
-    public void runProject() throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetCommandLineException {
-        this.commandLine.run();
-    }
-    
-    /**
-     * Write the target files to the project
-     * @throws FileNotFoundException 
-     */
-    private void writeFiles() throws FileNotFoundException, IOException, InterruptedException {
-        for(FileForCreation fileForCreation : this.filesToCreate) {
-            NodeFile targetPath = new NodeFile(this.projectFolder, fileForCreation.getPath());
-            String content = fileForCreation.getContent();
-            
-            FileTools.writeFile(targetPath, content);
-        }
-    }
-    
-    /**
-     * Add the packages to the project
-     * @throws IOException
-     * @throws InterruptedException 
-     */
-    private void addPackages() throws IOException, InterruptedException, DotNetCommandLineException {
-        for(Map.Entry<String, String> thePackage : this.packages.getPackagesMap().entrySet()) {
-            String packageName = thePackage.getKey();
-            String packageVersion = thePackage.getValue();
-            
-            if (packageVersion == null) {
-                this.commandLine.addPackage(packageName);
-            } else {
-                this.commandLine.addPackage(packageName, packageVersion);
-            }
-        }        
-    }
-    
-    /**
-     * Restore the packages to the project
-     * @throws IOException
-     * @throws InterruptedException
-     * @throws InterruptedException 
-     */
-    private void restorePackages() throws IOException, InterruptedException, InterruptedException, DotNetCommandLineException {
-        this.commandLine.restoreDependencies();
-    }
-    
-    /**
-     * Create a default project
-     * @throws IOException
-     * @throws InterruptedException 
-     */
-    private void createDefaultProject() throws IOException, InterruptedException, DotNetCommandLineException {
-        this.commandLine.createProject();
-    }
-    
-    /**
-     * Recreate the project folder
-     * @throws java.io.IOException
-     * @throws java.lang.InterruptedException
-     */
-    public void recreateProjectFolder() throws IOException, InterruptedException {
-        this.deleteProjectFolder();
-        this.createProjectFolder();
-    }
-    
-    /**
-     * Delete the project folder
-     */
-    private void deleteProjectFolder() throws IOException, InterruptedException {
-        if (this.projectFolder.exists()) {
-            FileTools.deleteDirectory(this.projectFolder);
-        }            
-    }
-    
-    /**
-     * Create the project folder
-     */
-    private void createProjectFolder() throws IOException, InterruptedException {
-        this.projectFolder.mkdir();
-    }
-    
-    /**
-     * Register a file for creation inside the project
-     * @param relativePath
-     * @param content 
-     */
-    public void addFileForCreation(String relativePath, String content) {
-        FileForCreation newOne = new FileForCreation(relativePath, content);
-        this.filesToCreate.add(newOne);
-    }
-
-    /**
-     * Update the build information for future runs
-     * @throws NoSuchAlgorithmException
-     * @throws UnsupportedEncodingException
-     * @throws FileNotFoundException 
-     */
-    private void updateBuildInformation() throws NoSuchAlgorithmException, UnsupportedEncodingException, FileNotFoundException, IOException, InterruptedException, DotNetCommandLineException {
-        BuildInformation buildInformation = this.buildInformationManager.getBuildInformation();
-        
-        if (buildInformation == null) {
-            buildInformation = new BuildInformation();
-        }
-        
-        buildInformation.setBuildNumber(this.buildNumber);
-        buildInformation.setPackagesHash(this.packages.getPackagesHash());
-        buildInformation.setDotNetVersion(this.commandLine.getDotNetVersion());
-        
-        this.buildInformationManager.setBuildInformation(buildInformation);
-        this.buildInformationManager.saveBuildInformation();
-    }
-
-}
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.exceptions.DotNetProjectManagerException;
+import hudson.plugins.dotnetasscript.general.FileForCreation;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.general.BuildInformation;
+import hudson.plugins.dotnetasscript.general.BuildPlan;
+import hudson.plugins.dotnetasscript.general.NodeFile;
+import hudson.plugins.dotnetasscript.tools.FileTools;
+import hudson.plugins.dotnetasscript.tools.ProjectFileTools;
+import hudson.plugins.dotnetasscript.tools.SourceFingerprint;
+import hudson.plugins.dotnetasscript.tools.StringTools;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ *
+ * @author Ariel.Lenis
+ */
+public class DotNetProjectManager extends ManagerBase {
+    private final DotNetCommandLineManager commandLine;
+    private final List<FileForCreation> filesToCreate;
+    private final DotNetPackagesManager packages;
+    private final NodeFile projectFolder;
+    private final NodeFile buildInformationFile;
+    private final BuildInformationManager buildInformationManager;
+    private final BuildStagePlanner stagePlanner;
+    private final int buildNumber;
+    private boolean recreated;
+    private CompileServiceManager compileService;
+    private ExecutionHostManager executionHost;
+    private NodeFile workingDirectory;
+    private DotNetProjectManager hotProject;
+    
+    /**
+     * The project manager constructor
+     * @param logger
+     * @param buildNumber
+     * @param commandLine
+     * @param targetPackages
+     * @param projectFolder 
+     * @throws java.io.IOException 
+     * @throws java.lang.InterruptedException 
+     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetProjectManagerException 
+     * @throws hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException 
+     */
+    public DotNetProjectManager(PrintStream logger, int buildNumber, DotNetCommandLineManager commandLine, DotNetPackagesManager targetPackages, NodeFile projectFolder) throws IOException, InterruptedException, InterruptedException, DotNetCommandLineException, DotNetProjectManagerException {
+        super(logger);
+        
+        this.buildNumber = buildNumber;
+        this.commandLine = commandLine;
+        this.projectFolder = projectFolder;
+        this.filesToCreate = new ArrayList<>();
+        this.packages = targetPackages;
+        this.buildInformationFile = new NodeFile(projectFolder, ProjectConstants.BUILD_INFORMATION_FILE);
+        this.buildInformationManager = new BuildInformationManager(this.logger, this.buildInformationFile);
+        this.stagePlanner = new BuildStagePlanner(this.logger);
+        this.recreated = false;
+        this.workingDirectory = projectFolder;
+        
+        this.validateVersion();
+    }
+    
+    /**
+     * Determine if this project needs be recreated
+     * @return
+     * @throws NoSuchAlgorithmException
+     * @throws UnsupportedEncodingException 
+     * @throws java.lang.InterruptedException 
+     */
+    public boolean needsRecreation() throws NoSuchAlgorithmException, UnsupportedEncodingException, IOException, InterruptedException, DotNetCommandLineException {
+        if (!this.projectFolder.exists() || !this.buildInformationFile.exists()) {
+            logger.println("#### The project folder and/or the build information file doesn't exists.");
+            return true;
+        }
+        
+        if (this.buildInformationManager.needsRecreation(this.packages.getPackagesHash(), this.commandLine.getDotNetVersion())) {
+            logger.println("#### The packages list changed.");
+            return true;
+        }
+        
+        return false;
+    }
+    
+    public void validateVersion() throws IOException, InterruptedException, DotNetCommandLineException, DotNetProjectManagerException {
+        if (!this.commandLine.hasSdk()) {
+            // The nodes with only the runtime can run the compiled scripts of other nodes
+            return;
+        }
+        
+        String currentVersion = this.commandLine.getDotNetVersion();
+        boolean validation =  this.commandLine.validateDotNetVersion();
+        if (!validation) {
+            String message = String.format("Invalid dotnet version [%s].", currentVersion);
+            String step = "Validating version";
+            throw new DotNetProjectManagerException(message, step);
+        }
+    }
+    
+    /**
+     * Create the project
+     * @throws NoSuchAlgorithmException
+     * @throws UnsupportedEncodingException
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public void createProject() throws NoSuchAlgorithmException, UnsupportedEncodingException, IOException, InterruptedException, DotNetCommandLineException {
+        this.recreated = this.needsRecreation();
+        
+        if (this.recreated) {
+            logger.println("#### The project needs recreation.");
+            this.recreateProjectFolder();
+            this.writeFiles(new HashMap<String, String>());
+        } else {
+            logger.println("#### The project doesnt needs recreation.");
+        }
+    }
+    
+    /**
+     * Build the project, only the stages that are really needed are executed
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException 
+     */
+    public void buildProject() throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetCommandLineException {
+        BuildPlan plan = this.planStages();
+        
+        if (plan.isRestoreNeeded()) {
+            this.restorePackages();
+        }
+        
+        if (!plan.isBuildNeeded()) {
+            logger.println("#### The project doesnt needs to be built.");
+            return;
+        }
+        
+        if (!this.recreated && plan.isSourcesChanged()) {
+            this.writeFiles(this.buildInformationManager.getBuildInformation().getFiles());
+        }
+        
+        boolean hasPackages = !this.getProjectPackages().isEmpty();
+        
+        if (this.compileService == null || !this.compileService.compile(this.commandLine, hasPackages)) {
+            this.commandLine.build();
+        }
+        
+        this.updateBuildInformation();
+    }
+    
+    /**
+     * Sets the compile service to use instead of the command line build
+     * @param compileService the compile service, null to always use the command line
+     */
+    public void setCompileService(CompileServiceManager compileService) {
+        this.compileService = compileService;
+    }
+    
+    /**
+     * Sets the execution host to use instead of starting a new process for every run
+     * @param executionHost the execution host, null to always use the command line
+     */
+    public void setExecutionHost(ExecutionHostManager executionHost) {
+        this.executionHost = executionHost;
+    }
+    
+    /**
+     * Sets the working directory for the compiled scripts, by default it is the project folder
+     * @param workingDirectory 
+     */
+    public void setWorkingDirectory(NodeFile workingDirectory) {
+        this.workingDirectory = workingDirectory;
+    }
+    
+    /**
+     * Plans the stages for the current build
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetCommandLineException 
+     */
+    private BuildPlan planStages() throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetCommandLineException {
+        BuildInformation lastBuild = this.recreated ? null : this.buildInformationManager.getBuildInformation();
+        boolean assetsExist = this.commandLine.getAssetsFile().exists();
+        boolean outputExists = this.commandLine.getOutputAssembly().exists();
+        
+        boolean hasPackages = !this.getProjectPackages().isEmpty();
+        
+        return this.stagePlanner.plan(this.recreated, lastBuild, assetsExist, outputExists, hasPackages, this.packages.getPackagesHash(), this.getManifest(), this.commandLine.getDotNetVersion());
+    }
+    
+    /**
+     * Gets the packages referenced by the project file, the packages of the script and the ones
+     * the harness needs for the target framework. The cache key only uses the packages of the script,
+     * the framework is already part of it.
+     * @return
+     * @throws DotNetCommandLineException 
+     */
+    private Map<String, String> getProjectPackages() throws DotNetCommandLineException {
+        Map<String, String> projectPackages = new HashMap<>(this.packages.getPackagesMap());
+        
+        if (ProjectFileTools.isLegacyFramework(this.commandLine.getTargetFramework()) && !projectPackages.containsKey(ProjectConstants.NEWTONSOFT_PACKAGE)) {
+            projectPackages.put(ProjectConstants.NEWTONSOFT_PACKAGE, null);
+        }
+        
+        return projectPackages;
+    }
+    
+    /**
+     * Gets the files generated in the project folder, the project file and the files for creation
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException 
+     */
+    private List<FileForCreation> getGeneratedFiles() throws IOException, InterruptedException, DotNetCommandLineException {
+        List<FileForCreation> generatedFiles = new ArrayList<>();
+        String projectFile = ProjectFileTools.getProjectFileContent(this.commandLine.getTargetFramework(), this.getProjectPackages());
+        
+        generatedFiles.add(new FileForCreation(ProjectConstants.PROJECT_FILE_NAME, projectFile));
+        generatedFiles.addAll(this.filesToCreate);
+        
+        return generatedFiles;
+    }
+    
+    /**
+     * Gets the content hash of a generated file, the trivia of the C# sources is not part of it
+     * so a cosmetic edit doesn't rewrite the file
+     * @param generatedFile
+     * @return
+     * @throws NoSuchAlgorithmException
+     * @throws UnsupportedEncodingException 
+     */
+    private static String getFileHash(FileForCreation generatedFile) throws NoSuchAlgorithmException, UnsupportedEncodingException {
+        if (generatedFile.getPath().endsWith(".cs")) {
+            return SourceFingerprint.getSourceHash(generatedFile.getContent());
+        }
+        return StringTools.getStringIdentificator(generatedFile.getContent());
+    }
+    
+    /**
+     * Gets the manifest of the generated files, the content hash of every file by its relative path
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetCommandLineException 
+     */
+    private Map<String, String> getManifest() throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetCommandLineException {
+        Map<String, String> manifest = new TreeMap<>();
+        
+        for (FileForCreation generatedFile : this.getGeneratedFiles()) {
+            manifest.put(generatedFile.getPath(), getFileHash(generatedFile));
+        }
+        
+        return manifest;
+    }
+    
+    /**
+     * Run the project
+     * @param results the result channel of the script
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException 
+     */
+    public void runProject(ResultChannelManager results) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetCommandLineException {
+        this.commandLine.run(this.workingDirectory, results);
+    }
+    
+    /**
+     * Run the compiled assembly directly, without starting the MSBuild based CLI
+     * @param results the result channel of the script
+     * @return false if the compiled output is missing or stale, then the project must be run with {@link #runProject()}
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetCommandLineException 
+     */
+    public boolean runCompiledProject(ResultChannelManager results) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetCommandLineException {
+        BuildInformation buildInformation = this.buildInformationManager.loadBuildInformation();
+        
+        if (buildInformation == null || buildInformation.getOutputAssembly() == null || buildInformation.getRuntimeConfig() == null) {
+            logger.println("#### The compiled output was not recorded.");
+            return false;
+        }
+        
+        boolean isCurrent = this.packages.getPackagesHash().equals(buildInformation.getPackagesHash())
+                && this.getManifest().equals(buildInformation.getFiles());
+        
+        if (!isCurrent) {
+            logger.println("#### The compiled output is stale.");
+            return false;
+        }
+        
+        if (!this.commandLine.canRun(buildInformation.getTargetFramework())) {
+            logger.println("#### The compiled output targets a framework that is not installed.");
+            return false;
+        }
+        
+        NodeFile assembly = new NodeFile(this.projectFolder, buildInformation.getOutputAssembly());
+        NodeFile runtimeConfig = new NodeFile(this.projectFolder, buildInformation.getRuntimeConfig());
+        
+        NodeFile[] hotOutput = this.hotProject == null ? null : this.hotProject.getHotOutput();
+        
+        if (hotOutput != null) {
+            logger.println("#### Running the ReadyToRun output of the hot script.");
+            assembly = hotOutput[0];
+            runtimeConfig = hotOutput[1];
+        }
+        
+        if (!assembly.exists() || !runtimeConfig.exists()) {
+            logger.println("#### The compiled output doesn't exists.");
+            return false;
+        }
+        
+        if (this.executionHost == null || !this.executionHost.run(assembly, this.workingDirectory, results)) {
+            this.commandLine.exec(assembly, runtimeConfig, this.workingDirectory, results);
+        }
+        return true;
+    }
+    
+    /**
+     * Determines if the script can be published as a hot script
+     * @param executions the times the cache entry ran, as recorded by the node cache index
+     * @param threshold the executions needed to publish the script
+     * @return true if the script was compiled and reached the threshold
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException 
+     */
+    public boolean isHotScriptDue(long executions, int threshold) throws IOException, InterruptedException, DotNetCommandLineException {
+        BuildInformation buildInformation = this.buildInformationManager.loadBuildInformation();
+        
+        return buildInformation != null
+                && buildInformation.getOutputAssembly() != null
+                && executions >= threshold
+                && this.commandLine.hasSdk()
+                && this.commandLine.supportsReadyToRun();
+    }
+    
+    /**
+     * Sets the project of the ReadyToRun output of the script, the compiled output
+     * runs the published assembly when the project has it
+     * @param hotProject the project of the hot script entry, null if the script is not hot
+     */
+    public void setHotProject(DotNetProjectManager hotProject) {
+        this.hotProject = hotProject;
+    }
+    
+    /**
+     * Gets the published ReadyToRun output of a hot script project
+     * @return the assembly and the runtime configuration, null if the publish failed
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    private NodeFile[] getHotOutput() throws IOException, InterruptedException {
+        BuildInformation buildInformation = this.buildInformationManager.loadBuildInformation();
+        
+        if (buildInformation == null || buildInformation.getHotAssembly() == null || buildInformation.getHotRuntimeConfig() == null) {
+            return null;
+        }
+        
+        NodeFile hotAssembly = new NodeFile(this.projectFolder, buildInformation.getHotAssembly());
+        NodeFile hotRuntimeConfig = new NodeFile(this.projectFolder, buildInformation.getHotRuntimeConfig());
+        
+        return hotAssembly.exists() && hotRuntimeConfig.exists() ? new NodeFile[]{hotAssembly, hotRuntimeConfig} : null;
+    }
+    
+    /**
+     * Publishes the project with ReadyToRun code. The project must be a private copy of a compiled
+     * script in a staging folder, it is published as its own cache entry once its build information
+     * points to the output. A failed publish is recorded so it is not tried again,
+     * the script keeps running the build output.
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException 
+     */
+    public void publishHotScript() throws IOException, InterruptedException, DotNetCommandLineException {
+        BuildInformation buildInformation = this.buildInformationManager.loadBuildInformation();
+        String projectName = this.commandLine.getProjectName();
+        
+        if (buildInformation == null) {
+            throw new DotNetCommandLineException("The compiled script has no build information.");
+        }
+        
+        try {
+            this.commandLine.publishReadyToRun(ProjectConstants.HOT_SCRIPT_FOLDER_NAME);
+            
+            buildInformation.setHotAssembly(ProjectConstants.HOT_SCRIPT_FOLDER_NAME + "/" + projectName + ".dll");
+            buildInformation.setHotRuntimeConfig(ProjectConstants.HOT_SCRIPT_FOLDER_NAME + "/" + projectName + ".runtimeconfig.json");
+        } catch (DotNetCommandLineException error) {
+            this.prettyLog("The script could not be published, it keeps running the build output: " + error.getMessage());
+            buildInformation.setHotPublishFailed(true);
+        }
+        
+        this.buildInformationManager.saveBuildInformation();
+    }
+    
+    /**
+     * Write the generated files to the project, only the files that changed since the last build
+     * are written so the incremental build of MSBuild is not invalidated
+     * @param lastManifest the manifest of the last build, empty to write all the files
+     * @throws FileNotFoundException 
+     */
+    private void writeFiles(Map<String, String> lastManifest) throws FileNotFoundException, IOException, InterruptedException, NoSuchAlgorithmException, DotNetCommandLineException {
+        Map<String, String> manifest = new TreeMap<>();
+        int writtenFiles = 0;
+        
+        for(FileForCreation fileForCreation : this.getGeneratedFiles()) {
+            NodeFile targetPath = new NodeFile(this.projectFolder, fileForCreation.getPath());
+            String content = fileForCreation.getContent();
+            String hash = getFileHash(fileForCreation);
+            
+            manifest.put(fileForCreation.getPath(), hash);
+            
+            if (hash.equals(lastManifest.get(fileForCreation.getPath())) && targetPath.exists()) {
+                continue;
+            }
+            
+            FileTools.writeFile(targetPath, content);
+            writtenFiles++;
+        }
+        
+        for (String lastPath : lastManifest.keySet()) {
+            NodeFile stalePath = new NodeFile(this.projectFolder, lastPath);
+            
+            // A source that is not generated anymore would still be compiled
+            if (!manifest.containsKey(lastPath) && stalePath.exists()) {
+                stalePath.delete();
+            }
+        }
+        
+        this.prettyLog(writtenFiles + " of " + manifest.size() + " generated files written.");
+    }
+    
+    /**
+     * Restore the packages to the project
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws InterruptedException 
+     */
+    private void restorePackages() throws IOException, InterruptedException, InterruptedException, DotNetCommandLineException {
+        this.commandLine.restoreDependencies();
+    }
+    
+    /**
+     * Recreate the project folder
+     * @throws java.io.IOException
+     * @throws java.lang.InterruptedException
+     */
+    public void recreateProjectFolder() throws IOException, InterruptedException {
+        this.deleteProjectFolder();
+        this.createProjectFolder();
+    }
+    
+    /**
+     * Delete the project folder
+     */
+    private void deleteProjectFolder() throws IOException, InterruptedException {
+        if (this.projectFolder.exists()) {
+            FileTools.deleteDirectory(this.projectFolder);
+        }            
+    }
+    
+    /**
+     * Create the project folder
+     */
+    private void createProjectFolder() throws IOException, InterruptedException {
+        this.projectFolder.mkdir();
+    }
+    
+    /**
+     * Register a file for creation inside the project
+     * @param relativePath
+     * @param content 
+     */
+    public void addFileForCreation(String relativePath, String content) {
+        FileForCreation newOne = new FileForCreation(relativePath, content);
+        this.filesToCreate.add(newOne);
+    }
+
+    /**
+     * Update the build information for future runs
+     * @throws NoSuchAlgorithmException
+     * @throws UnsupportedEncodingException
+     * @throws FileNotFoundException 
+     */
+    private void updateBuildInformation() throws NoSuchAlgorithmException, UnsupportedEncodingException, FileNotFoundException, IOException, InterruptedException, DotNetCommandLineException {
+        BuildInformation buildInformation = this.buildInformationManager.getBuildInformation();
+        
+        if (buildInformation == null) {
+            buildInformation = new BuildInformation();
+        }
+        
+        buildInformation.setBuildNumber(this.buildNumber);
+        buildInformation.setPackagesHash(this.packages.getPackagesHash());
+        buildInformation.setDotNetVersion(this.commandLine.getDotNetVersion());
+        buildInformation.setFiles(this.getManifest());
+        buildInformation.setOutputAssembly(this.commandLine.getOutputAssemblyPath());
+        buildInformation.setRuntimeConfig(this.commandLine.getRuntimeConfigPath());
+        buildInformation.setTargetFramework(this.commandLine.getTargetFramework());
+        
+        // The published output belongs to the previous build output
+        buildInformation.setHotAssembly(null);
+        buildInformation.setHotRuntimeConfig(null);
+        buildInformation.setHotPublishFailed(false);
+        
+        this.buildInformationManager.setBuildInformation(buildInformation);
+        this.buildInformationManager.saveBuildInformation();
+    }
+
+}
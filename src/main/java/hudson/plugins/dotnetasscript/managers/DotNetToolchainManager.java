@@ -0,0 +1,196 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.EnvVars;
+import hudson.Launcher;
+import hudson.plugins.dotnetasscript.callables.DotNetFingerprintCallable;
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.general.DotNetToolchain;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.tools.EnvironmentTools;
+import hudson.remoting.VirtualChannel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the inventory of the DOTNET toolchain installed in every node,
+ * so the version probes are not launched on every build.
+ * @author Ariel.Lenis
+ */
+public class DotNetToolchainManager extends ManagerBase {
+    private static final ConcurrentMap<String, DotNetToolchain> INVENTORY = new ConcurrentHashMap<>();
+
+    private final Launcher launcher;
+    private final EnvVars env;
+    private final String nodeName;
+
+    /**
+     * The toolchain manager constructor
+     * @param logger
+     * @param launcher
+     * @param env
+     * @param nodeName the node name, empty for the master node
+     */
+    public DotNetToolchainManager(PrintStream logger, Launcher launcher, EnvVars env, String nodeName) {
+        super(logger);
+
+        this.launcher = launcher;
+        this.env = EnvironmentTools.withFastStart(env);
+        this.nodeName = nodeName == null ? "" : nodeName;
+    }
+
+    /**
+     * Removes the cached toolchain of the target node
+     * @param nodeName
+     */
+    public static void invalidate(String nodeName) {
+        INVENTORY.remove(nodeName == null ? "" : nodeName);
+    }
+
+    private String getDotNetExecutable() {
+        return "dotnet";
+    }
+
+    /**
+     * Gets the toolchain of the current node, it will be discovered again only
+     * when the dotnet installation changed since the last discovery
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException
+     */
+    public DotNetToolchain getToolchain() throws IOException, InterruptedException, DotNetCommandLineException {
+        String fingerprint = this.getFingerprint();
+        DotNetToolchain toolchain = INVENTORY.get(this.nodeName);
+
+        if (toolchain != null && toolchain.matches(fingerprint)) {
+            return toolchain;
+        }
+
+        return this.discover(fingerprint);
+    }
+
+    /**
+     * Discovers the toolchain of the current node and stores it in the inventory
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException
+     */
+    public DotNetToolchain refresh() throws IOException, InterruptedException, DotNetCommandLineException {
+        return this.discover(this.getFingerprint());
+    }
+
+    private String getFingerprint() throws IOException, InterruptedException {
+        VirtualChannel channel = this.launcher.getChannel();
+        if (channel == null) {
+            return null;
+        }
+        return channel.call(new DotNetFingerprintCallable(this.env.get("PATH"), this.env.get("DOTNET_ROOT")));
+    }
+
+    private DotNetToolchain discover(String fingerprint) throws IOException, InterruptedException, DotNetCommandLineException {
+        if (fingerprint == null) {
+            throw new DotNetCommandLineException("The dotnet executable was not found in the node.");
+        }
+
+        this.prettyLog("Discovering the dotnet toolchain.");
+
+        String defaultSdk = this.executeForOutput("--version");
+        List<String> runtimes = this.parseList(this.executeForOutput("--list-runtimes"));
+
+        if (defaultSdk == null && runtimes.isEmpty()) {
+            throw new DotNetCommandLineException("Error trying to get the dotnet version");
+        }
+
+        List<String> sdks = defaultSdk == null ? new ArrayList<String>() : this.parseList(this.executeForOutput("--list-sdks"));
+
+        DotNetToolchain toolchain = new DotNetToolchain(defaultSdk == null ? null : defaultSdk.trim(), sdks, runtimes, fingerprint);
+        INVENTORY.put(this.nodeName, toolchain);
+
+        if (toolchain.hasSdk()) {
+            this.prettyLog("The dotnet toolchain uses the SDK " + toolchain.getDefaultSdk() + ".");
+        } else {
+            this.prettyLog("The dotnet toolchain has only the runtime, it can run the compiled scripts but not build them.");
+        }
+
+        return toolchain;
+    }
+
+    /**
+     * Parses the output of the list commands, removing the installation paths
+     * @param output
+     * @return
+     */
+    private List<String> parseList(String output) {
+        List<String> result = new ArrayList<>();
+
+        if (output == null) {
+            return result;
+        }
+
+        for (String line : output.split("\\r?\\n")) {
+            int pathStart = line.indexOf(" [");
+            String item = pathStart >= 0 ? line.substring(0, pathStart) : line;
+            item = item.trim();
+            if (!item.isEmpty()) {
+                result.add(item);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Executes a dotnet informational command
+     * @param argument
+     * @return the command output or null if the command failed
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    private String executeForOutput(String argument) throws IOException, InterruptedException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        List<String> args = Arrays.asList(this.getDotNetExecutable(), argument);
+
+        int result = this.launcher
+                        .launch()
+                        .cmds(args)
+                        .envs(this.env)
+                        .stdout(baos)
+                        .join();
+
+        if (result != 0) {
+            return null;
+        }
+
+        return baos.toString(ProjectConstants.ENCODING);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.EnvVars;
+import hudson.model.TaskListener;
+import hudson.plugins.dotnetasscript.callables.ExecutionHostCallable;
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.general.NodeFile;
+import hudson.plugins.dotnetasscript.general.ServiceEndpoint;
+import hudson.remoting.VirtualChannel;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Runs the compiled scripts through the execution host of the node,
+ * the caller must fall back to the command line when the host cannot be used.
+ * @author Ariel.Lenis
+ */
+public class ExecutionHostManager extends ManagerBase {
+    /**
+     * The execution host service name
+     */
+    public static final String SERVICE_NAME = "executionhost";
+
+    /**
+     * The execution host source file
+     */
+    public static final String SERVICE_SOURCE = "ExecutionHost.cs";
+
+    private final AgentServiceManager service;
+    private final VirtualChannel channel;
+    private final TaskListener listener;
+    private final EnvVars env;
+    private final String targetFramework;
+
+    /**
+     * The execution host manager constructor
+     * @param logger
+     * @param service
+     * @param channel
+     * @param listener
+     * @param env the environment for the scripts
+     * @param targetFramework the target framework of the scripts
+     */
+    public ExecutionHostManager(PrintStream logger, AgentServiceManager service, VirtualChannel channel, TaskListener listener, EnvVars env, String targetFramework) {
+        super(logger);
+
+        this.service = service;
+        this.channel = channel;
+        this.listener = listener;
+        this.env = env;
+        this.targetFramework = targetFramework;
+    }
+
+    /**
+     * Runs the compiled assembly inside the execution host
+     * @param assembly
+     * @param workingDirectory
+     * @param results the result channel of the script
+     * @return false if the execution host cannot be used
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetCommandLineException when the script fails
+     */
+    public boolean run(NodeFile assembly, NodeFile workingDirectory, ResultChannelManager results) throws IOException, InterruptedException, DotNetCommandLineException {
+        if (!this.targetFramework.startsWith("net") || this.targetFramework.startsWith("netcoreapp")) {
+            return false;
+        }
+
+        ServiceEndpoint endpoint;
+        try {
+            endpoint = this.service.getEndpoint();
+        } catch (DotNetCommandLineException | IOException error) {
+            this.prettyLog("The execution host is not available: " + error.getMessage());
+            return false;
+        }
+
+        // json-lib would turn the values that look like JSON or null into other types
+        JSONObject environment = new JSONObject();
+        for (Map.Entry<String, String> variable : this.env.entrySet()) {
+            environment.put(variable.getKey(), variable.getValue());
+        }
+        for (Map.Entry<String, String> variable : results.getScriptVariables().entrySet()) {
+            environment.put(variable.getKey(), variable.getValue());
+        }
+
+        JSONObject request = new JSONObject();
+        request.put("assembly", assembly.getFilePath().getRemote());
+        request.put("workingDirectory", workingDirectory.getFilePath().getRemote());
+        request.put("resultFile", results.getResultFile().getFilePath().getRemote());
+        request.put("arguments", new JSONArray());
+        request.put("environment", environment);
+
+        Integer exitCode = this.channel.call(new ExecutionHostCallable(endpoint, request.toString(), this.listener));
+
+        if (exitCode == null) {
+            this.prettyLog("The execution host is recycling.");
+            return false;
+        }
+
+        if (exitCode != 0) {
+            throw new DotNetCommandLineException("Error at run step.", exitCode);
+        }
+
+        return true;
+    }
+}
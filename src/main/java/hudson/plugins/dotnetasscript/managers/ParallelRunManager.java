@@ -0,0 +1,264 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.EnvVars;
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.exceptions.DotNetPluginException;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.general.ScriptStepResult;
+import hudson.plugins.dotnetasscript.general.ScriptTask;
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Runs many tasks at the same time in the node of the build, every task writes its log
+ * as one section of the build log and the results are merged in the order of the tasks.
+ * @author Ariel.Lenis
+ */
+public class ParallelRunManager extends ManagerBase {
+
+    /**
+     * The result of the last task in the list wins
+     */
+    public static final String CONFLICT_LAST = "last";
+
+    /**
+     * The result of the first task in the list wins
+     */
+    public static final String CONFLICT_FIRST = "first";
+
+    /**
+     * The run fails when two tasks save different values for the same result
+     */
+    public static final String CONFLICT_FAIL = "fail";
+
+    private final ScriptRunner runner;
+    private final ScriptSourcesManager scriptSources;
+    private final ScriptCompilationManager compilation;
+
+    /**
+     * The parallel run manager constructor
+     * @param logger
+     * @param runner runs every task
+     * @param scriptSources
+     * @param compilation compiles the scripts of the tasks before they run
+     */
+    public ParallelRunManager(PrintStream logger, ScriptRunner runner, ScriptSourcesManager scriptSources, ScriptCompilationManager compilation) {
+        super(logger);
+
+        this.runner = runner;
+        this.scriptSources = scriptSources;
+        this.compilation = compilation;
+    }
+
+    /**
+     * Runs the tasks at the same time in a pool sized from the processors of the node, every distinct
+     * script is compiled once before. The output of every task is written as one section of the build log
+     * when the task finishes and the results are merged in the order of the tasks.
+     * @param tasks
+     * @param targetPackagesJson
+     * @param env the environment of the build
+     * @param maxConcurrency the tasks that run at the same time, zero to use the processors of the node
+     * @param conflictPolicy how a result saved by many tasks with different values is merged
+     * @param variables the map that receives the variables saved by the scripts
+     * @param values the map that receives the typed values saved by the scripts
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException
+     */
+    public void run(final List<ScriptTask> tasks, final String targetPackagesJson, final EnvVars env, int maxConcurrency, String conflictPolicy, Map<String, String> variables, Map<String, Object> values) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        Set<String> targetCodes = new HashSet<>();
+
+        for (ScriptTask task : tasks) {
+            if (targetCodes.add(task.getTargetCode())) {
+                // The packages of every script are the ones its task compiles with, so the task finds it in the cache
+                DotNetPackagesManager dotNetPackages = new DotNetPackagesManager(this.logger, targetPackagesJson);
+                this.scriptSources.addImplicitPackages(dotNetPackages, Arrays.asList(task.getTargetCode()));
+                this.compilation.getCompiledScript(dotNetPackages, this.scriptSources.getSources(task.getTargetCode()));
+            }
+        }
+
+        int workers = maxConcurrency > 0 ? maxConcurrency : this.compilation.getNodeProcessors();
+        workers = Math.max(1, Math.min(workers, tasks.size()));
+        this.log("#### Running " + tasks.size() + " tasks of " + targetCodes.size() + " scripts with " + workers + " workers.");
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<ScriptStepResult>> futures = new ArrayList<>();
+        List<ScriptStepResult> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                final int index = i;
+                futures.add(pool.submit(new Callable<ScriptStepResult>() {
+                    @Override
+                    public ScriptStepResult call() throws Exception {
+                        return runTask(tasks.get(index), index, tasks.size(), targetPackagesJson, env);
+                    }
+                }));
+            }
+
+            for (Future<ScriptStepResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException error) {
+                    throw new DotNetPluginException("Error running the parallel tasks.", error);
+                }
+            }
+        } finally {
+            // The running tasks are interrupted when the build is aborted
+            pool.shutdownNow();
+        }
+
+        this.mergeTaskResults(tasks, results, conflictPolicy, variables, values);
+    }
+
+    /**
+     * Runs one task of a parallel run with its own log and writes the log as one section of the build log
+     * @param task
+     * @param index
+     * @param count
+     * @param targetPackagesJson
+     * @param env
+     * @return the results of the task, with the error if the task failed
+     * @throws IOException
+     */
+    private ScriptStepResult runTask(ScriptTask task, int index, int count, String targetPackagesJson, EnvVars env) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        StreamTaskListener taskListener = new StreamTaskListener(output, Charset.forName(ProjectConstants.ENCODING));
+
+        EnvVars taskEnv = new EnvVars(env);
+        taskEnv.put(ProjectConstants.TASK_INDEX_VARIABLE, String.valueOf(index));
+        taskEnv.put(ProjectConstants.TASK_COUNT_VARIABLE, String.valueOf(count));
+        if (task.getShard() != null) {
+            taskEnv.put(ProjectConstants.SHARD_VARIABLE, task.getShard());
+        }
+
+        Map<String, String> taskVariables = new LinkedHashMap<>();
+        Map<String, Object> taskValues = new LinkedHashMap<>();
+        Exception taskError = null;
+
+        try {
+            this.runner.runStep(task.getTargetCode(), targetPackagesJson, taskEnv, taskListener, taskVariables, taskValues);
+        } catch (Exception error) {
+            error.printStackTrace(taskListener.getLogger());
+            taskError = error;
+        }
+
+        taskListener.getLogger().flush();
+
+        synchronized (this.logger) {
+            this.log("##### Task " + (index + 1) + " of " + count + ": " + task.getName());
+            output.writeTo(this.logger);
+            this.log("##### End of task " + (index + 1) + (taskError == null ? "" : ", it failed"));
+        }
+
+        return new ScriptStepResult(taskVariables, taskValues, taskError);
+    }
+
+    /**
+     * Merges the results of the tasks in the order of the tasks, so the merged result doesn't depend
+     * on the order the tasks finished
+     * @param tasks
+     * @param results
+     * @param conflictPolicy
+     * @param variables
+     * @param values
+     * @throws DotNetPluginException
+     */
+    private void mergeTaskResults(List<ScriptTask> tasks, List<ScriptStepResult> results, String conflictPolicy, Map<String, String> variables, Map<String, Object> values) throws DotNetPluginException {
+        Map<String, Integer> variableOwners = new HashMap<>();
+        Map<String, Integer> valueOwners = new HashMap<>();
+        List<String> conflicts = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+
+        for (int i = 0; i < results.size(); i++) {
+            ScriptStepResult result = results.get(i);
+            this.mergeTaskResult(tasks, i, result.getVariables(), variables, variableOwners, conflictPolicy, conflicts);
+            this.mergeTaskResult(tasks, i, result.getValues(), values, valueOwners, conflictPolicy, conflicts);
+
+            if (result.getError() != null) {
+                failed.add(tasks.get(i).getName());
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            throw new DotNetPluginException(failed.size() + " of " + tasks.size() + " tasks failed: " + StringUtils.join(failed, ", "));
+        }
+
+        if (!conflicts.isEmpty() && CONFLICT_FAIL.equals(conflictPolicy)) {
+            throw new DotNetPluginException("The tasks saved different values for the same results: " + StringUtils.join(conflicts, ", "));
+        }
+    }
+
+    /**
+     * Merges one result map of a task
+     * @param <T>
+     * @param tasks
+     * @param index the position of the task
+     * @param source the results of the task
+     * @param target the merged results
+     * @param owners the position of the task that saved every merged result
+     * @param conflictPolicy
+     * @param conflicts receives the names of the results in conflict
+     */
+    private <T> void mergeTaskResult(List<ScriptTask> tasks, int index, Map<String, T> source, Map<String, T> target, Map<String, Integer> owners, String conflictPolicy, List<String> conflicts) {
+        for (Map.Entry<String, T> entry : source.entrySet()) {
+            Integer owner = owners.get(entry.getKey());
+
+            if (owner != null && !Objects.equals(target.get(entry.getKey()), entry.getValue())) {
+                conflicts.add(entry.getKey());
+                this.log("#### " + entry.getKey() + " was saved by " + tasks.get(owner).getName() + " and " + tasks.get(index).getName() + " with different values.");
+
+                if (CONFLICT_FIRST.equals(conflictPolicy)) {
+                    continue;
+                }
+            }
+
+            target.put(entry.getKey(), entry.getValue());
+            owners.put(entry.getKey(), index);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.plugins.dotnetasscript.callables.ResultTailCallable;
+import hudson.plugins.dotnetasscript.general.NodeFile;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.tools.JsonTools;
+import hudson.plugins.dotnetasscript.tools.ResultFrameReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.sf.json.JSONException;
+
+/**
+ * Consumes the result channel of a script while it runs,
+ * every line of the channel is a JSON frame with a type.
+ * @author Ariel.Lenis
+ */
+public class ResultChannelManager extends ManagerBase {
+    private final NodeFile resultFile;
+    private final Map<String, String> savedEnvironment;
+    private final Map<String, Object> savedValues;
+    private final Map<String, String> frame = new HashMap<>();
+    private final Map<Integer, Integer> stepResults = new LinkedHashMap<>();
+    private DataExchangeManager dataExchange;
+    private long offset;
+    private int received;
+    private boolean ended;
+
+    /**
+     * The result channel manager constructor
+     * @param logger
+     * @param resultFile 
+     * @param savedEnvironment the map that receives the saved variables as they arrive
+     * @param savedValues the map that receives the saved typed values, null to ignore them
+     */
+    public ResultChannelManager(PrintStream logger, NodeFile resultFile, Map<String, String> savedEnvironment, Map<String, Object> savedValues) {
+        super(logger);
+        this.resultFile = resultFile;
+        this.savedEnvironment = savedEnvironment;
+        this.savedValues = savedValues;
+    }
+
+    /**
+     * @return the file of the result channel
+     */
+    public NodeFile getResultFile() {
+        return this.resultFile;
+    }
+
+    /**
+     * Sets the data files exchanged with the script, they are prepared and collected with the channel
+     * @param dataExchange the data exchange, null if the script exchanges no data
+     */
+    public void setDataExchange(DataExchangeManager dataExchange) {
+        this.dataExchange = dataExchange;
+    }
+
+    /**
+     * @return the environment variables that tell the script where its channel and its data files are
+     */
+    public Map<String, String> getScriptVariables() {
+        Map<String, String> variables = new LinkedHashMap<>();
+        variables.put(ProjectConstants.RESULT_FILE_VARIABLE, this.resultFile.getFilePath().getRemote());
+
+        if (this.dataExchange != null) {
+            variables.putAll(this.dataExchange.getVariables());
+        }
+        return variables;
+    }
+
+    /**
+     * Removes the results of a previous run, so they cannot be taken as the current ones
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public void reset() throws IOException, InterruptedException {
+        if (this.resultFile.exists()) {
+            this.resultFile.delete();
+        }
+        this.offset = 0;
+        this.received = 0;
+        this.ended = false;
+        this.stepResults.clear();
+
+        if (this.dataExchange != null) {
+            this.dataExchange.prepare();
+        }
+    }
+
+    /**
+     * Reads the frames written since the last poll
+     * @return true if the script wrote to the channel since the last poll
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public boolean poll() throws IOException, InterruptedException {
+        byte[] content = this.resultFile.getFilePath().act(new ResultTailCallable(this.offset));
+        if (content.length == 0) {
+            return false;
+        }
+
+        this.offset += content.length;
+
+        ResultFrameReader reader = new ResultFrameReader(new InputStreamReader(new ByteArrayInputStream(content), ProjectConstants.ENCODING));
+        while (true) {
+            try {
+                if (!reader.readFrame(this.frame)) {
+                    break;
+                }
+            } catch (IOException error) {
+                this.prettyLog("Invalid result frame: " + error.getMessage());
+                continue;
+            }
+            this.processFrame();
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads the last frames once the script finished and removes the channel,
+     * the data saved by the script is collected
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public void finish() throws IOException, InterruptedException {
+        this.poll();
+        this.resultFile.delete();
+
+        if (!this.ended) {
+            this.prettyLog("The script finished without closing its result channel, only the results received are published.");
+        }
+
+        if (this.dataExchange != null) {
+            this.dataExchange.collect();
+        }
+    }
+
+    /**
+     * @return the number of variables received in the current run
+     */
+    public int getReceivedCount() {
+        return this.received;
+    }
+
+    /**
+     * @return the exit code of every step by its position in the batch, starting at one,
+     * empty if the script did not run as a batch
+     */
+    public Map<Integer, Integer> getStepResults() {
+        return this.stepResults;
+    }
+
+    /**
+     * Applies the last frame read from the channel
+     */
+    private void processFrame() {
+        String type = this.frame.get("type");
+
+        if ("env".equals(type)) {
+            String key = this.frame.get("key");
+            String value = this.frame.get("value");
+            if (key == null || value == null) {
+                this.prettyLog("Result frame without key or value.");
+                return;
+            }
+            synchronized (this.savedEnvironment) {
+                this.savedEnvironment.put(key, value);
+            }
+            this.received++;
+        } else if ("value".equals(type)) {
+            String key = this.frame.get("key");
+            String value = this.frame.get("value");
+            if (key == null || value == null) {
+                this.prettyLog("Result frame without key or value.");
+                return;
+            }
+            if (this.savedValues != null) {
+                try {
+                    this.savedValues.put(key, JsonTools.jsonToValue(value));
+                } catch (JSONException error) {
+                    this.prettyLog("Invalid value for " + key + ": " + error.getMessage());
+                }
+            }
+        } else if ("step".equals(type)) {
+            try {
+                this.stepResults.put(Integer.parseInt(this.frame.get("index")), Integer.parseInt(this.frame.get("exit")));
+            } catch (NumberFormatException error) {
+                this.prettyLog("Invalid step result frame.");
+            }
+        } else if ("end".equals(type)) {
+            this.ended = true;
+        } else {
+            this.prettyLog("Unknown result frame type: " + type);
+        }
+    }
+}
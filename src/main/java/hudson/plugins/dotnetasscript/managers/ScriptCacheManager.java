@@ -0,0 +1,293 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.plugins.dotnetasscript.callables.CacheIndexCallable;
+import hudson.plugins.dotnetasscript.callables.CacheLockCallable;
+import hudson.plugins.dotnetasscript.callables.CacheMaintenanceCallable;
+import hudson.plugins.dotnetasscript.general.NodeFile;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.tools.JsonTools;
+import hudson.plugins.dotnetasscript.tools.SourceFingerprint;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Node wide cache of compiled scripts, every entry is addressed by all the inputs
+ * of the build and it is never modified once published.
+ * The entries are sharded by the first two characters of the key.
+ * @author Ariel.Lenis
+ */
+public class ScriptCacheManager extends ManagerBase {
+    private static final long LOCK_TIMEOUT_MILLIS = 30L * 60 * 1000;
+    private final NodeFile cacheRoot;
+
+    /**
+     * The script cache manager constructor
+     * @param logger
+     * @param cacheRoot the cache folder of the node
+     */
+    public ScriptCacheManager(PrintStream logger, NodeFile cacheRoot) {
+        super(logger);
+        this.cacheRoot = cacheRoot;
+    }
+
+    /**
+     * Gets the key that identifies a compiled script
+     * @param sources the project source files by file name, including the harness files
+     * @param packages the packages requested by the script
+     * @param platform the SDK version, or the target framework when the compiled script is shared between nodes
+     * @return
+     * @throws NoSuchAlgorithmException
+     * @throws UnsupportedEncodingException 
+     */
+    public static String getCacheKey(Map<String, String> sources, Map<String, String> packages, String platform) throws NoSuchAlgorithmException, UnsupportedEncodingException {
+        SourceFingerprint fingerprint = new SourceFingerprint();
+        fingerprint.addText("harness", ProjectConstants.HARNESS_VERSION);
+        fingerprint.addText("platform", platform);
+        fingerprint.addText("packages", JsonTools.stringMapToJson(packages));
+
+        for (Map.Entry<String, String> source : new TreeMap<>(sources).entrySet()) {
+            if (source.getKey().endsWith(".cs")) {
+                fingerprint.addSource(source.getKey(), source.getValue());
+            } else {
+                fingerprint.addText(source.getKey(), source.getValue());
+            }
+        }
+
+        return fingerprint.getKey();
+    }
+
+    /**
+     * Gets the folder of a cache entry, it may not exist
+     * @param key
+     * @return 
+     */
+    public NodeFile getEntry(String key) {
+        NodeFile shard = new NodeFile(this.cacheRoot, key.substring(0, 2));
+        return new NodeFile(shard, key);
+    }
+
+    /**
+     * Determines if the entry was completely published
+     * @param entry
+     * @return
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public boolean isPublished(NodeFile entry) throws IOException, InterruptedException {
+        NodeFile projectFolder = new NodeFile(entry, ProjectConstants.PROJECT_FOLDER_NAME);
+        return new NodeFile(projectFolder, ProjectConstants.BUILD_INFORMATION_FILE).exists();
+    }
+
+    /**
+     * Creates a private folder where a new entry is built before it is published
+     * @param key
+     * @param buildNumber
+     * @return
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public NodeFile createStaging(String key, int buildNumber) throws IOException, InterruptedException {
+        NodeFile stagingRoot = new NodeFile(this.cacheRoot, ProjectConstants.CACHE_STAGING_FOLDER_NAME);
+        NodeFile staging = new NodeFile(stagingRoot, String.format("%s.%d.%x", key, buildNumber, System.nanoTime()));
+        staging.mkdir();
+        return staging;
+    }
+
+    /**
+     * Publishes a built entry with a single rename, so an entry is either complete or absent.
+     * The entry is recorded in the index with its size, so it counts for the budget before its first use.
+     * @param staging
+     * @param entry
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public void publish(NodeFile staging, NodeFile entry) throws IOException, InterruptedException {
+        entry.getFilePath().getParent().mkdirs();
+
+        if (entry.exists() && !this.isPublished(entry)) {
+            this.prettyLog("Removing an incomplete cache entry.");
+            entry.getFilePath().deleteRecursive();
+        }
+
+        try {
+            staging.getFilePath().renameTo(entry.getFilePath());
+        } catch (IOException error) {
+            if (!this.isPublished(entry)) {
+                throw error;
+            }
+            this.prettyLog("The cache entry was published by another build.");
+            this.discard(staging);
+        }
+
+        this.record(entry.getFilePath().getName());
+    }
+
+    /**
+     * Measures an entry again and records its size in the index,
+     * a failure is logged because it only affects the eviction
+     * @param key
+     * @throws InterruptedException 
+     */
+    public void record(String key) throws InterruptedException {
+        try {
+            this.cacheRoot.getFilePath().act(CacheIndexCallable.record(key));
+        } catch (IOException error) {
+            this.prettyLog("The node cache index cannot be updated: " + error.getMessage());
+        }
+    }
+
+    /**
+     * Gets the times the builds of the node used an entry, a failure is logged
+     * and counts as no use because it only delays the hot script
+     * @param key
+     * @return
+     * @throws InterruptedException 
+     */
+    public long getHits(String key) throws InterruptedException {
+        try {
+            return this.cacheRoot.getFilePath().act(CacheIndexCallable.hits(key));
+        } catch (IOException error) {
+            this.prettyLog("The node cache index cannot be read: " + error.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Removes a staging folder that will not be published
+     * @param staging
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public void discard(NodeFile staging) throws IOException, InterruptedException {
+        staging.getFilePath().deleteRecursive();
+    }
+
+    /**
+     * Pins an entry, so it is not evicted while the build uses it
+     * @param key
+     * @param buildNumber
+     * @return the pin to release with {@link #release}
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public String pin(String key, int buildNumber) throws IOException, InterruptedException {
+        String pin = String.format("%d.%x", buildNumber, System.nanoTime());
+        NodeFile pins = new NodeFile(this.cacheRoot, ProjectConstants.CACHE_PINS_FOLDER_NAME);
+        pins.mkdir();
+        new NodeFile(pins, key + "." + pin).getFilePath().touch(System.currentTimeMillis());
+        return pin;
+    }
+
+    /**
+     * Removes a pin without recording the use of the entry, for the entries that the build didn't use
+     * @param key
+     * @param pin
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public void unpin(String key, String pin) throws IOException, InterruptedException {
+        NodeFile pins = new NodeFile(this.cacheRoot, ProjectConstants.CACHE_PINS_FOLDER_NAME);
+        new NodeFile(pins, key + "." + pin).delete();
+    }
+
+    /**
+     * Releases the pin of the build, records the use of the entry and evicts
+     * the least recently used entries when the cache is over its budget
+     * @param key
+     * @param pin
+     * @param maxBytes
+     * @param maxAgeMillis 
+     * @throws InterruptedException 
+     */
+    public void release(String key, String pin, long maxBytes, long maxAgeMillis) throws InterruptedException {
+        try {
+            int evicted = this.cacheRoot.getFilePath().act(new CacheMaintenanceCallable(key, pin, maxBytes, maxAgeMillis));
+            if (evicted > 0) {
+                this.prettyLog(evicted + " entries were evicted from the node cache.");
+            }
+        } catch (IOException error) {
+            this.prettyLog("The node cache maintenance failed: " + error.getMessage());
+        }
+    }
+
+    /**
+     * Locks an entry before building it, so only one build of the node compiles it
+     * and the others wait for the result
+     * @param key
+     * @param buildNumber
+     * @return the lock to release with {@link #unlock}, null if the lock was not acquired in time
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public String lock(String key, int buildNumber) throws IOException, InterruptedException {
+        String token = String.format("%s.%d.%x", key, buildNumber, System.nanoTime());
+        NodeFile locks = new NodeFile(this.cacheRoot, ProjectConstants.CACHE_LOCKS_FOLDER_NAME);
+
+        if (!locks.getFilePath().act(CacheLockCallable.acquire(key, token, 0))) {
+            this.prettyLog("Waiting for another build that compiles the same script.");
+            if (!locks.getFilePath().act(CacheLockCallable.acquire(key, token, LOCK_TIMEOUT_MILLIS))) {
+                this.prettyLog("The other build is taking too long, the script is compiled again.");
+                return null;
+            }
+        }
+
+        return token;
+    }
+
+    /**
+     * Locks an entry only when no other build holds it, for the work that can be left to a later build
+     * @param key
+     * @param buildNumber
+     * @return the lock to release with {@link #unlock}, null if other build holds it
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public String tryLock(String key, int buildNumber) throws IOException, InterruptedException {
+        String token = String.format("%s.%d.%x", key, buildNumber, System.nanoTime());
+        NodeFile locks = new NodeFile(this.cacheRoot, ProjectConstants.CACHE_LOCKS_FOLDER_NAME);
+
+        return locks.getFilePath().act(CacheLockCallable.acquire(key, token, 0)) ? token : null;
+    }
+
+    /**
+     * Releases a lock acquired with {@link #lock} or {@link #tryLock}
+     * @param token the lock, it can be null
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public void unlock(String token) throws IOException, InterruptedException {
+        if (token == null) {
+            return;
+        }
+
+        NodeFile locks = new NodeFile(this.cacheRoot, ProjectConstants.CACHE_LOCKS_FOLDER_NAME);
+        locks.getFilePath().act(CacheLockCallable.release(token));
+    }
+}
@@ -0,0 +1,583 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.TaskListener;
+import hudson.plugins.dotnetasscript.cache.BuildCacheBackend;
+import hudson.plugins.dotnetasscript.callables.ProcessorCountCallable;
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.exceptions.DotNetPluginException;
+import hudson.plugins.dotnetasscript.exceptions.DotNetProjectManagerException;
+import hudson.plugins.dotnetasscript.general.DotNetToolchain;
+import hudson.plugins.dotnetasscript.general.NodeFile;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.general.RunnerSettings;
+import hudson.plugins.dotnetasscript.tools.ResourceTools;
+import hudson.remoting.VirtualChannel;
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Gets the compiled scripts of a node, from the node cache, from the shared store
+ * or compiling them, and creates the managers that run them.
+ * The cache entries are locked while they are compiled and pinned while they are used.
+ * @author Ariel.Lenis
+ */
+public class ScriptCompilationManager extends ManagerBase {
+    private static final long MEGABYTE = 1024L * 1024;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final String RESOURCES_FOLDER = "hudson/plugins/dotnetasscript/resources/";
+
+    private final FilePath nodeRoot;
+    private final int buildNumber;
+    private final Launcher launcher;
+    private final TaskListener listener;
+    private final RunnerSettings settings;
+    private final EnvVars env;
+    private final DotNetToolchain toolchain;
+    private final ScriptCacheManager scriptCache;
+    private final ScriptStoreManager scriptStore;
+
+    /**
+     * The script compilation manager constructor
+     * @param logger
+     * @param nodeRoot the root folder of the node
+     * @param buildNumber
+     * @param launcher
+     * @param listener
+     * @param settings
+     * @param backend the shared store of the compiled scripts, null if they are not shared between nodes
+     * @param env the environment of the build
+     * @param toolchain the toolchain of the node
+     * @throws DotNetPluginException when the node is not available
+     */
+    public ScriptCompilationManager(PrintStream logger, FilePath nodeRoot, int buildNumber, Launcher launcher, TaskListener listener, RunnerSettings settings, BuildCacheBackend backend, EnvVars env, DotNetToolchain toolchain) throws DotNetPluginException {
+        super(logger);
+
+        this.nodeRoot = nodeRoot;
+        this.buildNumber = buildNumber;
+        this.launcher = launcher;
+        this.listener = listener;
+        this.settings = settings;
+        this.env = env;
+        this.toolchain = toolchain;
+        this.scriptCache = new ScriptCacheManager(logger, this.getNodeFolder(ProjectConstants.NODE_CACHE_FOLDER_NAME));
+        this.scriptStore = backend == null ? null : new ScriptStoreManager(logger, backend);
+    }
+
+    /**
+     * @return the toolchain of the node
+     */
+    public DotNetToolchain getToolchain() {
+        return this.toolchain;
+    }
+
+    /**
+     * Gets a folder inside the root folder of the node where the build runs
+     * @param name
+     * @return
+     * @throws DotNetPluginException
+     */
+    private NodeFile getNodeFolder(String name) throws DotNetPluginException {
+        if (this.nodeRoot == null) {
+            throw new DotNetPluginException("The node of the build is not available.");
+        }
+
+        return new NodeFile(new NodeFile(this.nodeRoot), name);
+    }
+
+    /**
+     * Gets the platforms that identify the compiled scripts this node can run, the first one
+     * is the platform of the scripts compiled by this node when it has a SDK
+     * @return
+     */
+    private List<String> getPlatforms() {
+        boolean shared = this.scriptStore != null;
+        List<String> platforms = new ArrayList<>();
+
+        if (this.toolchain.hasSdk()) {
+            platforms.add(shared ? "tfm " + this.toolchain.getTargetFramework() : "sdk " + this.toolchain.getDefaultSdk());
+        }
+
+        if (shared) {
+            for (String targetFramework : this.toolchain.getRuntimeTargetFrameworks()) {
+                String platform = "tfm " + targetFramework;
+                if (!platforms.contains(platform)) {
+                    platforms.add(platform);
+                }
+            }
+        }
+
+        return platforms;
+    }
+
+    /**
+     * Pins every entry that can hold the compiled script before the lookup,
+     * so the maintenance of other build cannot evict it in between
+     * @param sources
+     * @param dotNetPackages
+     * @return the pin of every candidate key, to release with {@link #release}
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     */
+    public Map<String, String> pin(Map<String, String> sources, DotNetPackagesManager dotNetPackages) throws IOException, InterruptedException, NoSuchAlgorithmException {
+        Map<String, String> pins = new LinkedHashMap<>();
+        boolean hotScripts = this.settings.getHotScripts() && this.toolchain.hasSdk();
+        for (String platform : this.getPlatforms()) {
+            String key = ScriptCacheManager.getCacheKey(sources, dotNetPackages.getPackagesMap(), platform);
+            pins.put(key, this.scriptCache.pin(key, this.buildNumber));
+
+            // The ReadyToRun output of the script is its own entry
+            if (hotScripts) {
+                String hotKey = key + ProjectConstants.HOT_SCRIPT_KEY_SUFFIX;
+                pins.put(hotKey, this.scriptCache.pin(hotKey, this.buildNumber));
+            }
+        }
+        return pins;
+    }
+
+    /**
+     * Releases the pins taken with {@link #pin}, the use of the entry that ran is recorded
+     * and the cache is kept in its budget
+     * @param pins
+     * @param usedKey the key of the entry that ran, null if none ran
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void release(Map<String, String> pins, String usedKey) throws IOException, InterruptedException {
+        for (Map.Entry<String, String> pin : pins.entrySet()) {
+            boolean used = pin.getKey().equals(usedKey)
+                    || (pin.getKey().equals(usedKey + ProjectConstants.HOT_SCRIPT_KEY_SUFFIX) && this.scriptCache.isPublished(this.scriptCache.getEntry(pin.getKey())));
+            if (used) {
+                this.scriptCache.release(pin.getKey(), pin.getValue(), this.settings.getCacheMaxSize() * MEGABYTE, this.settings.getCacheMaxAge() * DAY_MILLIS);
+            } else {
+                this.scriptCache.unpin(pin.getKey(), pin.getValue());
+            }
+        }
+    }
+
+    /**
+     * Finds the compiled script in the node cache or in the shared store
+     * @param platforms
+     * @param sources
+     * @param dotNetPackages
+     * @return the node cache entry or null if the script must be compiled
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     */
+    private NodeFile findCompiledScript(List<String> platforms, Map<String, String> sources, DotNetPackagesManager dotNetPackages) throws IOException, InterruptedException, NoSuchAlgorithmException {
+        for (String platform : platforms) {
+            String cacheKey = ScriptCacheManager.getCacheKey(sources, dotNetPackages.getPackagesMap(), platform);
+            NodeFile cacheEntry = this.scriptCache.getEntry(cacheKey);
+
+            if (this.scriptCache.isPublished(cacheEntry)) {
+                this.log("#### The script is in the node cache.");
+                return cacheEntry;
+            }
+
+            if (this.scriptStore != null && this.scriptStore.contains(cacheKey)) {
+                NodeFile staging = this.scriptCache.createStaging(cacheKey, this.buildNumber);
+                boolean published = false;
+                try {
+                    if (this.scriptStore.fetch(cacheKey, staging)) {
+                        this.scriptCache.publish(staging, cacheEntry);
+                        published = true;
+                        return cacheEntry;
+                    }
+                } catch (IOException error) {
+                    // A broken download or archive is compiled again, as a missing one
+                    this.log("#### The compiled script cannot be fetched: " + error.getMessage());
+                } finally {
+                    if (!published) {
+                        this.scriptCache.discard(staging);
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Compiles the script in a staging folder and publishes it to the node cache
+     * @param cacheKey
+     * @param cacheEntry
+     * @param dotNetPackages
+     * @param sources
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException
+     */
+    private void compileScript(String cacheKey, NodeFile cacheEntry, DotNetPackagesManager dotNetPackages, Map<String, String> sources) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        NodeFile staging = this.scriptCache.createStaging(cacheKey, this.buildNumber);
+        boolean published = false;
+
+        try {
+            DotNetProjectManager stagingManager = this.createProjectManager(staging, dotNetPackages, sources);
+
+            if (this.settings.getUseCompileService()) {
+                stagingManager.setCompileService(this.createCompileService());
+            }
+
+            try {
+                stagingManager.createProject();
+                stagingManager.buildProject();
+            } catch (DotNetCommandLineException error) {
+                throw new DotNetPluginException("Error running the project.", error);
+            }
+
+            this.scriptCache.publish(staging, cacheEntry);
+            published = true;
+        } finally {
+            // An interrupted or failed compilation doesn't leave its staging folder behind
+            if (!published) {
+                this.scriptCache.discard(staging);
+            }
+        }
+
+        if (this.scriptStore != null) {
+            this.scriptStore.store(cacheKey, cacheEntry);
+        }
+    }
+
+    /**
+     * Gets the compiled script from the node cache or the shared store, compiling it when it is not found
+     * @param dotNetPackages
+     * @param sources
+     * @return the node cache entry
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException
+     */
+    public NodeFile getCompiledScript(DotNetPackagesManager dotNetPackages, Map<String, String> sources) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        List<String> platforms = this.getPlatforms();
+        NodeFile cacheEntry = this.findCompiledScript(platforms, sources, dotNetPackages);
+
+        if (cacheEntry != null) {
+            return cacheEntry;
+        }
+
+        if (!this.toolchain.hasSdk()) {
+            throw new DotNetPluginException("The node has only the dotnet runtime and the script was not compiled by other node.");
+        }
+
+        this.log("#### The script is not in the node cache.");
+        String cacheKey = ScriptCacheManager.getCacheKey(sources, dotNetPackages.getPackagesMap(), platforms.get(0));
+        cacheEntry = this.scriptCache.getEntry(cacheKey);
+        String cacheLock = this.scriptCache.lock(cacheKey, this.buildNumber);
+
+        try {
+            if (this.scriptCache.isPublished(cacheEntry)) {
+                this.log("#### The script was compiled by another build.");
+            } else {
+                this.compileScript(cacheKey, cacheEntry, dotNetPackages, sources);
+            }
+        } finally {
+            this.scriptCache.unlock(cacheLock);
+        }
+
+        return cacheEntry;
+    }
+
+    /**
+     * Gets the project of the ReadyToRun output of a compiled script, the output is its own cache entry
+     * @param cacheKey the key of the compiled script
+     * @param dotNetPackages
+     * @param sources
+     * @return the project of the hot script entry, null if the script was not published
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException
+     */
+    public DotNetProjectManager getHotProject(String cacheKey, DotNetPackagesManager dotNetPackages, Map<String, String> sources) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        NodeFile hotEntry = this.scriptCache.getEntry(cacheKey + ProjectConstants.HOT_SCRIPT_KEY_SUFFIX);
+
+        if (!this.scriptCache.isPublished(hotEntry)) {
+            return null;
+        }
+
+        return this.createProjectManager(hotEntry, dotNetPackages, sources);
+    }
+
+    /**
+     * Starts the publish of the script with ReadyToRun code once it reached the execution threshold,
+     * the executions are the hits of the entry in the node cache index. The publish runs while
+     * the script runs and its log is written when it is awaited with {@link #awaitHotScript}.
+     * @param cacheKey the key of the compiled script
+     * @param projectManager the project manager of the compiled script
+     * @param dotNetPackages
+     * @param sources
+     * @return the log of the publish, null if the script is not due for a publish
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException
+     */
+    public Future<String> publishHotScript(final String cacheKey, DotNetProjectManager projectManager, final DotNetPackagesManager dotNetPackages, final Map<String, String> sources) throws IOException, InterruptedException, DotNetPluginException, DotNetCommandLineException {
+        final long executions = this.scriptCache.getHits(cacheKey);
+
+        if (this.scriptCache.isPublished(this.scriptCache.getEntry(cacheKey + ProjectConstants.HOT_SCRIPT_KEY_SUFFIX))
+                || !projectManager.isHotScriptDue(executions, this.settings.getHotScriptThreshold())) {
+            return null;
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final StreamTaskListener publishListener = new StreamTaskListener(output, Charset.forName(ProjectConstants.ENCODING));
+        final ScriptCompilationManager publishCompilation = new ScriptCompilationManager(publishListener.getLogger(), this.nodeRoot, this.buildNumber, this.launcher, publishListener, this.settings, null, this.env, this.toolchain);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    try {
+                        publishCompilation.publishHotEntry(cacheKey, executions, dotNetPackages, sources);
+                    } catch (IOException | NoSuchAlgorithmException | DotNetPluginException | DotNetCommandLineException | RuntimeException error) {
+                        error.printStackTrace(publishListener.getLogger());
+                    }
+                    publishListener.getLogger().flush();
+                    return output.toString(ProjectConstants.ENCODING);
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Waits for the publish started with {@link #publishHotScript} and writes its log, the processes
+     * of the publish must end with the build
+     * @param publish
+     * @throws InterruptedException
+     */
+    public void awaitHotScript(Future<String> publish) throws InterruptedException {
+        if (!publish.isDone()) {
+            this.log("#### Waiting for the ReadyToRun publish of the script.");
+        }
+
+        try {
+            String output = publish.get();
+            this.log("##### ReadyToRun publish");
+            this.logger.print(output);
+            this.log("##### End of the ReadyToRun publish");
+        } catch (ExecutionException error) {
+            this.log("#### The ReadyToRun publish failed: " + error.getCause());
+        } catch (InterruptedException error) {
+            publish.cancel(true);
+            throw error;
+        }
+    }
+
+    /**
+     * Publishes the ReadyToRun output of a compiled script as its own cache entry, the published
+     * entry of the script is never modified. The project is copied to a staging folder, published
+     * there and renamed into place. When other build publishes the same script the publish is left to it.
+     * @param cacheKey the key of the compiled script
+     * @param executions
+     * @param dotNetPackages
+     * @param sources
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException
+     */
+    private void publishHotEntry(String cacheKey, long executions, DotNetPackagesManager dotNetPackages, Map<String, String> sources) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        String hotKey = cacheKey + ProjectConstants.HOT_SCRIPT_KEY_SUFFIX;
+        NodeFile hotEntry = this.scriptCache.getEntry(hotKey);
+        String cacheLock = this.scriptCache.tryLock(hotKey, this.buildNumber);
+
+        if (cacheLock == null) {
+            this.log("#### Other build publishes the script with ReadyToRun.");
+            return;
+        }
+
+        try {
+            // Other build could publish it between the check and the lock
+            if (this.scriptCache.isPublished(hotEntry)) {
+                return;
+            }
+
+            this.prettyLog("The script ran " + executions + " times, publishing it with ReadyToRun.");
+            NodeFile staging = this.scriptCache.createStaging(hotKey, this.buildNumber);
+            boolean published = false;
+
+            try {
+                NodeFile compiledProject = new NodeFile(this.scriptCache.getEntry(cacheKey), ProjectConstants.PROJECT_FOLDER_NAME);
+                NodeFile stagingProject = new NodeFile(staging, ProjectConstants.PROJECT_FOLDER_NAME);
+                // The publish restores and builds again, the outputs of the compiled script are not needed
+                compiledProject.getFilePath().copyRecursiveTo("**/*", "bin/**,obj/**", stagingProject.getFilePath());
+
+                this.createProjectManager(staging, dotNetPackages, sources).publishHotScript();
+
+                this.scriptCache.publish(staging, hotEntry);
+                published = true;
+            } finally {
+                if (!published) {
+                    this.scriptCache.discard(staging);
+                }
+            }
+        } finally {
+            this.scriptCache.unlock(cacheLock);
+        }
+    }
+
+    /**
+     * Creates the project manager for a project folder of the script cache
+     * @param entryFolder the folder that contains the project folder
+     * @param dotNetPackages
+     * @param sources
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException
+     */
+    public DotNetProjectManager createProjectManager(NodeFile entryFolder, DotNetPackagesManager dotNetPackages, Map<String, String> sources) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException {
+        DotNetCommandLineManager dotNetCommandLine = new DotNetCommandLineManager(this.logger, this.launcher, this.env, this.listener, entryFolder, ProjectConstants.PROJECT_FOLDER_NAME, this.toolchain);
+
+        NodeFile currentProjectFolder = new NodeFile(entryFolder, ProjectConstants.PROJECT_FOLDER_NAME);
+        DotNetProjectManager projectManager = null;
+
+        try {
+            projectManager = new DotNetProjectManager(this.logger, this.buildNumber, dotNetCommandLine, dotNetPackages, currentProjectFolder);
+        } catch (DotNetProjectManagerException error) {
+            throw new DotNetPluginException("Error initalizing the dotnet project manager class", error);
+        }
+
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            projectManager.addFileForCreation(source.getKey(), source.getValue());
+        }
+
+        return projectManager;
+    }
+
+    /**
+     * Creates the manager of a helper service for the node where the build runs
+     * @param name
+     * @param sources
+     * @param packages
+     * @param arguments
+     * @return
+     * @throws NoSuchAlgorithmException
+     * @throws UnsupportedEncodingException
+     * @throws DotNetPluginException
+     */
+    private AgentServiceManager createAgentService(String name, Map<String, String> sources, Map<String, String> packages, List<String> arguments) throws NoSuchAlgorithmException, UnsupportedEncodingException, DotNetPluginException {
+        String serviceName = AgentServiceManager.getVersionedName(name, sources, packages);
+        NodeFile servicesFolder = this.getNodeFolder(ProjectConstants.SERVICES_FOLDER_NAME);
+
+        DotNetCommandLineManager serviceCommandLine = new DotNetCommandLineManager(this.logger, this.launcher, this.env, this.listener, servicesFolder, serviceName, this.toolchain);
+        return new AgentServiceManager(this.logger, serviceCommandLine, this.launcher.getChannel(), sources, packages, arguments);
+    }
+
+    /**
+     * Creates the compile service manager for the node where the build runs
+     * @return
+     * @throws IOException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     */
+    private CompileServiceManager createCompileService() throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException {
+        Map<String, String> sources = new HashMap<>();
+        sources.put(CompileServiceManager.SERVICE_SOURCE, ResourceTools.getResourceContent(RESOURCES_FOLDER + CompileServiceManager.SERVICE_SOURCE));
+
+        Map<String, String> packages = new HashMap<>();
+        packages.put(CompileServiceManager.ROSLYN_PACKAGE, CompileServiceManager.ROSLYN_VERSION);
+
+        AgentServiceManager service = this.createAgentService(CompileServiceManager.SERVICE_NAME, sources, packages, Arrays.asList(String.valueOf(ProjectConstants.SERVICE_IDLE_MINUTES)));
+
+        return new CompileServiceManager(this.logger, service, this.launcher.getChannel());
+    }
+
+    /**
+     * Creates the execution host manager for the node where the build runs
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     */
+    public ExecutionHostManager createExecutionHost() throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException {
+        Map<String, String> sources = new HashMap<>();
+        sources.put(ExecutionHostManager.SERVICE_SOURCE, ResourceTools.getResourceContent(RESOURCES_FOLDER + ExecutionHostManager.SERVICE_SOURCE));
+
+        int concurrency = this.settings.getExecutionHostConcurrency();
+        if (concurrency <= 0) {
+            concurrency = this.getNodeProcessors();
+        }
+
+        List<String> arguments = Arrays.asList(
+                String.valueOf(ProjectConstants.SERVICE_IDLE_MINUTES),
+                String.valueOf(concurrency),
+                String.valueOf(this.settings.getExecutionHostMaxExecutions()),
+                String.valueOf(this.settings.getExecutionHostMaxMemory()));
+
+        AgentServiceManager service = this.createAgentService(ExecutionHostManager.SERVICE_NAME, sources, new HashMap<String, String>(), arguments);
+
+        return new ExecutionHostManager(this.logger, service, this.launcher.getChannel(), this.listener, this.env, this.toolchain.getTargetFramework());
+    }
+
+    /**
+     * Gets the processors of the node where the build runs
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public int getNodeProcessors() throws IOException, InterruptedException {
+        VirtualChannel channel = this.launcher.getChannel();
+        if (channel == null) {
+            return 1;
+        }
+        return channel.call(new ProcessorCountCallable());
+    }
+}
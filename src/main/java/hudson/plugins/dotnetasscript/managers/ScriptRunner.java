@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.EnvVars;
+import hudson.model.TaskListener;
+import hudson.plugins.dotnetasscript.exceptions.DotNetCommandLineException;
+import hudson.plugins.dotnetasscript.exceptions.DotNetPluginException;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+/**
+ * Runs the script projects for the batch and the parallel runs, it is implemented
+ * by the plugin facade that knows the build and the node
+ * @author Ariel.Lenis
+ */
+public interface ScriptRunner {
+
+    /**
+     * Gets the compiled project of the sources and runs it
+     * @param sources
+     * @param dotNetPackages
+     * @param env the environment of the build
+     * @param results the result channel of the script
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException 
+     */
+    void runSources(Map<String, String> sources, DotNetPackagesManager dotNetPackages, EnvVars env, ResultChannelManager results) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException;
+
+    /**
+     * Runs a script as a step with its own log
+     * @param targetCode
+     * @param targetPackagesJson
+     * @param env the environment of the step
+     * @param listener the listener of the log of the step
+     * @param variables the map that receives the variables saved by the script
+     * @param values the map that receives the typed values saved by the script
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws NoSuchAlgorithmException
+     * @throws DotNetPluginException
+     * @throws DotNetCommandLineException 
+     */
+    void runStep(String targetCode, String targetPackagesJson, EnvVars env, TaskListener listener, Map<String, String> variables, Map<String, Object> values) throws IOException, InterruptedException, NoSuchAlgorithmException, DotNetPluginException, DotNetCommandLineException;
+}
@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import hudson.plugins.dotnetasscript.tools.EntryPointTools;
+import hudson.plugins.dotnetasscript.tools.ResourceTools;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the source files of the script projects, the embedded harness,
+ * the code of the scripts and the generated JenkinsScripts class
+ * @author Ariel.Lenis
+ */
+public class ScriptSourcesManager extends ManagerBase {
+    private static final String RESOURCES_FOLDER = "hudson/plugins/dotnetasscript/resources/";
+    private static final String BATCH_NAMESPACE = "DotNetTools.Jenkins.Steps.Step";
+
+    private final String runtimeConfigTemplate;
+
+    /**
+     * The script sources manager constructor
+     * @param logger
+     * @param runtimeConfigTemplate the content of the runtimeconfig.template.json, null for the runtime defaults
+     */
+    public ScriptSourcesManager(PrintStream logger, String runtimeConfigTemplate) {
+        super(logger);
+        this.runtimeConfigTemplate = runtimeConfigTemplate;
+    }
+
+    /**
+     * Gets the source files of the script project
+     * @param targetCode
+     * @return
+     * @throws IOException 
+     */
+    public Map<String, String> getSources(String targetCode) throws IOException {
+        Map<String, String> sources = this.getHarnessSources();
+        sources.put("TargetCode.cs", targetCode);
+        sources.put("JenkinsScripts.cs", this.getScriptsSource(false, Arrays.asList(targetCode), Arrays.asList((String) null)));
+        return sources;
+    }
+
+    /**
+     * Gets the source files of a project that runs many scripts in order, every script
+     * is placed in its own namespace and the generated JenkinsScripts class lists them
+     * @param targetCodes
+     * @return
+     * @throws IOException 
+     */
+    public Map<String, String> getBatchSources(List<String> targetCodes) throws IOException {
+        Map<String, String> sources = this.getHarnessSources();
+        List<String> codes = new ArrayList<>();
+        List<String> namespaces = new ArrayList<>();
+
+        for (int i = 0; i < targetCodes.size(); i++) {
+            String stepNamespace = BATCH_NAMESPACE + (i + 1);
+            String code = "namespace " + stepNamespace + "\n{\n" + targetCodes.get(i) + "\n}\n";
+            sources.put("TargetCode" + (i + 1) + ".cs", code);
+            codes.add(code);
+            namespaces.add(stepNamespace);
+        }
+
+        sources.put("JenkinsScripts.cs", this.getScriptsSource(true, codes, namespaces));
+
+        return sources;
+    }
+
+    /**
+     * Generates the JenkinsScripts class, it calls the entry point of every script directly
+     * when it is found in the declarations, otherwise the harness searches it through reflection
+     * @param isBatch
+     * @param codes the code of every script
+     * @param namespaces the namespace of every script, null when the script is not wrapped
+     * @return 
+     */
+    private String getScriptsSource(boolean isBatch, List<String> codes, List<String> namespaces) {
+        StringBuilder scripts = new StringBuilder();
+
+        scripts.append("using System;\n\n");
+        scripts.append("namespace DotNetTools.Jenkins\n{\n");
+        scripts.append("    static class JenkinsScripts\n    {\n");
+        scripts.append("        public static readonly bool IsBatch = ").append(isBatch).append(";\n\n");
+        scripts.append("        public static readonly Func<string[], JenkinsManager, int>[] Steps = new Func<string[], JenkinsManager, int>[]\n        {\n");
+
+        for (int i = 0; i < codes.size(); i++) {
+            String call = EntryPointTools.getEntryPointCall(codes.get(i));
+
+            if (call == null) {
+                this.prettyLog("Warning: the ScriptMain method of the script " + (i + 1) + " cannot be resolved from its declarations, "
+                        + "it has overloads, generic or private types or unsupported parameters. It is searched through reflection in every run.");
+                String stepNamespace = namespaces.get(i) == null ? "null" : "\"" + namespaces.get(i) + "\"";
+                call = "return JenkinsExecutor.ExecuteByReflection(args, manager, " + stepNamespace + ");";
+            }
+            scripts.append("            (args, manager) => { ").append(call).append(" },\n");
+        }
+
+        scripts.append("        };\n    }\n}\n");
+
+        return scripts.toString();
+    }
+
+    /**
+     * Adds the packages the scripts use without declaring them, the former harness referenced
+     * Newtonsoft.Json in every project and the scripts written for it still compile
+     * @param dotNetPackages
+     * @param targetCodes 
+     */
+    public void addImplicitPackages(DotNetPackagesManager dotNetPackages, Collection<String> targetCodes) {
+        for (String targetCode : targetCodes) {
+            if (!dotNetPackages.contains(ProjectConstants.NEWTONSOFT_PACKAGE) && EntryPointTools.usesName(targetCode, ProjectConstants.NEWTONSOFT_PACKAGE)) {
+                dotNetPackages.putPackage(ProjectConstants.NEWTONSOFT_PACKAGE, null);
+            }
+        }
+    }
+
+    /**
+     * Gets the harness source files, common to every script project
+     * @return
+     * @throws IOException 
+     */
+    private Map<String, String> getHarnessSources() throws IOException {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("JenkinsExecutor.cs", ResourceTools.getResourceContent(RESOURCES_FOLDER + "JenkinsExecutor.cs"));
+        sources.put("JenkinsManager.cs", ResourceTools.getResourceContent(RESOURCES_FOLDER + "JenkinsManager.cs"));
+        sources.put("JenkinsData.cs", ResourceTools.getResourceContent(RESOURCES_FOLDER + "JenkinsData.cs"));
+        sources.put("Program.cs", ResourceTools.getResourceContent(RESOURCES_FOLDER + "Program.cs"));
+
+        if (this.runtimeConfigTemplate != null) {
+            sources.put(ProjectConstants.RUNTIME_CONFIG_TEMPLATE_NAME, this.runtimeConfigTemplate);
+        }
+        return sources;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.managers;
+
+import hudson.FilePath;
+import hudson.plugins.dotnetasscript.cache.BuildCacheBackend;
+import hudson.plugins.dotnetasscript.general.NodeFile;
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Shares the compiled scripts of the node cache through a build cache backend,
+ * every entry is a compressed archive addressed by the same key as the node cache entries.
+ * Only the compiled output is archived, so the nodes without SDK can run it.
+ * @author Ariel.Lenis
+ */
+public class ScriptStoreManager extends ManagerBase {
+    private static final String ARCHIVE_INCLUDES = ProjectConstants.PROJECT_FOLDER_NAME + "/" + ProjectConstants.BUILD_INFORMATION_FILE
+            + "," + ProjectConstants.PROJECT_FOLDER_NAME + "/bin/**"
+            + "," + ProjectConstants.PROJECT_FOLDER_NAME + "/*.cs"
+            + "," + ProjectConstants.PROJECT_FOLDER_NAME + "/*.csproj";
+
+    private final BuildCacheBackend backend;
+
+    /**
+     * The script store manager constructor
+     * @param logger
+     * @param backend the storage of the archives
+     */
+    public ScriptStoreManager(PrintStream logger, BuildCacheBackend backend) {
+        super(logger);
+        this.backend = backend;
+    }
+
+    /**
+     * Determines if the store has the compiled script
+     * @param key
+     * @return 
+     */
+    public boolean contains(String key) {
+        try {
+            return this.backend.contains(key);
+        } catch (IOException error) {
+            this.prettyLog("The build cache is not available: " + error.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Extracts a compiled script in the target folder of a node, the archive is
+     * sent compressed and extracted by the node
+     * @param key
+     * @param target
+     * @return false if the store doesn't have the compiled script
+     * @throws IOException
+     * @throws InterruptedException 
+     */
+    public boolean fetch(String key, NodeFile target) throws IOException, InterruptedException {
+        try (InputStream input = this.backend.open(key)) {
+            if (input == null) {
+                return false;
+            }
+
+            this.prettyLog("Fetching the compiled script from " + this.backend.getDescription() + ".");
+            target.getFilePath().untarFrom(input, FilePath.TarCompression.GZIP);
+        }
+        return true;
+    }
+
+    /**
+     * Stores the compiled script of a node cache entry, a failure is logged
+     * because the script can still run from the node cache
+     * @param key
+     * @param entry
+     * @throws InterruptedException 
+     */
+    public void store(String key, NodeFile entry) throws InterruptedException {
+        File archive = null;
+        try {
+            if (this.backend.contains(key)) {
+                return;
+            }
+
+            archive = File.createTempFile("dotnetascript", ".tgz");
+            try (OutputStream output = FilePath.TarCompression.GZIP.compress(new FileOutputStream(archive))) {
+                entry.getFilePath().tar(output, ARCHIVE_INCLUDES);
+            }
+
+            this.backend.put(key, archive);
+            this.prettyLog("The compiled script was published to " + this.backend.getDescription() + ".");
+        } catch (IOException error) {
+            this.prettyLog("The compiled script cannot be published: " + error.getMessage());
+        } finally {
+            if (archive != null && archive.exists() && !archive.delete()) {
+                this.prettyLog("Cannot remove the temporary archive " + archive);
+            }
+        }
+    }
+}
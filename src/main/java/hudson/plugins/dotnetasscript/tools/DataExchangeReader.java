@@ -0,0 +1,214 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a data file exchanged with a script, the data of every entry is mapped in memory.
+ * The file starts with the magic, the version and the entry count, then every entry is
+ * written as the key length, the UTF-8 key, the data length and the data, in little endian.
+ * @author Ariel.Lenis
+ */
+public class DataExchangeReader implements Closeable {
+    static final int MAGIC = 0x44534E44;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final Map<String, long[]> entries = new LinkedHashMap<>();
+
+    /**
+     * The data reader constructor, it reads the index of the entries
+     * @param file
+     * @throws IOException when the file is not a data file
+     */
+    public DataExchangeReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+
+        try {
+            this.readIndex();
+        } catch (IOException error) {
+            this.close();
+            throw error;
+        }
+    }
+
+    /**
+     * Reads the position of every entry, a script that was interrupted leaves
+     * only complete entries in the count
+     * @throws IOException
+     */
+    private void readIndex() throws IOException {
+        long size = this.channel.size();
+        ByteBuffer header = this.read(0, HEADER_SIZE);
+
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("The data file is not valid.");
+        }
+
+        int count = header.getInt(8);
+        long position = HEADER_SIZE;
+
+        for (int i = 0; i < count; i++) {
+            int keyLength = this.read(position, 4).getInt(0);
+            if (keyLength < 0 || position + 12 + keyLength > size) {
+                throw new IOException("The data file is not complete.");
+            }
+
+            ByteBuffer entry = this.read(position + 4, keyLength + 8);
+            byte[] key = new byte[keyLength];
+            entry.get(key);
+            long length = entry.getLong(keyLength);
+            long offset = position + 12 + keyLength;
+
+            if (length < 0 || offset + length > size) {
+                throw new IOException("The data file is not complete.");
+            }
+
+            // The last entry saved with a key wins, as the script sees it
+            String name = new String(key, ProjectConstants.ENCODING);
+            this.entries.remove(name);
+            this.entries.put(name, new long[]{offset, length});
+            position = offset + length;
+        }
+    }
+
+    /**
+     * @return the keys of the entries, in the order they were saved
+     */
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(this.entries.keySet());
+    }
+
+    /**
+     * @param key
+     * @return the length of the entry, -1 if it doesn't exist
+     */
+    public long getLength(String key) {
+        long[] entry = this.entries.get(key);
+        return entry == null ? -1 : entry[1];
+    }
+
+    /**
+     * Maps the data of an entry, the buffer is valid after the reader is closed
+     * @param key
+     * @return the read only buffer, null if the entry doesn't exist
+     * @throws IOException when the entry is larger than a buffer
+     */
+    public ByteBuffer getData(String key) throws IOException {
+        long[] entry = this.entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry[1] > Integer.MAX_VALUE) {
+            throw new IOException("The data " + key + " is too large for a buffer, it must be copied to a file.");
+        }
+
+        return this.channel.map(FileChannel.MapMode.READ_ONLY, entry[0], entry[1]);
+    }
+
+    /**
+     * @param key
+     * @return the data of the entry as UTF-8 text, null if the entry doesn't exist
+     * @throws IOException
+     */
+    public String getString(String key) throws IOException {
+        ByteBuffer data = this.getData(key);
+        if (data == null) {
+            return null;
+        }
+
+        byte[] content = new byte[data.remaining()];
+        data.get(content);
+        return new String(content, ProjectConstants.ENCODING);
+    }
+
+    /**
+     * Copies the data of an entry to a file without loading it in the heap
+     * @param key
+     * @param target
+     * @return false if the entry doesn't exist
+     * @throws IOException
+     */
+    public boolean copyTo(String key, File target) throws IOException {
+        long[] entry = this.entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+
+        try (FileOutputStream output = new FileOutputStream(target)) {
+            FileChannel targetChannel = output.getChannel();
+            long copied = 0;
+
+            while (copied < entry[1]) {
+                copied += this.channel.transferTo(entry[0] + copied, entry[1] - copied, targetChannel);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a little endian block of the file
+     * @param position
+     * @param length
+     * @return
+     * @throws IOException when the file ends before the block
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("The data file is not complete.");
+            }
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        this.file.close();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes a data file for a script, with the layout read by {@link DataExchangeReader}.
+ * The content of the source files is copied by the file system without loading it in the heap.
+ * @author Ariel.Lenis
+ */
+public class DataExchangeWriter implements Closeable {
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private long position = DataExchangeReader.HEADER_SIZE;
+    private int count;
+
+    /**
+     * The data writer constructor, the file is replaced
+     * @param file
+     * @throws IOException
+     */
+    public DataExchangeWriter(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        this.channel = this.file.getChannel();
+    }
+
+    /**
+     * Adds an entry with the content of a file
+     * @param key
+     * @param source
+     * @throws IOException
+     */
+    public void put(String key, File source) throws IOException {
+        try (FileInputStream input = new FileInputStream(source)) {
+            FileChannel sourceChannel = input.getChannel();
+            long length = sourceChannel.size();
+            long offset = this.putKey(key, length);
+            long copied = 0;
+
+            while (copied < length) {
+                long transferred = this.channel.transferFrom(sourceChannel, offset + copied, length - copied);
+                if (transferred <= 0) {
+                    throw new IOException("The data file " + source + " changed while it was copied.");
+                }
+                copied += transferred;
+            }
+
+            this.position = offset + length;
+            this.count++;
+        }
+    }
+
+    /**
+     * Adds an entry with the given content
+     * @param key
+     * @param data
+     * @throws IOException
+     */
+    public void put(String key, byte[] data) throws IOException {
+        long offset = this.putKey(key, data.length);
+        this.write(ByteBuffer.wrap(data), offset);
+        this.position = offset + data.length;
+        this.count++;
+    }
+
+    /**
+     * Writes the key and the length of a new entry
+     * @param key
+     * @param length
+     * @return the position of the data of the entry
+     * @throws IOException
+     */
+    private long putKey(String key, long length) throws IOException {
+        byte[] name = key.getBytes(ProjectConstants.ENCODING);
+        ByteBuffer entry = ByteBuffer.allocate(12 + name.length).order(ByteOrder.LITTLE_ENDIAN);
+
+        entry.putInt(name.length);
+        entry.put(name);
+        entry.putLong(length);
+        entry.flip();
+
+        this.write(entry, this.position);
+        return this.position + 12 + name.length;
+    }
+
+    /**
+     * @param buffer
+     * @param offset
+     * @throws IOException
+     */
+    private void write(ByteBuffer buffer, long offset) throws IOException {
+        long current = offset;
+        while (buffer.hasRemaining()) {
+            current += this.channel.write(buffer, current);
+        }
+    }
+
+    /**
+     * Writes the header with the entry count and closes the file
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            ByteBuffer header = ByteBuffer.allocate(DataExchangeReader.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(DataExchangeReader.MAGIC);
+            header.putInt(DataExchangeReader.VERSION);
+            header.putInt(this.count);
+            header.putInt(0);
+            header.flip();
+
+            this.write(header, 0);
+            this.channel.truncate(this.position);
+        } finally {
+            this.file.close();
+        }
+    }
+}
@@ -0,0 +1,474 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Finds the ScriptMain method of a script when the project is generated, so the harness
+ * calls it directly instead of searching it through reflection in every run.
+ * Only the declarations are read, the script is not validated, any code that is not
+ * understood leaves the entry point unresolved and the harness falls back to reflection.
+ * @author Ariel.Lenis
+ */
+public class EntryPointTools {
+    private static final String METHOD_NAME = "ScriptMain";
+    private static final String LITERAL = "\"\"";
+    private static final Set<String> TYPE_KEYWORDS = new HashSet<>(Arrays.asList("class", "struct", "record", "interface"));
+    private static final Set<String> ARGS_TYPES = new HashSet<>(Arrays.asList("string[]", "String[]", "System.String[]"));
+    private static final Set<String> MANAGER_TYPES = new HashSet<>(Arrays.asList("JenkinsManager", "DotNetTools.Jenkins.JenkinsManager"));
+
+    /**
+     * A namespace, a type or any other block of the code
+     */
+    private static class Scope {
+        private final String name;
+        private final boolean isType;
+        private final boolean isUsable;
+
+        Scope(String name, boolean isType, boolean isUsable) {
+            this.name = name;
+            this.isType = isType;
+            this.isUsable = isUsable;
+        }
+    }
+
+    /**
+     * Determines if the code uses a qualified name, like a namespace in a using directive or in a
+     * qualified type, the comments and the literals of the code are not considered
+     * @param code
+     * @param qualifiedName the name with its parts separated by dots
+     * @return
+     */
+    public static boolean usesName(String code, String qualifiedName) {
+        List<String> tokens = tokenize(code);
+        List<String> name = tokenize(qualifiedName);
+
+        for (int i = 0; i + name.size() <= tokens.size(); i++) {
+            if (tokens.subList(i, i + name.size()).equals(name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the C# statement that calls the ScriptMain method of the code and returns its exit code,
+     * the variables args and manager must be in scope
+     * @param code
+     * @return the statement, null if the entry point cannot be resolved from the declarations
+     */
+    public static String getEntryPointCall(String code) {
+        List<String> tokens = tokenize(code);
+        Deque<Scope> scopes = new ArrayDeque<>();
+        List<String> declaration = new ArrayList<>();
+        String fileNamespace = null;
+        String pendingNamespace = null;
+        Scope pendingType = null;
+        String result = null;
+        int found = 0;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+
+            if ("namespace".equals(token)) {
+                StringBuilder name = new StringBuilder();
+                int next = i + 1;
+                while (next < tokens.size() && (isIdentifier(tokens.get(next)) || ".".equals(tokens.get(next)))) {
+                    name.append(tokens.get(next++));
+                }
+                if (next < tokens.size() && ";".equals(tokens.get(next))) {
+                    fileNamespace = name.toString();
+                } else {
+                    pendingNamespace = name.toString();
+                }
+                i = next - 1;
+                continue;
+            }
+
+            if (TYPE_KEYWORDS.contains(token)) {
+                int next = i + 1;
+                if ("record".equals(token) && next < tokens.size() && ("class".equals(tokens.get(next)) || "struct".equals(tokens.get(next)))) {
+                    next++;
+                }
+                // The keyword of a constraint like "where T : class" is not followed by a name
+                if (next < tokens.size() && isIdentifier(tokens.get(next))) {
+                    boolean isGeneric = next + 1 < tokens.size() && "<".equals(tokens.get(next + 1));
+                    boolean isNested = isInType(scopes);
+                    boolean isAccessible = isNested ? isAccessible(declaration) : !declaration.contains("file");
+                    pendingType = new Scope(tokens.get(next), true, isAccessible && !isGeneric);
+                }
+            }
+
+            switch (token) {
+                case "{":
+                    if (pendingType != null) {
+                        scopes.push(pendingType);
+                    } else if (pendingNamespace != null) {
+                        scopes.push(new Scope(pendingNamespace, false, true));
+                    } else {
+                        scopes.push(new Scope(null, false, false));
+                    }
+                    pendingType = null;
+                    pendingNamespace = null;
+                    declaration.clear();
+                    continue;
+                case "}":
+                    if (!scopes.isEmpty()) {
+                        scopes.pop();
+                    }
+                    pendingType = null;
+                    declaration.clear();
+                    continue;
+                case ";":
+                    pendingType = null;
+                    declaration.clear();
+                    continue;
+                default:
+                    break;
+            }
+
+            if (METHOD_NAME.equals(token) && i + 1 < tokens.size() && "(".equals(tokens.get(i + 1))
+                    && !scopes.isEmpty() && scopes.peek().isType && declaration.contains("static")) {
+                String typeName = getTypeName(scopes, fileNamespace);
+                found++;
+
+                if (found == 1 && typeName != null && isAccessible(declaration)) {
+                    String returnType = declaration.isEmpty() ? "" : declaration.get(declaration.size() - 1);
+                    result = getCall(typeName + "." + METHOD_NAME, returnType, tokens, i + 1);
+                } else {
+                    // Overloads or other candidates are left to the reflection lookup
+                    result = null;
+                }
+            }
+
+            declaration.add(token);
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the call statement for the parameters of the method
+     * @param method the full name of the method
+     * @param returnType
+     * @param tokens
+     * @param start the position of the open parenthesis
+     * @return the statement, null if the signature is not supported
+     */
+    private static String getCall(String method, String returnType, List<String> tokens, int start) {
+        List<String> arguments = new ArrayList<>();
+        StringBuilder parameterType = new StringBuilder();
+        String lastToken = null;
+        int depth = 0;
+
+        for (int i = start; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+
+            if ("(".equals(token)) {
+                depth++;
+                if (depth == 1) {
+                    continue;
+                }
+            } else if (")".equals(token)) {
+                depth--;
+            }
+
+            if (depth == 0 || (depth == 1 && ",".equals(token))) {
+                if (lastToken != null) {
+                    String type = parameterType.toString();
+                    if (ARGS_TYPES.contains(type)) {
+                        arguments.add("args");
+                    } else if (MANAGER_TYPES.contains(type)) {
+                        arguments.add("manager");
+                    } else {
+                        return null;
+                    }
+                }
+                if (depth == 0) {
+                    break;
+                }
+                parameterType.setLength(0);
+                lastToken = null;
+                continue;
+            }
+
+            if ("params".equals(token) && lastToken == null) {
+                continue;
+            }
+
+            // The last token of every parameter is its name
+            if (lastToken != null) {
+                parameterType.append(lastToken);
+            }
+            lastToken = token;
+        }
+
+        if (new HashSet<>(arguments).size() != arguments.size()) {
+            return null;
+        }
+
+        String call = method + "(" + StringUtils.join(arguments, ", ") + ")";
+
+        switch (returnType) {
+            case "void":
+                return call + "; return 0;";
+            case "int":
+            case "Int32":
+                return "return " + call + ";";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Gets the full name of the type of the current scope
+     * @param scopes
+     * @param fileNamespace
+     * @return the name, null if the type cannot be used from other file
+     */
+    private static String getTypeName(Deque<Scope> scopes, String fileNamespace) {
+        List<String> parts = new ArrayList<>();
+
+        if (fileNamespace != null) {
+            parts.add(fileNamespace);
+        }
+
+        for (Iterator<Scope> iterator = scopes.descendingIterator(); iterator.hasNext();) {
+            Scope scope = iterator.next();
+            if (!scope.isUsable) {
+                return null;
+            }
+            parts.add(scope.name);
+        }
+
+        return "global::" + StringUtils.join(parts, ".");
+    }
+
+    /**
+     * @param scopes
+     * @return true if the current scope is a type
+     */
+    private static boolean isInType(Deque<Scope> scopes) {
+        return !scopes.isEmpty() && scopes.peek().isType;
+    }
+
+    /**
+     * @param declaration the tokens of the declaration
+     * @return true if the member can be used from other file of the assembly
+     */
+    private static boolean isAccessible(List<String> declaration) {
+        return declaration.contains("public") || declaration.contains("internal");
+    }
+
+    /**
+     * @param token
+     * @return true if the token is an identifier or a keyword
+     */
+    private static boolean isIdentifier(String token) {
+        char first = token.charAt(0);
+        return Character.isLetter(first) || first == '_' || (first == '@' && token.length() > 1);
+    }
+
+    /**
+     * Splits the code in identifiers and punctuation, the comments, the directives
+     * and the numbers are dropped and every literal is replaced by an empty string
+     * @param code
+     * @return
+     */
+    private static List<String> tokenize(String code) {
+        List<String> tokens = new ArrayList<>();
+        boolean lineStart = true;
+        int i = 0;
+
+        while (i < code.length()) {
+            char current = code.charAt(i);
+            char next = i + 1 < code.length() ? code.charAt(i + 1) : '\0';
+
+            if (current == '\n') {
+                lineStart = true;
+                i++;
+            } else if (Character.isWhitespace(current)) {
+                i++;
+            } else if (current == '#' && lineStart) {
+                i = skipLine(code, i);
+            } else if (current == '/' && next == '/') {
+                i = skipLine(code, i);
+            } else if (current == '/' && next == '*') {
+                int end = code.indexOf("*/", i + 2);
+                i = end < 0 ? code.length() : end + 2;
+            } else if (current == '"' || current == '\'' || ((current == '$' || current == '@') && isStringStart(code, i))) {
+                i = skipLiteral(code, i);
+                tokens.add(LITERAL);
+                lineStart = false;
+            } else if (Character.isLetter(current) || current == '_' || current == '@') {
+                int end = i + 1;
+                while (end < code.length() && (Character.isLetterOrDigit(code.charAt(end)) || code.charAt(end) == '_')) {
+                    end++;
+                }
+                tokens.add(code.substring(i, end));
+                i = end;
+                lineStart = false;
+            } else if (Character.isDigit(current)) {
+                while (i < code.length() && (Character.isLetterOrDigit(code.charAt(i)) || code.charAt(i) == '_' || code.charAt(i) == '.')) {
+                    i++;
+                }
+                lineStart = false;
+            } else {
+                tokens.add(String.valueOf(current));
+                i++;
+                lineStart = false;
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * @param code
+     * @param start
+     * @return the position of the line end
+     */
+    private static int skipLine(String code, int start) {
+        int end = code.indexOf('\n', start);
+        return end < 0 ? code.length() : end;
+    }
+
+    /**
+     * @param code
+     * @param start the position of a $ or a @
+     * @return true if the prefixes are followed by a string
+     */
+    private static boolean isStringStart(String code, int start) {
+        int i = start;
+        while (i < code.length() && (code.charAt(i) == '$' || code.charAt(i) == '@')) {
+            i++;
+        }
+        return i < code.length() && code.charAt(i) == '"';
+    }
+
+    /**
+     * Skips a character, string, verbatim, interpolated or raw literal
+     * @param code
+     * @param start
+     * @return the position after the literal
+     */
+    private static int skipLiteral(String code, int start) {
+        int i = start;
+        boolean verbatim = false;
+        int dollars = 0;
+
+        while (code.charAt(i) == '$' || code.charAt(i) == '@') {
+            if (code.charAt(i) == '@') {
+                verbatim = true;
+            } else {
+                dollars++;
+            }
+            i++;
+        }
+
+        char quote = code.charAt(i);
+
+        if (quote == '"' && code.startsWith("\"\"\"", i)) {
+            int quotes = 0;
+            while (i < code.length() && code.charAt(i) == '"') {
+                quotes++;
+                i++;
+            }
+            String closing = new String(new char[quotes]).replace('\0', '"');
+            int end = code.indexOf(closing, i);
+            return end < 0 ? code.length() : end + quotes;
+        }
+
+        i++;
+        while (i < code.length()) {
+            char current = code.charAt(i);
+
+            if (current == quote) {
+                if (verbatim && i + 1 < code.length() && code.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+
+            if (current == '\\' && !verbatim) {
+                i += 2;
+            } else if (current == '\n' && !verbatim) {
+                return i;
+            } else if (current == '{' && dollars > 0) {
+                if (i + 1 < code.length() && code.charAt(i + 1) == '{') {
+                    i += 2;
+                } else {
+                    i = skipHole(code, i + 1);
+                }
+            } else {
+                i++;
+            }
+        }
+
+        return i;
+    }
+
+    /**
+     * Skips the expression of an interpolated string, it can contain other literals
+     * @param code
+     * @param start the position after the open brace
+     * @return the position after the close brace
+     */
+    private static int skipHole(String code, int start) {
+        int depth = 1;
+        int i = start;
+
+        while (i < code.length()) {
+            char current = code.charAt(i);
+
+            if (current == '"' || current == '\'' || ((current == '$' || current == '@') && isStringStart(code, i))) {
+                i = skipLiteral(code, i);
+                continue;
+            }
+
+            if (current == '{') {
+                depth++;
+            } else if (current == '}') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+
+        return i;
+    }
+}
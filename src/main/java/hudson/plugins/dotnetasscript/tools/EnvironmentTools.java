@@ -0,0 +1,56 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import hudson.EnvVars;
+
+/**
+ *
+ * @author Ariel.Lenis
+ */
+public class EnvironmentTools {
+    
+    private static final String[][] FAST_START_VARIABLES = new String[][] {
+        { "DOTNET_SKIP_FIRST_TIME_EXPERIENCE", "1" },
+        { "DOTNET_CLI_TELEMETRY_OPTOUT", "1" },
+        { "DOTNET_NOLOGO", "1" }
+    };
+    
+    /**
+     * Gets a copy of the environment that skips the first run experience,
+     * the telemetry and the banner of the dotnet command line.
+     * The values already defined in the environment are kept.
+     * @param env
+     * @return 
+     */
+    public static EnvVars withFastStart(EnvVars env) {
+        EnvVars result = new EnvVars(env);
+        for (String[] variable : FAST_START_VARIABLES) {
+            if (!result.containsKey(variable[0])) {
+                result.put(variable[0], variable[1]);
+            }
+        }
+        return result;
+    }
+}
@@ -1,70 +1,120 @@
-/*
- * The MIT License
- *
- * Copyright 2017 Ariel.Lenis.
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-package hudson.plugins.dotnetasscript.tools;
-
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import net.sf.json.JSONObject;
-
-/**
- *
- * @author Ariel.Lenis
- */
-public class JsonTools {
-    
-    /**
-     * Static method that converts a JSON string to a map of String values
-     * @param json
-     * @return 
-     */
-    public static Map<String, String> jsonToStringMap(String json) {
-        Map<String, String> result = new HashMap<>();
-        JSONObject jsonObject = JSONObject.fromObject(json);
-        Iterator iterator = jsonObject.keys();
-        while (iterator.hasNext()) {
-            String key = iterator.next().toString();
-            Object objValue = jsonObject.get(key);
-            String strValue = null;
-            if (objValue != null) {
-                strValue = objValue.toString();
-            }
-            result.put(key, strValue);
-        }
-        return result;
-    }
-    
-    /**
-     * Static method that converts a String map to a JSON string representation.
-     * @param map
-     * @return 
-     */
-    public static String stringMapToJson(Map<String, String> map) {
-        JSONObject jsonObject = new JSONObject();
-        for(Map.Entry<String, String> mapEntry : map.entrySet()) {
-            jsonObject.put(mapEntry.getKey(), mapEntry.getValue());
-        }
-        return jsonObject.toString();
-    }
-}
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+
+/**
+ *
+ * @author Ariel.Lenis
+ */
+public class JsonTools {
+    
+    /**
+     * Static method that converts a JSON string to a map of String values
+     * @param json
+     * @return 
+     */
+    public static Map<String, String> jsonToStringMap(String json) {
+        Map<String, String> result = new HashMap<>();
+        JSONObject jsonObject = JSONObject.fromObject(json);
+        Iterator iterator = jsonObject.keys();
+        while (iterator.hasNext()) {
+            String key = iterator.next().toString();
+            Object objValue = jsonObject.get(key);
+            String strValue = null;
+            if (objValue != null) {
+                strValue = objValue.toString();
+            }
+            result.put(key, strValue);
+        }
+        return result;
+    }
+    
+    /**
+     * Static method that converts a String map to a JSON string representation,
+     * the keys are sorted so the same map always gets the same JSON.
+     * @param map
+     * @return 
+     */
+    public static String stringMapToJson(Map<String, String> map) {
+        JSONObject jsonObject = new JSONObject();
+        for(Map.Entry<String, String> mapEntry : new TreeMap<>(map).entrySet()) {
+            jsonObject.put(mapEntry.getKey(), mapEntry.getValue());
+        }
+        return jsonObject.toString();
+    }
+    
+    /**
+     * Static method that converts any JSON value to plain Java values, objects become
+     * maps, arrays become lists and the numbers, strings and booleans are kept
+     * @param json
+     * @return 
+     */
+    public static Object jsonToValue(String json) {
+        // The value is wrapped so the primitive values are parsed too
+        JSONObject wrapper = JSONObject.fromObject("{\"value\":" + json + "}");
+        return toPlainValue(wrapper.get("value"));
+    }
+    
+    /**
+     * Converts a parsed JSON value to plain Java values
+     * @param value
+     * @return 
+     */
+    private static Object toPlainValue(Object value) {
+        if (value instanceof JSONObject) {
+            if (((JSONObject)value).isNullObject()) {
+                return null;
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            Iterator iterator = ((JSONObject)value).keys();
+            while (iterator.hasNext()) {
+                String key = iterator.next().toString();
+                result.put(key, toPlainValue(((JSONObject)value).get(key)));
+            }
+            return result;
+        }
+        if (value instanceof JSONArray) {
+            List<Object> result = new ArrayList<>();
+            for (Object item : (JSONArray)value) {
+                result.add(toPlainValue(item));
+            }
+            return result;
+        }
+        if (value instanceof JSONNull) {
+            return null;
+        }
+        return value;
+    }
+}
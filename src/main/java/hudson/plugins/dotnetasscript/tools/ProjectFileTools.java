@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ *
+ * @author Ariel.Lenis
+ */
+public class ProjectFileTools {
+    private static final String PROJECT_TEMPLATE = "hudson/plugins/dotnetasscript/resources/ProjectTemplate.csproj";
+
+    /**
+     * Gets the content of the .csproj file with all the package references,
+     * based in the project template embedded in the plugin.
+     * The packages without version will float to the latest one.
+     * @param targetFramework
+     * @param packages
+     * @return
+     * @throws IOException
+     */
+    public static String getProjectFileContent(String targetFramework, Map<String, String> packages) throws IOException {
+        StringBuilder languageDefaults = new StringBuilder();
+        if (targetFramework.startsWith("net") && !targetFramework.startsWith("netcoreapp") && !targetFramework.startsWith("net5.")) {
+            // Keep the same defaults that "dotnet new console" creates for these frameworks
+            languageDefaults.append("    <ImplicitUsings>enable</ImplicitUsings>\n");
+            languageDefaults.append("    <Nullable>enable</Nullable>\n");
+        }
+
+        StringBuilder packageReferences = new StringBuilder();
+        if (!packages.isEmpty()) {
+            packageReferences.append("  <ItemGroup>\n");
+            for (Map.Entry<String, String> thePackage : new TreeMap<>(packages).entrySet()) {
+                String version = thePackage.getValue() == null ? "*" : thePackage.getValue();
+                packageReferences.append("    <PackageReference Include=\"").append(escape(thePackage.getKey()))
+                        .append("\" Version=\"").append(escape(version)).append("\" />\n");
+            }
+            packageReferences.append("  </ItemGroup>\n");
+            packageReferences.append("\n");
+        }
+
+        return ResourceTools.getResourceContent(PROJECT_TEMPLATE)
+                .replace("\r\n", "\n")
+                .replace("@TARGET_FRAMEWORK@", escape(targetFramework))
+                .replace("@LANGUAGE_DEFAULTS@", languageDefaults.toString())
+                .replace("@PACKAGE_REFERENCES@", packageReferences.toString());
+    }
+
+    /**
+     * Determines if the framework is older than netcoreapp3.0, the harness serializes
+     * its results with Newtonsoft.Json for these frameworks
+     * @param targetFramework
+     * @return
+     */
+    public static boolean isLegacyFramework(String targetFramework) {
+        return targetFramework.startsWith("netcoreapp1.") || targetFramework.startsWith("netcoreapp2.");
+    }
+
+    /**
+     * Escapes the value to be used inside a XML attribute or element
+     * @param value
+     * @return
+     */
+    private static String escape(String value) {
+        return value.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Reads the files embedded in the plugin, every file is read once per plugin lifetime.
+ * @author Ariel.Lenis
+ */
+public class ResourceTools {
+    private static final ConcurrentMap<String, String> CONTENTS = new ConcurrentHashMap<>();
+    
+    /**
+     * Gets the content of an embedded file
+     * @param fileName the full resource name
+     * @return
+     * @throws IOException 
+     */
+    public static String getResourceContent(String fileName) throws IOException {
+        String content = CONTENTS.get(fileName);
+        
+        if (content == null) {
+            try (InputStream inputStream = ResourceTools.class.getClassLoader().getResourceAsStream(fileName)) {
+                if (inputStream == null) {
+                    throw new FileNotFoundException("The resource " + fileName + " doesn't exists.");
+                }
+                content = IOUtils.toString(inputStream, ProjectConstants.ENCODING);
+            }
+            CONTENTS.putIfAbsent(fileName, content);
+        }
+        
+        return content;
+    }
+}
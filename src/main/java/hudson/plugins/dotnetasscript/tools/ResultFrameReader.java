@@ -0,0 +1,187 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+
+/**
+ * Reads the frames of a result channel one by one without building the whole content,
+ * every frame is a flat JSON object in its own line. Strings are unescaped and
+ * any other value is kept as its literal text.
+ * @author Ariel.Lenis
+ */
+public class ResultFrameReader {
+    private final Reader reader;
+    private final StringBuilder buffer = new StringBuilder();
+    private int current;
+
+    /**
+     * The frame reader constructor
+     * @param reader
+     * @throws IOException 
+     */
+    public ResultFrameReader(Reader reader) throws IOException {
+        this.reader = reader;
+        this.current = reader.read();
+    }
+
+    /**
+     * Reads the next frame, an invalid frame is skipped up to the end of its line
+     * @param frame the map to fill with the frame fields, it is cleared first
+     * @return false when there are no more frames
+     * @throws IOException when the frame is not valid
+     */
+    public boolean readFrame(Map<String, String> frame) throws IOException {
+        frame.clear();
+        this.skipWhitespace();
+
+        if (this.current == -1) {
+            return false;
+        }
+
+        try {
+            this.readObject(frame);
+        } catch (IOException error) {
+            while (this.current != -1 && this.current != '\n') {
+                this.advance();
+            }
+            throw error;
+        }
+
+        return true;
+    }
+
+    private void readObject(Map<String, String> frame) throws IOException {
+        this.expect('{');
+        this.skipWhitespace();
+
+        if (this.current == '}') {
+            this.advance();
+            return;
+        }
+
+        while (true) {
+            this.skipWhitespace();
+            String key = this.readString();
+            this.skipWhitespace();
+            this.expect(':');
+            this.skipWhitespace();
+            frame.put(key, this.current == '"' ? this.readString() : this.readLiteral());
+            this.skipWhitespace();
+
+            if (this.current == ',') {
+                this.advance();
+            } else {
+                this.expect('}');
+                return;
+            }
+        }
+    }
+
+    private String readString() throws IOException {
+        this.expect('"');
+        this.buffer.setLength(0);
+
+        while (this.current != '"') {
+            if (this.current == -1 || this.current == '\n') {
+                throw new IOException("Unterminated string in result frame.");
+            }
+
+            if (this.current == '\\') {
+                this.advance();
+                switch (this.current) {
+                    case 'n': this.buffer.append('\n'); break;
+                    case 'r': this.buffer.append('\r'); break;
+                    case 't': this.buffer.append('\t'); break;
+                    case 'b': this.buffer.append('\b'); break;
+                    case 'f': this.buffer.append('\f'); break;
+                    case 'u': this.buffer.append(this.readUnicode()); continue;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        this.buffer.append((char) this.current);
+                        break;
+                    default:
+                        throw new IOException("Invalid escape in result frame.");
+                }
+            } else {
+                this.buffer.append((char) this.current);
+            }
+            this.advance();
+        }
+
+        this.advance();
+        return this.buffer.toString();
+    }
+
+    private char readUnicode() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            this.advance();
+            int digit = Character.digit(this.current, 16);
+            if (digit < 0) {
+                throw new IOException("Invalid unicode escape in result frame.");
+            }
+            value = value * 16 + digit;
+        }
+        this.advance();
+        return (char) value;
+    }
+
+    private String readLiteral() throws IOException {
+        this.buffer.setLength(0);
+
+        while (this.current != -1 && this.current != ',' && this.current != '}' && !Character.isWhitespace(this.current)) {
+            if (this.current == '{' || this.current == '[') {
+                throw new IOException("Nested values are not supported in result frames.");
+            }
+            this.buffer.append((char) this.current);
+            this.advance();
+        }
+
+        if (this.buffer.length() == 0) {
+            throw new IOException("Missing value in result frame.");
+        }
+        return this.buffer.toString();
+    }
+
+    private void expect(char expected) throws IOException {
+        if (this.current != expected) {
+            throw new IOException("Expected '" + expected + "' in result frame.");
+        }
+        this.advance();
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (this.current != -1 && Character.isWhitespace(this.current)) {
+            this.advance();
+        }
+    }
+
+    private void advance() throws IOException {
+        this.current = this.reader.read();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Creates the runtimeconfig.template.json of the runtime profiles, the SDK merges
+ * its configProperties in the runtime configuration of the compiled script.
+ * @author Ariel.Lenis
+ */
+public class RuntimeConfigTools {
+    
+    /**
+     * The runtime defaults, no template is generated
+     */
+    public static final String PROFILE_DEFAULT = "default";
+    
+    /**
+     * Quick JIT and no ICU, for the short scripts where the startup is most of the time
+     */
+    public static final String PROFILE_STARTUP = "startup";
+    
+    /**
+     * Server GC and dynamic PGO, for the long scripts that process a lot of data
+     */
+    public static final String PROFILE_THROUGHPUT = "throughput";
+    
+    /**
+     * Only the custom runtime options, the other profiles ignore them
+     */
+    public static final String PROFILE_CUSTOM = "custom";
+    
+    /**
+     * Gets the content of the runtimeconfig.template.json for a profile,
+     * the custom options are used only by the custom profile
+     * @param profile
+     * @param customOptions a JSON object with runtime configuration properties, can be empty
+     * @return the template, null if the script uses the runtime defaults
+     * @throws JSONException if the custom options are not a JSON object
+     */
+    public static String getTemplate(String profile, String customOptions) {
+        Map<String, Object> properties = new TreeMap<>();
+        
+        if (PROFILE_STARTUP.equals(profile)) {
+            properties.put("System.Globalization.Invariant", true);
+            properties.put("System.GC.Concurrent", false);
+            properties.put("System.Runtime.TieredCompilation.QuickJit", true);
+            properties.put("System.Runtime.TieredCompilation.QuickJitForLoops", true);
+            properties.put("System.Runtime.TieredPGO", false);
+        } else if (PROFILE_THROUGHPUT.equals(profile)) {
+            properties.put("System.GC.Server", true);
+            properties.put("System.GC.Concurrent", true);
+            properties.put("System.Runtime.TieredPGO", true);
+        }
+        
+        if (PROFILE_CUSTOM.equals(profile) && customOptions != null && !customOptions.trim().isEmpty()) {
+            JSONObject options = new JSONObject(customOptions.trim());
+            Iterator<String> iterator = options.keys();
+            while (iterator.hasNext()) {
+                String key = iterator.next();
+                properties.put(key, options.get(key));
+            }
+        }
+        
+        if (properties.isEmpty()) {
+            return null;
+        }
+        
+        // The keys are written sorted so the same options always get the same template and the same cache key,
+        // the JSONObject doesn't keep the order of its keys
+        StringBuilder template = new StringBuilder("{\n  \"configProperties\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            template.append(separator).append("    ").append(JSONObject.quote(property.getKey()))
+                    .append(": ").append(JSONObject.valueToString(property.getValue()));
+            separator = ",\n";
+        }
+        template.append("\n  }\n}\n");
+        return template.toString();
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import hudson.plugins.dotnetasscript.general.ProjectConstants;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Streaming fingerprint of the script sources. The C# sources are lightly tokenized,
+ * the whitespaces, the comments and the line endings are not part of the fingerprint,
+ * so a cosmetic edit of a script keeps the same compiled assembly.
+ * The literals and the preprocessor directives are kept as they are.
+ * @author Ariel.Lenis
+ */
+public class SourceFingerprint {
+    private static final int BUFFER_SIZE = 8192;
+    private static final String OPERATORS = "+-*/%<>=!&|^?:.~";
+    
+    private final MessageDigest digest;
+    private final StringBuilder buffer;
+    private char last;
+    
+    /**
+     * The source fingerprint constructor
+     * @throws NoSuchAlgorithmException 
+     */
+    public SourceFingerprint() throws NoSuchAlgorithmException {
+        this.digest = MessageDigest.getInstance("SHA-1");
+        this.buffer = new StringBuilder(BUFFER_SIZE);
+    }
+    
+    /**
+     * Gets the fingerprint of a single C# source
+     * @param code
+     * @return
+     * @throws NoSuchAlgorithmException
+     * @throws UnsupportedEncodingException 
+     */
+    public static String getSourceHash(String code) throws NoSuchAlgorithmException, UnsupportedEncodingException {
+        return new SourceFingerprint().addSource("", code).getKey();
+    }
+    
+    /**
+     * Adds a value that is hashed as it is
+     * @param label
+     * @param value
+     * @return
+     * @throws UnsupportedEncodingException 
+     */
+    public SourceFingerprint addText(String label, String value) throws UnsupportedEncodingException {
+        this.append(label).append('\n');
+        this.append(value == null ? "" : value).append('\u0000');
+        return this;
+    }
+    
+    /**
+     * Adds a C# source without its trivia
+     * @param label
+     * @param code
+     * @return
+     * @throws UnsupportedEncodingException 
+     */
+    public SourceFingerprint addSource(String label, String code) throws UnsupportedEncodingException {
+        this.append(label).append('\n');
+        this.last = '\n';
+        this.normalize(code == null ? "" : code);
+        this.append('\u0000');
+        return this;
+    }
+    
+    /**
+     * Gets the fingerprint, the hexadecimal key always has the same width
+     * @return
+     * @throws UnsupportedEncodingException 
+     */
+    public String getKey() throws UnsupportedEncodingException {
+        this.flush(true);
+        return StringTools.toHex(this.digest.digest());
+    }
+    
+    private void normalize(String code) throws UnsupportedEncodingException {
+        int length = code.length();
+        int index = 0;
+        boolean lineStart = true;
+        boolean trivia = false;
+        
+        while (index < length) {
+            char current = code.charAt(index);
+            char next = index + 1 < length ? code.charAt(index + 1) : 0;
+            
+            if (current == '\n' || current == '\r') {
+                lineStart = true;
+                trivia = true;
+                index++;
+            } else if (Character.isWhitespace(current)) {
+                trivia = true;
+                index++;
+            } else if (current == '/' && next == '/') {
+                index = getLineEnd(code, index);
+                trivia = true;
+            } else if (current == '/' && next == '*') {
+                int end = code.indexOf("*/", index + 2);
+                index = end < 0 ? length : end + 2;
+                trivia = true;
+            } else if (current == '#' && lineStart) {
+                // The directives end with the line
+                int end = getLineEnd(code, index);
+                this.emit('\n');
+                this.emit(code.substring(index, end).trim());
+                this.emit('\n');
+                index = end;
+                trivia = false;
+            } else {
+                if (trivia && this.needsSeparator(current)) {
+                    this.emit(' ');
+                }
+                
+                int end = getLiteralEnd(code, index);
+                if (end > index) {
+                    this.emit(code.substring(index, end));
+                    index = end;
+                } else {
+                    this.emit(current);
+                    index++;
+                }
+                
+                lineStart = false;
+                trivia = false;
+            }
+        }
+    }
+    
+    /**
+     * Determines if two tokens would be joined without the trivia between them
+     * @param next
+     * @return 
+     */
+    private boolean needsSeparator(char next) {
+        return (isWordPart(this.last) && isWordPart(next))
+                || (OPERATORS.indexOf(this.last) >= 0 && OPERATORS.indexOf(next) >= 0);
+    }
+    
+    private static boolean isWordPart(char value) {
+        return Character.isLetterOrDigit(value) || value == '_' || value == '@' || value > 127;
+    }
+    
+    private static int getLineEnd(String code, int index) {
+        int end = code.indexOf('\n', index);
+        return end < 0 ? code.length() : end;
+    }
+    
+    /**
+     * Gets the end of the string or char literal that starts in the index
+     * @param code
+     * @param index
+     * @return the index after the literal, the same index if there is not a literal
+     */
+    private static int getLiteralEnd(String code, int index) {
+        int length = code.length();
+        
+        if (code.charAt(index) == '\'') {
+            return getQuotedEnd(code, index + 1, '\'');
+        }
+        
+        int quote = index;
+        while (quote < length && (code.charAt(quote) == '$' || code.charAt(quote) == '@')) {
+            quote++;
+        }
+        
+        if (quote >= length || code.charAt(quote) != '"') {
+            return index;
+        }
+        
+        String prefix = code.substring(index, quote);
+        boolean verbatim = prefix.indexOf('@') >= 0;
+        boolean interpolated = prefix.indexOf('$') >= 0;
+        
+        int quotes = 0;
+        while (quote + quotes < length && code.charAt(quote + quotes) == '"') {
+            quotes++;
+        }
+        
+        if (!verbatim && quotes >= 3) {
+            // Raw string literal, it ends with the same count of quotes
+            String delimiter = code.substring(quote, quote + quotes);
+            int end = code.indexOf(delimiter, quote + quotes);
+            return end < 0 ? length : end + quotes;
+        }
+        
+        int position = quote + 1;
+        while (position < length) {
+            char current = code.charAt(position);
+            
+            if (current == '"') {
+                if (verbatim && position + 1 < length && code.charAt(position + 1) == '"') {
+                    position += 2;
+                    continue;
+                }
+                return position + 1;
+            } else if (current == '\\' && !verbatim) {
+                position += 2;
+            } else if (current == '{' && interpolated) {
+                if (position + 1 < length && code.charAt(position + 1) == '{') {
+                    position += 2;
+                } else {
+                    position = getHoleEnd(code, position + 1);
+                }
+            } else if ((current == '\n' || current == '\r') && !verbatim) {
+                return position;
+            } else {
+                position++;
+            }
+        }
+        
+        return length;
+    }
+    
+    /**
+     * Gets the end of an interpolation hole, the nested literals are skipped
+     * @param code
+     * @param index
+     * @return 
+     */
+    private static int getHoleEnd(String code, int index) {
+        int length = code.length();
+        int depth = 1;
+        int position = index;
+        
+        while (position < length) {
+            char current = code.charAt(position);
+            int literalEnd = getLiteralEnd(code, position);
+            
+            if (literalEnd > position) {
+                position = literalEnd;
+                continue;
+            }
+            
+            if (current == '{') {
+                depth++;
+            } else if (current == '}' && --depth == 0) {
+                return position + 1;
+            }
+            position++;
+        }
+        
+        return length;
+    }
+    
+    private static int getQuotedEnd(String code, int index, char delimiter) {
+        int length = code.length();
+        int position = index;
+        
+        while (position < length) {
+            char current = code.charAt(position);
+            
+            if (current == '\\') {
+                position += 2;
+            } else if (current == delimiter) {
+                return position + 1;
+            } else if (current == '\n' || current == '\r') {
+                return position;
+            } else {
+                position++;
+            }
+        }
+        
+        return length;
+    }
+    
+    private void emit(char value) throws UnsupportedEncodingException {
+        this.append(value);
+        this.last = value;
+    }
+    
+    private void emit(String value) throws UnsupportedEncodingException {
+        if (value.isEmpty()) {
+            return;
+        }
+        this.append(value);
+        this.last = value.charAt(value.length() - 1);
+    }
+    
+    private SourceFingerprint append(char value) throws UnsupportedEncodingException {
+        this.buffer.append(value);
+        if (this.buffer.length() >= BUFFER_SIZE) {
+            this.flush(false);
+        }
+        return this;
+    }
+    
+    private SourceFingerprint append(String value) throws UnsupportedEncodingException {
+        this.buffer.append(value);
+        if (this.buffer.length() >= BUFFER_SIZE) {
+            this.flush(false);
+        }
+        return this;
+    }
+    
+    private void flush(boolean complete) throws UnsupportedEncodingException {
+        // A surrogate pair is never split between two chunks
+        int end = this.buffer.length();
+        if (!complete && end > 0 && Character.isHighSurrogate(this.buffer.charAt(end - 1))) {
+            end--;
+        }
+        this.digest.update(this.buffer.substring(0, end).getBytes(ProjectConstants.ENCODING));
+        this.buffer.delete(0, end);
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+using Microsoft.CodeAnalysis;
+using Microsoft.CodeAnalysis.CSharp;
+using System;
+using System.Collections.Concurrent;
+using System.Collections.Generic;
+using System.Diagnostics;
+using System.IO;
+using System.Linq;
+using System.Net;
+using System.Net.Sockets;
+using System.Runtime.InteropServices;
+using System.Security.Cryptography;
+using System.Text;
+using System.Text.Json;
+using System.Threading;
+
+namespace DotNetTools.Jenkins.Services
+{
+    /// <summary>
+    /// Long lived compile service, it keeps Roslyn and the metadata references
+    /// loaded and compiles the script projects in memory on request.
+    /// Every request starts with the token written next to the port, the others are rejected.
+    /// </summary>
+    public static class CompileService
+    {
+        private static readonly ConcurrentDictionary<string, Tuple<DateTime, MetadataReference>> References = new ConcurrentDictionary<string, Tuple<DateTime, MetadataReference>>();
+
+        private static readonly string[] ImplicitUsings = new string[]
+        {
+            "System", "System.Collections.Generic", "System.IO", "System.Linq",
+            "System.Net.Http", "System.Threading", "System.Threading.Tasks"
+        };
+
+        // Same mapping as the PathMap of the project file, the output doesn't depend on the project folder
+        private const string MappedPath = "/_/";
+
+        private static long lastRequestTicks = DateTime.UtcNow.Ticks;
+        private static int activeRequests = 0;
+        private static byte[] token;
+
+        public static int Main(string[] args)
+        {
+            string portFile = args[0];
+            int idleMinutes = args.Length > 1 ? int.Parse(args[1]) : 30;
+
+            var listener = new TcpListener(IPAddress.Loopback, 0);
+            listener.Start();
+            int port = ((IPEndPoint)listener.LocalEndpoint).Port;
+            token = WritePortFile(portFile, port);
+
+            var watcher = new Thread(() => WatchIdle(portFile, port, idleMinutes)) { IsBackground = true };
+            watcher.Start();
+
+            while (true)
+            {
+                var client = listener.AcceptTcpClient();
+                ThreadPool.QueueUserWorkItem(_ => Handle(client));
+            }
+        }
+
+        private static void WatchIdle(string portFile, int port, int idleMinutes)
+        {
+            while (true)
+            {
+                Thread.Sleep(TimeSpan.FromSeconds(30));
+                var idle = DateTime.UtcNow - new DateTime(Interlocked.Read(ref lastRequestTicks));
+                if (Volatile.Read(ref activeRequests) == 0 && idle > TimeSpan.FromMinutes(idleMinutes))
+                {
+                    try
+                    {
+                        if (File.Exists(portFile) && File.ReadAllLines(portFile)[0] == port.ToString())
+                            File.Delete(portFile);
+                    }
+                    catch (IOException)
+                    {
+                    }
+                    Environment.Exit(0);
+                }
+            }
+        }
+
+        /// <summary>
+        /// Writes the port and a new random token, the file is restricted to the user of the node
+        /// before the token is written. In Windows it keeps the permissions of the node folder.
+        /// </summary>
+        private static byte[] WritePortFile(string portFile, int port)
+        {
+            var secret = new byte[32];
+            using (var random = RandomNumberGenerator.Create())
+                random.GetBytes(secret);
+            string text = BitConverter.ToString(secret).Replace("-", "");
+
+            string temporary = portFile + ".tmp";
+            File.WriteAllText(temporary, "");
+            RestrictToOwner(temporary);
+            File.WriteAllText(temporary, port + "\n" + text + "\n");
+            File.Move(temporary, portFile, true);
+
+            return Encoding.ASCII.GetBytes(text);
+        }
+
+        private static void RestrictToOwner(string path)
+        {
+            if (RuntimeInformation.IsOSPlatform(OSPlatform.Windows))
+                return;
+#if NET7_0_OR_GREATER
+            File.SetUnixFileMode(path, UnixFileMode.UserRead | UnixFileMode.UserWrite);
+#else
+            using (var chmod = Process.Start(new ProcessStartInfo("chmod", "600 \"" + path + "\"") { UseShellExecute = false }))
+                chmod.WaitForExit();
+#endif
+        }
+
+        private static bool IsAuthorized(string line)
+        {
+            return line != null && CryptographicOperations.FixedTimeEquals(Encoding.ASCII.GetBytes(line), token);
+        }
+
+        private static void Handle(TcpClient client)
+        {
+            Interlocked.Increment(ref activeRequests);
+            try
+            {
+                using (client)
+                using (var stream = client.GetStream())
+                using (var reader = new StreamReader(stream, new UTF8Encoding(false)))
+                using (var writer = new StreamWriter(stream, new UTF8Encoding(false)))
+                {
+                    // The probes of the plugin and any other local process are closed without a response
+                    if (!IsAuthorized(reader.ReadLine()))
+                        return;
+
+                    string line = reader.ReadLine();
+                    string response;
+                    try
+                    {
+                        using (var request = JsonDocument.Parse(line))
+                        {
+                            response = Compile(request.RootElement);
+                        }
+                    }
+                    catch (Exception error)
+                    {
+                        response = Response(false, false, new[] { error.ToString() });
+                    }
+                    writer.WriteLine(response);
+                    writer.Flush();
+                }
+            }
+            catch (IOException)
+            {
+            }
+            finally
+            {
+                Interlocked.Exchange(ref lastRequestTicks, DateTime.UtcNow.Ticks);
+                Interlocked.Decrement(ref activeRequests);
+            }
+        }
+
+        private static string Response(bool supported, bool success, IEnumerable<string> diagnostics)
+        {
+            return JsonSerializer.Serialize(new Dictionary<string, object>
+            {
+                { "supported", supported },
+                { "success", success },
+                { "diagnostics", diagnostics.ToArray() }
+            });
+        }
+
+        private static string Compile(JsonElement request)
+        {
+            string projectFolder = request.GetProperty("projectFolder").GetString();
+            string targetFramework = request.GetProperty("targetFramework").GetString();
+            string assemblyName = request.GetProperty("assemblyName").GetString();
+            string outputAssembly = Path.Combine(projectFolder, request.GetProperty("outputAssembly").GetString());
+            string runtimeConfig = Path.Combine(projectFolder, request.GetProperty("runtimeConfig").GetString());
+            bool implicitUsings = request.GetProperty("implicitUsings").GetBoolean();
+            JsonElement hasPackagesProperty;
+            bool hasPackages = !request.TryGetProperty("hasPackages", out hasPackagesProperty) || hasPackagesProperty.GetBoolean();
+
+            var runtimeFiles = new List<string>();
+            var references = GetFrameworkReferences().ToList();
+
+            // The projects without packages are compiled only with the framework, they are never restored
+            string assetsFile = Path.Combine(projectFolder, "obj", "project.assets.json");
+            if (File.Exists(assetsFile))
+            {
+                if (!AddPackageReferences(assetsFile, targetFramework, references, runtimeFiles))
+                    return Response(false, false, new[] { "The target framework is not in the restored assets." });
+            }
+            else if (hasPackages)
+            {
+                return Response(false, false, new[] { "The project is not restored." });
+            }
+
+            var parseOptions = new CSharpParseOptions(LanguageVersion.Latest)
+                .WithPreprocessorSymbols(GetPreprocessorSymbols(targetFramework));
+            var syntaxTrees = Directory.GetFiles(projectFolder, "*.cs", SearchOption.TopDirectoryOnly)
+                .Select(file => CSharpSyntaxTree.ParseText(File.ReadAllText(file), parseOptions, MappedPath + Path.GetFileName(file), Encoding.UTF8))
+                .ToList();
+
+            if (implicitUsings)
+            {
+                string globalUsings = string.Join(Environment.NewLine, ImplicitUsings.Select(x => "global using global::" + x + ";"));
+                syntaxTrees.Add(CSharpSyntaxTree.ParseText(globalUsings, parseOptions, MappedPath + "GlobalUsings.g.cs", Encoding.UTF8));
+            }
+
+            var options = new CSharpCompilationOptions(OutputKind.ConsoleApplication)
+                .WithOptimizationLevel(OptimizationLevel.Debug)
+                .WithDeterministic(true)
+                .WithNullableContextOptions(implicitUsings ? NullableContextOptions.Enable : NullableContextOptions.Disable);
+
+            var compilation = CSharpCompilation.Create(assemblyName, syntaxTrees, references, options);
+
+            string outputFolder = Path.GetDirectoryName(outputAssembly);
+            Directory.CreateDirectory(outputFolder);
+
+            var result = compilation.Emit(outputAssembly, Path.ChangeExtension(outputAssembly, ".pdb"));
+            var diagnostics = result.Diagnostics
+                .Where(x => x.Severity == DiagnosticSeverity.Error || x.Severity == DiagnosticSeverity.Warning)
+                .Select(x => x.ToString());
+
+            if (!result.Success)
+            {
+                File.Delete(outputAssembly);
+                return Response(true, false, diagnostics);
+            }
+
+            foreach (var runtimeFile in runtimeFiles)
+            {
+                string target = Path.Combine(outputFolder, Path.GetFileName(runtimeFile));
+                if (!File.Exists(target) || File.GetLastWriteTimeUtc(target) != File.GetLastWriteTimeUtc(runtimeFile))
+                    File.Copy(runtimeFile, target, true);
+            }
+
+            File.WriteAllText(runtimeConfig, GetRuntimeConfig(targetFramework, projectFolder));
+
+            return Response(true, true, diagnostics);
+        }
+
+        // Same symbols the SDK defines for a Debug build of the target framework, so the #if blocks of the scripts match dotnet build
+        private static IEnumerable<string> GetPreprocessorSymbols(string targetFramework)
+        {
+            var version = Version.Parse(targetFramework.Substring("net".Length));
+            var symbols = new List<string> { "DEBUG", "TRACE", "NET", "NETCOREAPP" };
+
+            symbols.Add("NET" + version.Major + "_" + version.Minor);
+            for (int major = 5; major <= version.Major; major++)
+                symbols.Add("NET" + major + "_0_OR_GREATER");
+
+            // The versions before net5.0 are still defined as lower bounds
+            foreach (string netCoreApp in new[] { "1_0", "1_1", "2_0", "2_1", "2_2", "3_0", "3_1" })
+                symbols.Add("NETCOREAPP" + netCoreApp + "_OR_GREATER");
+
+            return symbols;
+        }
+
+        private static string GetRuntimeConfig(string targetFramework, string projectFolder)
+        {
+            string version = targetFramework.Substring("net".Length) + ".0";
+            string configProperties = "";
+
+            // Same merge the SDK does with the template of the project
+            string template = Path.Combine(projectFolder, "runtimeconfig.template.json");
+            if (File.Exists(template))
+            {
+                using (var document = JsonDocument.Parse(File.ReadAllText(template)))
+                {
+                    JsonElement properties;
+                    if (document.RootElement.TryGetProperty("configProperties", out properties))
+                        configProperties = ",\n    \"configProperties\": " + properties.GetRawText();
+                }
+            }
+
+            return "{\n  \"runtimeOptions\": {\n    \"tfm\": \"" + targetFramework + "\",\n"
+                + "    \"framework\": {\n      \"name\": \"Microsoft.NETCore.App\",\n      \"version\": \"" + version + "\"\n    }"
+                + configProperties + "\n  }\n}\n";
+        }
+
+        private static IEnumerable<MetadataReference> GetFrameworkReferences()
+        {
+            string trusted = (string)AppContext.GetData("TRUSTED_PLATFORM_ASSEMBLIES");
+            string serviceFolder = AppContext.BaseDirectory;
+
+            return trusted.Split(Path.PathSeparator)
+                .Where(x => !x.StartsWith(serviceFolder, StringComparison.OrdinalIgnoreCase))
+                .Select(GetReference);
+        }
+
+        private static bool AddPackageReferences(string assetsFile, string targetFramework, List<MetadataReference> references, List<string> runtimeFiles)
+        {
+            using (var assets = JsonDocument.Parse(File.ReadAllText(assetsFile)))
+            {
+                var root = assets.RootElement;
+                JsonElement target;
+                if (!root.GetProperty("targets").TryGetProperty(targetFramework, out target))
+                    return false;
+
+                string packagesFolder = root.GetProperty("packageFolders").EnumerateObject().First().Name;
+                var libraries = root.GetProperty("libraries");
+
+                foreach (var library in target.EnumerateObject())
+                {
+                    JsonElement type;
+                    if (!library.Value.TryGetProperty("type", out type) || type.GetString() != "package")
+                        continue;
+
+                    string libraryPath = libraries.GetProperty(library.Name).GetProperty("path").GetString();
+
+                    foreach (var file in GetAssetFiles(library.Value, "compile"))
+                        references.Add(GetReference(Path.Combine(packagesFolder, libraryPath, file)));
+
+                    foreach (var file in GetAssetFiles(library.Value, "runtime"))
+                        runtimeFiles.Add(Path.Combine(packagesFolder, libraryPath, file));
+                }
+            }
+            return true;
+        }
+
+        private static IEnumerable<string> GetAssetFiles(JsonElement library, string group)
+        {
+            JsonElement files;
+            if (!library.TryGetProperty(group, out files))
+                return Enumerable.Empty<string>();
+
+            return files.EnumerateObject()
+                .Select(x => x.Name)
+                .Where(x => x.EndsWith(".dll", StringComparison.OrdinalIgnoreCase))
+                .ToList();
+        }
+
+        private static MetadataReference GetReference(string path)
+        {
+            var lastWrite = File.GetLastWriteTimeUtc(path);
+            var cached = References.AddOrUpdate(path,
+                key => Tuple.Create(lastWrite, (MetadataReference)MetadataReference.CreateFromFile(key)),
+                (key, current) => current.Item1 == lastWrite ? current : Tuple.Create(lastWrite, (MetadataReference)MetadataReference.CreateFromFile(key)));
+            return cached.Item2;
+        }
+    }
+}
@@ -0,0 +1,587 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+using System;
+using System.Collections.Concurrent;
+using System.Collections.Generic;
+using System.Diagnostics;
+using System.IO;
+using System.Linq;
+using System.Net;
+using System.Net.Sockets;
+using System.Reflection;
+using System.Runtime.CompilerServices;
+using System.Runtime.InteropServices;
+using System.Runtime.Loader;
+using System.Security.Cryptography;
+using System.Text;
+using System.Text.Json;
+using System.Threading;
+using System.Threading.Tasks;
+
+namespace DotNetTools.Jenkins.Services
+{
+    /// <summary>
+    /// Long lived execution host, it keeps the runtime warm and runs every
+    /// compiled script inside its own collectible AssemblyLoadContext.
+    /// Every request starts with the token written next to the port, the others are rejected.
+    /// </summary>
+    public static class ExecutionHost
+    {
+        private static readonly string[] SharedAssemblies = new string[] { "Newtonsoft.Json" };
+        private static readonly ConcurrentDictionary<string, Assembly> Shared = new ConcurrentDictionary<string, Assembly>();
+        private static readonly OutputRouter Router = new OutputRouter(Console.Out);
+
+        private static readonly DirectoryGate Directories = new DirectoryGate();
+        private static readonly TimeSpan CancelGrace = TimeSpan.FromSeconds(30);
+
+        private static SemaphoreSlim slots;
+        private static long lastRequestTicks = DateTime.UtcNow.Ticks;
+        private static int activeRequests = 0;
+        private static int abandonedRequests = 0;
+        private static int executions = 0;
+        private static int maxExecutions;
+        private static long maxMemoryBytes;
+        private static volatile bool recycling = false;
+        private static string portFile;
+        private static int port;
+        private static byte[] token;
+
+        public static int Main(string[] args)
+        {
+            portFile = args[0];
+            int idleMinutes = args.Length > 1 ? int.Parse(args[1]) : 30;
+            int maxConcurrent = args.Length > 2 ? int.Parse(args[2]) : Environment.ProcessorCount;
+            maxExecutions = args.Length > 3 ? int.Parse(args[3]) : 100;
+            maxMemoryBytes = (args.Length > 4 ? long.Parse(args[4]) : 1024) * 1024 * 1024;
+
+            slots = new SemaphoreSlim(maxConcurrent, maxConcurrent);
+            Console.SetOut(Router);
+
+            var listener = new TcpListener(IPAddress.Loopback, 0);
+            listener.Start();
+            port = ((IPEndPoint)listener.LocalEndpoint).Port;
+            token = WritePortFile();
+
+            var watcher = new Thread(() => WatchIdle(idleMinutes)) { IsBackground = true };
+            watcher.Start();
+
+            while (!recycling)
+            {
+                var client = listener.AcceptTcpClient();
+                Interlocked.Increment(ref activeRequests);
+                ThreadPool.QueueUserWorkItem(_ => Handle(client));
+            }
+
+            return 0;
+        }
+
+        private static void WatchIdle(int idleMinutes)
+        {
+            while (true)
+            {
+                Thread.Sleep(TimeSpan.FromSeconds(5));
+                var idle = DateTime.UtcNow - new DateTime(Interlocked.Read(ref lastRequestTicks));
+                // The scripts that ignored the cancellation don't keep the host alive
+                bool active = Volatile.Read(ref activeRequests) > Volatile.Read(ref abandonedRequests);
+
+                if (!active && (recycling || idle > TimeSpan.FromMinutes(idleMinutes)))
+                {
+                    Stop();
+                }
+            }
+        }
+
+        /// <summary>
+        /// Stops accepting new scripts, the running ones are completed before the process exits
+        /// </summary>
+        private static void Recycle()
+        {
+            if (recycling)
+                return;
+
+            recycling = true;
+            ReleasePortFile();
+        }
+
+        private static void ReleasePortFile()
+        {
+            try
+            {
+                if (File.Exists(portFile) && File.ReadAllLines(portFile)[0] == port.ToString())
+                    File.Delete(portFile);
+            }
+            catch (IOException)
+            {
+            }
+        }
+
+        /// <summary>
+        /// Writes the port and a new random token, the file is restricted to the user of the node
+        /// before the token is written. In Windows it keeps the permissions of the node folder.
+        /// </summary>
+        private static byte[] WritePortFile()
+        {
+            var secret = new byte[32];
+            using (var random = RandomNumberGenerator.Create())
+                random.GetBytes(secret);
+            string text = BitConverter.ToString(secret).Replace("-", "");
+
+            string temporary = portFile + ".tmp";
+            File.WriteAllText(temporary, "");
+            RestrictToOwner(temporary);
+            File.WriteAllText(temporary, port + "\n" + text + "\n");
+            File.Move(temporary, portFile, true);
+
+            return Encoding.ASCII.GetBytes(text);
+        }
+
+        private static void RestrictToOwner(string path)
+        {
+            if (RuntimeInformation.IsOSPlatform(OSPlatform.Windows))
+                return;
+#if NET7_0_OR_GREATER
+            File.SetUnixFileMode(path, UnixFileMode.UserRead | UnixFileMode.UserWrite);
+#else
+            using (var chmod = Process.Start(new ProcessStartInfo("chmod", "600 \"" + path + "\"") { UseShellExecute = false }))
+                chmod.WaitForExit();
+#endif
+        }
+
+        private static bool IsAuthorized(string line)
+        {
+            return line != null && CryptographicOperations.FixedTimeEquals(Encoding.ASCII.GetBytes(line), token);
+        }
+
+        private static void Stop()
+        {
+            ReleasePortFile();
+            Environment.Exit(0);
+        }
+
+        private static void Handle(TcpClient client)
+        {
+            var request = new RequestState();
+            bool authorized = false;
+            try
+            {
+                using (client)
+                using (var stream = client.GetStream())
+                using (var reader = new StreamReader(stream, new UTF8Encoding(false)))
+                using (var writer = new StreamWriter(stream, new UTF8Encoding(false)) { AutoFlush = true })
+                {
+                    // The probes of the plugin and any other local process are closed without a response
+                    authorized = IsAuthorized(reader.ReadLine());
+                    if (!authorized)
+                        return;
+
+                    var frames = new FrameWriter(writer);
+                    if (recycling)
+                    {
+                        frames.Write("unavailable", null);
+                        return;
+                    }
+
+                    string line = reader.ReadLine();
+                    var cancellation = new CancellationTokenSource();
+                    Task.Run(() => WatchCancel(reader, request, cancellation.Cancel));
+
+                    slots.Wait(cancellation.Token);
+                    try
+                    {
+                        int exitCode;
+                        try
+                        {
+                            exitCode = Execute(line, frames, cancellation.Token);
+                        }
+                        catch (Exception error) when (!(error is IOException))
+                        {
+                            frames.Write("output", error.ToString());
+                            exitCode = 1;
+                        }
+                        frames.Write("exit", exitCode);
+                    }
+                    finally
+                    {
+                        slots.Release();
+                    }
+                }
+            }
+            catch (IOException)
+            {
+            }
+            catch (OperationCanceledException)
+            {
+            }
+            finally
+            {
+                if (request.Finish())
+                    Interlocked.Decrement(ref abandonedRequests);
+
+                if (authorized)
+                {
+                    Interlocked.Exchange(ref lastRequestTicks, DateTime.UtcNow.Ticks);
+                    int done = Interlocked.Increment(ref executions);
+                    if (done >= maxExecutions || Process.GetCurrentProcess().WorkingSet64 > maxMemoryBytes)
+                        Recycle();
+                }
+                Interlocked.Decrement(ref activeRequests);
+            }
+        }
+
+        /// <summary>
+        /// Waits for the cancel frame of the plugin or the end of the connection, a script that doesn't
+        /// stop in the grace period is abandoned and the host is recycled to release it with the process
+        /// </summary>
+        private static void WatchCancel(StreamReader reader, RequestState request, Action cancel)
+        {
+            try
+            {
+                string line;
+                while ((line = reader.ReadLine()) != null && !line.Contains("\"cancel\""))
+                {
+                }
+            }
+            catch (Exception error) when (error is IOException || error is ObjectDisposedException)
+            {
+            }
+
+            if (request.IsFinished)
+                return;
+
+            cancel();
+            if (!request.WaitFinished(CancelGrace) && request.Abandon())
+            {
+                Interlocked.Increment(ref abandonedRequests);
+                Recycle();
+            }
+        }
+
+        private static int Execute(string line, FrameWriter frames, CancellationToken cancellationToken)
+        {
+            string assemblyPath;
+            string resultFile;
+            string workingDirectory;
+            string[] arguments;
+            var environment = new Dictionary<string, string>();
+
+            using (var request = JsonDocument.Parse(line))
+            {
+                var root = request.RootElement;
+                assemblyPath = root.GetProperty("assembly").GetString();
+                resultFile = root.GetProperty("resultFile").GetString();
+                workingDirectory = root.GetProperty("workingDirectory").GetString();
+                arguments = root.GetProperty("arguments").EnumerateArray().Select(x => x.GetString()).ToArray();
+                foreach (var variable in root.GetProperty("environment").EnumerateObject())
+                    environment[variable.Name] = variable.Value.GetString();
+            }
+
+            var output = new FrameTextWriter(frames);
+            Router.Current.Value = output;
+            WeakReference contextReference;
+            int exitCode;
+            try
+            {
+                // The working directory is shared by the whole process, only the scripts of the same directory run together
+                Directories.Enter(workingDirectory);
+                try
+                {
+                    exitCode = Run(assemblyPath, arguments, environment, resultFile, cancellationToken, out contextReference);
+                }
+                finally
+                {
+                    Directories.Exit();
+                }
+            }
+            finally
+            {
+                output.Flush();
+                Router.Current.Value = null;
+            }
+
+            for (int i = 0; contextReference.IsAlive && i < 10; i++)
+            {
+                GC.Collect();
+                GC.WaitForPendingFinalizers();
+            }
+
+            return exitCode;
+        }
+
+        [MethodImpl(MethodImplOptions.NoInlining)]
+        private static int Run(string assemblyPath, string[] arguments, IDictionary<string, string> environment, string resultFile, CancellationToken cancellationToken, out WeakReference contextReference)
+        {
+            var context = new ScriptLoadContext(assemblyPath);
+            contextReference = new WeakReference(context);
+            try
+            {
+                var assembly = context.LoadFromAssemblyPath(assemblyPath);
+                var executor = assembly.GetType("DotNetTools.Jenkins.JenkinsExecutor", true);
+                var execute = executor.GetMethod("ExecuteHosted", BindingFlags.Public | BindingFlags.Static);
+
+                try
+                {
+                    return (int)execute.Invoke(null, new object[] { arguments, environment, resultFile, cancellationToken });
+                }
+                catch (TargetInvocationException error)
+                {
+                    Console.WriteLine(error.InnerException);
+                    return 1;
+                }
+            }
+            finally
+            {
+                context.Unload();
+            }
+        }
+
+        /// <summary>
+        /// The state of a request, a script is finished when it returns and abandoned when
+        /// it didn't stop in the grace period after the cancellation
+        /// </summary>
+        private class RequestState
+        {
+            private const int Running = 0;
+            private const int Finished = 1;
+            private const int Abandoned = 2;
+
+            private readonly ManualResetEventSlim finished = new ManualResetEventSlim(false);
+            private int state = Running;
+
+            public bool IsFinished => this.finished.IsSet;
+
+            public bool WaitFinished(TimeSpan timeout) => this.finished.Wait(timeout);
+
+            public bool Abandon() => Interlocked.CompareExchange(ref this.state, Abandoned, Running) == Running;
+
+            /// <returns>true if the request was abandoned before</returns>
+            public bool Finish()
+            {
+                this.finished.Set();
+                return Interlocked.Exchange(ref this.state, Finished) == Abandoned;
+            }
+        }
+
+        /// <summary>
+        /// Sets the working directory of the process for the running scripts, the scripts of the current
+        /// directory run at the same time and a script of other directory waits until they finish.
+        /// The scripts of the current directory don't go ahead of the ones waiting for other directory.
+        /// </summary>
+        private class DirectoryGate
+        {
+            private readonly object sync = new object();
+            private readonly Dictionary<string, int> waiting = new Dictionary<string, int>();
+            private string current;
+            private int users;
+
+            public void Enter(string directory)
+            {
+                lock (this.sync)
+                {
+                    this.AddWaiting(directory, 1);
+                    try
+                    {
+                        while (!this.CanEnter(directory))
+                            Monitor.Wait(this.sync);
+                    }
+                    finally
+                    {
+                        this.AddWaiting(directory, -1);
+                    }
+
+                    if (this.users == 0)
+                    {
+                        try
+                        {
+                            Directory.SetCurrentDirectory(directory);
+                        }
+                        catch
+                        {
+                            // The scripts held back by this one can go ahead
+                            Monitor.PulseAll(this.sync);
+                            throw;
+                        }
+                        this.current = directory;
+                    }
+                    this.users++;
+                }
+            }
+
+            public void Exit()
+            {
+                lock (this.sync)
+                {
+                    this.users--;
+                    Monitor.PulseAll(this.sync);
+                }
+            }
+
+            private bool CanEnter(string directory)
+            {
+                if (this.users == 0)
+                    return true;
+
+                return directory == this.current && !this.waiting.Keys.Any(x => x != this.current);
+            }
+
+            private void AddWaiting(string directory, int count)
+            {
+                int value;
+                this.waiting.TryGetValue(directory, out value);
+                value += count;
+
+                if (value == 0)
+                    this.waiting.Remove(directory);
+                else
+                    this.waiting[directory] = value;
+            }
+        }
+
+        private class ScriptLoadContext : AssemblyLoadContext
+        {
+            private readonly AssemblyDependencyResolver resolver;
+
+            public ScriptLoadContext(string assemblyPath) : base(isCollectible: true)
+            {
+                this.resolver = new AssemblyDependencyResolver(assemblyPath);
+            }
+
+            protected override Assembly Load(AssemblyName assemblyName)
+            {
+                string path = this.resolver.ResolveAssemblyToPath(assemblyName);
+                if (path == null)
+                    return null;
+
+                if (SharedAssemblies.Contains(assemblyName.Name))
+                {
+                    // The shared dependencies stay loaded in the host when the version matches
+                    var shared = Shared.GetOrAdd(assemblyName.Name, _ => AssemblyLoadContext.Default.LoadFromAssemblyPath(path));
+                    if (shared.GetName().Version == assemblyName.Version)
+                        return shared;
+                }
+
+                return this.LoadFromAssemblyPath(path);
+            }
+
+            protected override IntPtr LoadUnmanagedDll(string unmanagedDllName)
+            {
+                string path = this.resolver.ResolveUnmanagedDllToPath(unmanagedDllName);
+                return path == null ? IntPtr.Zero : this.LoadUnmanagedDllFromPath(path);
+            }
+        }
+
+        /// <summary>
+        /// Sends the response frames, one JSON object per line
+        /// </summary>
+        private class FrameWriter
+        {
+            private readonly StreamWriter writer;
+
+            public FrameWriter(StreamWriter writer)
+            {
+                this.writer = writer;
+            }
+
+            public void Write(string type, object value)
+            {
+                string frame = JsonSerializer.Serialize(new Dictionary<string, object> { { "type", type }, { "value", value } });
+                lock (this.writer)
+                {
+                    this.writer.WriteLine(frame);
+                }
+            }
+        }
+
+        /// <summary>
+        /// Sends the console output of a script as output frames, line by line
+        /// </summary>
+        private class FrameTextWriter : TextWriter
+        {
+            private readonly FrameWriter frames;
+            private readonly StringBuilder line = new StringBuilder();
+
+            public FrameTextWriter(FrameWriter frames)
+            {
+                this.frames = frames;
+            }
+
+            public override Encoding Encoding => Encoding.UTF8;
+
+            public override void Write(char value)
+            {
+                lock (this.line)
+                {
+                    if (value == '\n')
+                    {
+                        this.frames.Write("output", this.line.ToString().TrimEnd('\r'));
+                        this.line.Clear();
+                    }
+                    else
+                    {
+                        this.line.Append(value);
+                    }
+                }
+            }
+
+            public override void Flush()
+            {
+                lock (this.line)
+                {
+                    if (this.line.Length > 0)
+                    {
+                        this.frames.Write("output", this.line.ToString());
+                        this.line.Clear();
+                    }
+                }
+            }
+        }
+
+        /// <summary>
+        /// Routes the console output to the script that is running in the current execution flow
+        /// </summary>
+        private class OutputRouter : TextWriter
+        {
+            private readonly TextWriter fallback;
+
+            public readonly AsyncLocal<TextWriter> Current = new AsyncLocal<TextWriter>();
+
+            public OutputRouter(TextWriter fallback)
+            {
+                this.fallback = fallback;
+            }
+
+            public override Encoding Encoding => Encoding.UTF8;
+
+            private TextWriter Target => this.Current.Value ?? this.fallback;
+
+            public override void Write(char value) => this.Target.Write(value);
+
+            public override void Write(string value) => this.Target.Write(value);
+
+            public override void WriteLine(string value) => this.Target.WriteLine(value);
+
+            public override void Flush() => this.Target.Flush();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+using System;
+using System.Collections.Generic;
+using System.IO;
+using System.IO.MemoryMappedFiles;
+using System.Text;
+
+namespace DotNetTools.Jenkins
+{
+    // Layout shared with the plugin: the magic, the version, the entry count and a reserved field,
+    // then every entry as the key length, the UTF-8 key, the data length and the data, in little endian
+    static class JenkinsDataFormat
+    {
+        public const int Magic = 0x44534E44;
+        public const int Version = 1;
+        public const int HeaderSize = 16;
+    }
+
+    /// <summary>
+    /// Reads the data file written by the plugin, the file is mapped in memory and the
+    /// data of every entry is read from the mapping without intermediate copies.
+    /// </summary>
+    class JenkinsDataReader : IDisposable
+    {
+        private readonly MemoryMappedFile file;
+        private readonly MemoryMappedViewAccessor accessor;
+        private readonly Dictionary<string, Tuple<long, long>> entries = new Dictionary<string, Tuple<long, long>>();
+
+        public JenkinsDataReader(string path)
+        {
+            this.file = MemoryMappedFile.CreateFromFile(path, FileMode.Open, null, 0, MemoryMappedFileAccess.Read);
+            this.accessor = this.file.CreateViewAccessor(0, 0, MemoryMappedFileAccess.Read);
+
+            // The accessor reads in the order of the machine, the nodes are little endian
+            if (this.accessor.ReadInt32(0) != JenkinsDataFormat.Magic || this.accessor.ReadInt32(4) != JenkinsDataFormat.Version)
+            {
+                this.Dispose();
+                throw new InvalidDataException("The data file of the step is not valid.");
+            }
+
+            int count = this.accessor.ReadInt32(8);
+            long position = JenkinsDataFormat.HeaderSize;
+
+            for (int i = 0; i < count; i++)
+            {
+                int keyLength = this.accessor.ReadInt32(position);
+                var key = new byte[keyLength];
+                this.accessor.ReadArray(position + 4, key, 0, keyLength);
+                long length = this.accessor.ReadInt64(position + 4 + keyLength);
+                long offset = position + 12 + keyLength;
+
+                this.entries[Encoding.UTF8.GetString(key)] = Tuple.Create(offset, length);
+                position = offset + length;
+            }
+        }
+
+        public bool Contains(string key)
+        {
+            return this.entries.ContainsKey(key);
+        }
+
+        public byte[] Read(string key)
+        {
+            Tuple<long, long> entry;
+            if (!this.entries.TryGetValue(key, out entry))
+                return null;
+
+            if (entry.Item2 > int.MaxValue)
+                throw new InvalidOperationException("The data " + key + " is too large for an array, it must be read with OpenData.");
+
+            var data = new byte[entry.Item2];
+            this.accessor.ReadArray(entry.Item1, data, 0, data.Length);
+            return data;
+        }
+
+        public Stream Open(string key)
+        {
+            Tuple<long, long> entry;
+            if (!this.entries.TryGetValue(key, out entry))
+                return null;
+
+            // A view of length zero would map the whole file
+            if (entry.Item2 == 0)
+                return new MemoryStream(new byte[0], false);
+
+            return this.file.CreateViewStream(entry.Item1, entry.Item2, MemoryMappedFileAccess.Read);
+        }
+
+        public void Dispose()
+        {
+            this.accessor.Dispose();
+            this.file.Dispose();
+        }
+    }
+
+    /// <summary>
+    /// Writes the data saved by the script to a file mapped in memory, the mapping grows
+    /// as needed and the file is trimmed to its content when it is closed.
+    /// </summary>
+    class JenkinsDataWriter : IDisposable
+    {
+        private const long InitialCapacity = 1024 * 1024;
+        private const int CopyBufferSize = 81920;
+
+        private readonly string path;
+        private readonly object sync = new object();
+        private MemoryMappedFile file;
+        private MemoryMappedViewAccessor accessor;
+        private long capacity;
+        private long position = JenkinsDataFormat.HeaderSize;
+        private int count;
+        private bool closed;
+
+        public JenkinsDataWriter(string path)
+        {
+            this.path = path;
+
+            if (File.Exists(path))
+                File.Delete(path);
+
+            this.Map(InitialCapacity);
+            this.accessor.Write(0, JenkinsDataFormat.Magic);
+            this.accessor.Write(4, JenkinsDataFormat.Version);
+            this.accessor.Write(8, 0);
+            this.accessor.Write(12, 0);
+        }
+
+        public void Write(string key, byte[] data)
+        {
+            lock (this.sync)
+            {
+                long offset = this.BeginEntry(key);
+                this.Ensure(offset + data.Length);
+                this.accessor.WriteArray(offset, data, 0, data.Length);
+                this.EndEntry(key, offset, data.Length);
+            }
+        }
+
+        public void Write(string key, Stream data)
+        {
+            lock (this.sync)
+            {
+                long offset = this.BeginEntry(key);
+                long length = 0;
+                var buffer = new byte[CopyBufferSize];
+                int read;
+
+                while ((read = data.Read(buffer, 0, buffer.Length)) > 0)
+                {
+                    this.Ensure(offset + length + read);
+                    this.accessor.WriteArray(offset + length, buffer, 0, read);
+                    length += read;
+                }
+
+                this.EndEntry(key, offset, length);
+            }
+        }
+
+        private long BeginEntry(string key)
+        {
+            if (this.closed)
+                throw new ObjectDisposedException("JenkinsDataWriter", "The data of the script was already published.");
+
+            byte[] name = Encoding.UTF8.GetBytes(key);
+            this.Ensure(this.position + 12 + name.Length);
+            this.accessor.Write(this.position, name.Length);
+            this.accessor.WriteArray(this.position + 4, name, 0, name.Length);
+            return this.position + 12 + name.Length;
+        }
+
+        private void EndEntry(string key, long offset, long length)
+        {
+            this.accessor.Write(offset - 8, length);
+            this.position = offset + length;
+
+            // The entry is counted once it is complete, an interrupted script leaves only complete entries
+            this.accessor.Write(8, ++this.count);
+        }
+
+        private void Ensure(long required)
+        {
+            if (required <= this.capacity)
+                return;
+
+            long newCapacity = this.capacity;
+            while (newCapacity < required)
+                newCapacity *= 2;
+
+            this.Unmap();
+            this.Map(newCapacity);
+        }
+
+        private void Map(long newCapacity)
+        {
+            this.file = MemoryMappedFile.CreateFromFile(this.path, FileMode.OpenOrCreate, null, newCapacity, MemoryMappedFileAccess.ReadWrite);
+            this.accessor = this.file.CreateViewAccessor(0, newCapacity, MemoryMappedFileAccess.ReadWrite);
+            this.capacity = newCapacity;
+        }
+
+        private void Unmap()
+        {
+            this.accessor.Flush();
+            this.accessor.Dispose();
+            this.file.Dispose();
+        }
+
+        public void Dispose()
+        {
+            lock (this.sync)
+            {
+                if (this.closed)
+                    return;
+
+                this.closed = true;
+                this.Unmap();
+
+                using (var stream = new FileStream(this.path, FileMode.Open, FileAccess.Write, FileShare.ReadWrite))
+                {
+                    stream.SetLength(this.position);
+                }
+            }
+        }
+    }
+}
@@ -1,67 +1,253 @@
-/*
- * The MIT License
- *
- * Copyright 2017 Ariel.Lenis.
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-
-using Newtonsoft.Json;
-using System;
-using System.Collections.Generic;
-using System.IO;
-
-namespace DotNetTools.Jenkins
-{
-    [Serializable]
-    public class JenkinsManager
-    {
-        public Dictionary<string, string> SavedEnvironment;
-
-        public JenkinsManager()
-        {
-            this.SavedEnvironment = new Dictionary<string, string>();
-        }
-
-        public void SetSessionEnv(string key, string value)
-        {
-            if (this.SavedEnvironment.ContainsKey(key))
-                this.SavedEnvironment[key] = value;
-            else
-                this.SavedEnvironment.Add(key, value);
-        }
-
-        public string GetSessionEnv(string key)
-        {
-            var currentVariables = Environment.GetEnvironmentVariables();
-            if (this.SavedEnvironment.ContainsKey(key))
-                return this.SavedEnvironment[key];
-            else if (currentVariables.Contains(key))
-                return Environment.GetEnvironmentVariable(key);
-
-            return null;
-        }
-            
-        public void SaveForPublish()
-        {
-            string json = JsonConvert.SerializeObject(this, Formatting.Indented);
-            File.WriteAllText("jenkinsExecution.json", json);
-        }
-    }
-}
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+using System;
+using System.Collections.Generic;
+using System.IO;
+using System.Text;
+using System.Threading;
+#if NETCOREAPP1_0 || NETCOREAPP1_1 || NETCOREAPP2_0 || NETCOREAPP2_1 || NETCOREAPP2_2
+using Newtonsoft.Json;
+#else
+using System.Text.Json;
+using System.Text.Json.Serialization;
+#endif
+
+namespace DotNetTools.Jenkins
+{
+    [Serializable]
+    public class JenkinsManager
+    {
+        // Variable with the result channel file, set by the plugin for every run
+        private const string ResultFileVariable = "DOTNETASSCRIPT_RESULT_FILE";
+
+        // Variables with the data files mapped in memory, set by the plugin when the step exchanges data
+        private const string DataInputVariable = "DOTNETASSCRIPT_DATA_INPUT";
+        private const string DataOutputVariable = "DOTNETASSCRIPT_DATA_OUTPUT";
+
+        public Dictionary<string, string> SavedEnvironment;
+
+        private readonly IDictionary<string, string> environment;
+        private readonly string resultFile;
+        private JenkinsDataReader dataReader;
+        private JenkinsDataWriter dataWriter;
+
+        [NonSerialized]
+        private CancellationToken cancellationToken;
+
+        public JenkinsManager() : this(null, Environment.GetEnvironmentVariable(ResultFileVariable) ?? "jenkinsExecution.jsonl", CancellationToken.None)
+        {
+        }
+
+        public JenkinsManager(IDictionary<string, string> environment, string resultFile, CancellationToken cancellationToken)
+        {
+            this.SavedEnvironment = new Dictionary<string, string>();
+            this.environment = environment;
+            this.resultFile = resultFile;
+            this.cancellationToken = cancellationToken;
+        }
+
+        // Signaled when the build is aborted while the script runs inside the execution host,
+        // a script started with the command line is stopped with its process instead
+        public CancellationToken CancellationToken
+        {
+            get { return this.cancellationToken; }
+        }
+
+        public void SetSessionEnv(string key, string value)
+        {
+            if (this.SavedEnvironment.ContainsKey(key))
+                this.SavedEnvironment[key] = value;
+            else
+                this.SavedEnvironment.Add(key, value);
+
+            this.Publish(new Dictionary<string, string> { { "type", "env" }, { "key", key }, { "value", value } });
+        }
+
+        public string GetSessionEnv(string key)
+        {
+            if (this.SavedEnvironment.ContainsKey(key))
+                return this.SavedEnvironment[key];
+
+            return this.GetVariable(key);
+        }
+
+        // Only the requested variable is read, not the whole environment block
+        private string GetVariable(string key)
+        {
+            if (this.environment != null)
+            {
+                string value;
+                return this.environment.TryGetValue(key, out value) ? value : null;
+            }
+
+            return Environment.GetEnvironmentVariable(key);
+        }
+
+        // Checks if the step sent data with the given key
+        public bool HasData(string key)
+        {
+            var reader = this.GetDataReader();
+            return reader != null && reader.Contains(key);
+        }
+
+        // Gets the data sent by the step, null if the step did not send the key
+        public byte[] GetData(string key)
+        {
+            var reader = this.GetDataReader();
+            return reader == null ? null : reader.Read(key);
+        }
+
+        // Gets the data sent by the step as UTF-8 text, null if the step did not send the key
+        public string GetDataString(string key)
+        {
+            var data = this.GetData(key);
+            return data == null ? null : Encoding.UTF8.GetString(data);
+        }
+
+        // Opens a read only stream over the mapped data, for data larger than an array or to avoid the copy
+        public Stream OpenData(string key)
+        {
+            var reader = this.GetDataReader();
+            return reader == null ? null : reader.Open(key);
+        }
+
+        // Saves binary data, the step writes it to its data folder as a file named as the key
+        public void SaveData(string key, byte[] data)
+        {
+            this.GetDataWriter(key).Write(key, data);
+        }
+
+        // Saves text as UTF-8 data
+        public void SaveData(string key, string value)
+        {
+            this.GetDataWriter(key).Write(key, Encoding.UTF8.GetBytes(value));
+        }
+
+        // Saves the content of a stream, it is copied to the mapped file by blocks
+        public void SaveData(string key, Stream data)
+        {
+            this.GetDataWriter(key).Write(key, data);
+        }
+
+        private JenkinsDataReader GetDataReader()
+        {
+            lock (this.SavedEnvironment)
+            {
+                if (this.dataReader == null)
+                {
+                    string path = this.GetVariable(DataInputVariable);
+                    if (string.IsNullOrEmpty(path) || !File.Exists(path))
+                        return null;
+
+                    this.dataReader = new JenkinsDataReader(path);
+                }
+                return this.dataReader;
+            }
+        }
+
+        private JenkinsDataWriter GetDataWriter(string key)
+        {
+            if (string.IsNullOrEmpty(key) || key == "." || key == ".." || key.IndexOf('/') >= 0 || key.IndexOf('\\') >= 0)
+                throw new ArgumentException("The data key must be a valid file name.", "key");
+
+            lock (this.SavedEnvironment)
+            {
+                if (this.dataWriter == null)
+                {
+                    string path = this.GetVariable(DataOutputVariable);
+                    if (string.IsNullOrEmpty(path))
+                        throw new InvalidOperationException("The step has no data folder, the script cannot save data.");
+
+                    this.dataWriter = new JenkinsDataWriter(path);
+                }
+                return this.dataWriter;
+            }
+        }
+
+        // Releases the mapped files, the saved data is complete before the channel is closed
+        private void CloseData()
+        {
+            lock (this.SavedEnvironment)
+            {
+                if (this.dataReader != null)
+                    this.dataReader.Dispose();
+                if (this.dataWriter != null)
+                    this.dataWriter.Dispose();
+
+                this.dataReader = null;
+                this.dataWriter = null;
+            }
+        }
+
+        // Saves a typed value, the pipeline step returns it as it is, with the numbers, lists and objects
+        public void SaveValue(string key, object value)
+        {
+#if NETCOREAPP1_0 || NETCOREAPP1_1 || NETCOREAPP2_0 || NETCOREAPP2_1 || NETCOREAPP2_2
+            // The frameworks older than netcoreapp3.0 have no System.Text.Json, the plugin adds Newtonsoft.Json to their projects
+            string json = JsonConvert.SerializeObject(value);
+#else
+            string json = JsonSerializer.Serialize(value, value == null ? typeof(object) : value.GetType());
+#endif
+            this.Publish(new Dictionary<string, string> { { "type", "value" }, { "key", key }, { "value", json } });
+        }
+
+        // Reports the exit code of a step when the steps of a build run in one batch
+        public void SaveStepResult(int step, int exitCode)
+        {
+            this.Publish(new Dictionary<string, string> { { "type", "step" }, { "index", step.ToString() }, { "exit", exitCode.ToString() } });
+        }
+
+        // Closes the result channel, the plugin treats a channel without this frame as an interrupted run
+        public void SaveForPublish()
+        {
+            this.CloseData();
+            this.Publish(new Dictionary<string, string> { { "type", "end" } });
+        }
+
+        // Every result is appended as one JSON line as soon as it happens
+        private void Publish(Dictionary<string, string> frame)
+        {
+#if NETCOREAPP1_0 || NETCOREAPP1_1 || NETCOREAPP2_0 || NETCOREAPP2_1 || NETCOREAPP2_2
+            string line = JsonConvert.SerializeObject(frame) + "\n";
+#elif NET6_0_OR_GREATER
+            string line = JsonSerializer.Serialize(frame, JenkinsJsonContext.Default.DictionaryStringString) + "\n";
+#else
+            string line = JsonSerializer.Serialize(frame) + "\n";
+#endif
+            lock (this.SavedEnvironment)
+            {
+                File.AppendAllText(this.resultFile, line);
+            }
+        }
+    }
+
+#if NET6_0_OR_GREATER
+    // The frames are serialized with the code generated at build time, without reflection
+    [JsonSerializable(typeof(Dictionary<string, string>))]
+    internal partial class JenkinsJsonContext : JsonSerializerContext
+    {
+    }
+#endif
+}
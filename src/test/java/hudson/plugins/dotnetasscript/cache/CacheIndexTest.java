@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the persistent index of a cache root
+ * @author Ariel.Lenis
+ */
+public class CacheIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void loadsMissingIndexEmpty() throws IOException {
+        CacheIndex index = CacheIndex.load(new File(this.folder.getRoot(), "index"));
+
+        assertFalse(index.existed());
+        assertEquals(0, index.getTotalSize());
+        assertTrue(index.getLeastRecentlyUsed().isEmpty());
+    }
+
+    @Test
+    public void savesAndLoadsEntries() throws IOException {
+        File file = new File(this.folder.getRoot(), "index");
+        CacheIndex index = CacheIndex.load(file);
+        index.put(new CacheIndex.Entry("first", 100, 10, 1));
+        index.put(new CacheIndex.Entry("second", 200, 20, 5));
+        index.save();
+
+        CacheIndex loaded = CacheIndex.load(file);
+
+        assertTrue(loaded.existed());
+        assertEquals(30, loaded.getTotalSize());
+        assertEquals(200, loaded.get("second").getLastUsed());
+        assertEquals(20, loaded.get("second").getSize());
+        assertEquals(5, loaded.get("second").getHits());
+        assertFalse(new File(this.folder.getRoot(), "index.tmp").exists());
+    }
+
+    @Test
+    public void skipsDamagedLines() throws IOException {
+        File file = new File(this.folder.getRoot(), "index");
+        Files.write(file.toPath(), "valid\t100\t10\t1\nshort\t100\nnumber\tx\t10\t1\n\n".getBytes("UTF-8"));
+
+        CacheIndex index = CacheIndex.load(file);
+
+        assertEquals(1, index.getLeastRecentlyUsed().size());
+        assertEquals(10, index.getTotalSize());
+        assertNull(index.get("short"));
+        assertNull(index.get("number"));
+    }
+
+    @Test
+    public void recordsUses() throws IOException {
+        CacheIndex index = CacheIndex.load(new File(this.folder.getRoot(), "index"));
+        index.put(new CacheIndex.Entry("key", 100, 10, 0));
+
+        index.get("key").use(300);
+        index.get("key").use(400);
+
+        assertEquals(400, index.get("key").getLastUsed());
+        assertEquals(2, index.get("key").getHits());
+    }
+
+    @Test
+    public void sortsLeastRecentlyUsedFirst() throws IOException {
+        CacheIndex index = CacheIndex.load(new File(this.folder.getRoot(), "index"));
+        index.put(new CacheIndex.Entry("recent", 300, 1, 0));
+        index.put(new CacheIndex.Entry("old", 100, 1, 0));
+        index.put(new CacheIndex.Entry("middle", 200, 1, 0));
+
+        List<CacheIndex.Entry> entries = index.getLeastRecentlyUsed();
+
+        assertEquals("old", entries.get(0).getKey());
+        assertEquals("middle", entries.get(1).getKey());
+        assertEquals("recent", entries.get(2).getKey());
+    }
+
+    @Test
+    public void replacesAndRemovesEntries() throws IOException {
+        CacheIndex index = CacheIndex.load(new File(this.folder.getRoot(), "index"));
+        index.put(new CacheIndex.Entry("key", 100, 10, 0));
+        index.put(new CacheIndex.Entry("key", 200, 15, 0));
+
+        assertEquals(15, index.getTotalSize());
+
+        index.remove("key");
+
+        assertNull(index.get("key"));
+        assertEquals(0, index.getTotalSize());
+    }
+}
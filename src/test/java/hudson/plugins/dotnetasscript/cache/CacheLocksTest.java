@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.cache;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the locks of the cache keys
+ * @author Ariel.Lenis
+ */
+public class CacheLocksTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void createsTheLockFile() throws Exception {
+        File locks = new File(this.folder.getRoot(), "locks");
+
+        assertTrue(CacheLocks.acquire(locks, "created", "created-1", 0));
+        try {
+            assertTrue(new File(locks, "created.lock").isFile());
+        } finally {
+            CacheLocks.release("created-1");
+        }
+    }
+
+    @Test
+    public void failsWhileTheKeyIsHeld() throws Exception {
+        File locks = this.folder.getRoot();
+
+        assertTrue(CacheLocks.acquire(locks, "held", "held-1", 0));
+        try {
+            assertFalse(CacheLocks.acquire(locks, "held", "held-2", 0));
+            assertFalse(CacheLocks.acquire(locks, "held", "held-3", 100));
+        } finally {
+            CacheLocks.release("held-1");
+        }
+
+        assertTrue(CacheLocks.acquire(locks, "held", "held-4", 0));
+        CacheLocks.release("held-4");
+    }
+
+    @Test
+    public void holdsDifferentKeysAtTheSameTime() throws Exception {
+        File locks = this.folder.getRoot();
+
+        assertTrue(CacheLocks.acquire(locks, "a", "a-1", 0));
+        try {
+            assertTrue(CacheLocks.acquire(locks, "b", "b-1", 0));
+            CacheLocks.release("b-1");
+        } finally {
+            CacheLocks.release("a-1");
+        }
+    }
+
+    @Test
+    public void holdsKeysWithTheSameHashAtTheSameTime() throws Exception {
+        File locks = this.folder.getRoot();
+
+        // The keys have the same hash code, a lock shared by hash would block the second one
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertTrue(CacheLocks.acquire(locks, "Aa", "Aa-1", 0));
+        try {
+            assertTrue(CacheLocks.acquire(locks, "BB", "BB-1", 0));
+            CacheLocks.release("BB-1");
+        } finally {
+            CacheLocks.release("Aa-1");
+        }
+    }
+
+    @Test
+    public void removesTheUnusedKeys() throws Exception {
+        File locks = this.folder.getRoot();
+        int keys = CacheLocks.getKeyCount();
+
+        assertTrue(CacheLocks.acquire(locks, "removed", "removed-1", 0));
+        assertFalse(CacheLocks.acquire(locks, "removed", "removed-2", 0));
+        assertEquals(keys + 1, CacheLocks.getKeyCount());
+
+        CacheLocks.release("removed-1");
+        assertEquals(keys, CacheLocks.getKeyCount());
+    }
+
+    @Test
+    public void ignoresUnknownTokens() throws Exception {
+        File locks = this.folder.getRoot();
+
+        CacheLocks.release("unknown");
+
+        assertTrue(CacheLocks.acquire(locks, "released", "released-1", 0));
+        CacheLocks.release("released-1");
+        CacheLocks.release("released-1");
+
+        assertTrue(CacheLocks.acquire(locks, "released", "released-2", 0));
+        CacheLocks.release("released-2");
+    }
+
+    @Test
+    public void waitsForTheHolder() throws Exception {
+        final File locks = this.folder.getRoot();
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicBoolean acquired = new AtomicBoolean();
+
+        assertTrue(CacheLocks.acquire(locks, "waited", "waited-1", 0));
+
+        Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    started.countDown();
+                    acquired.set(CacheLocks.acquire(locks, "waited", "waited-2", TimeUnit.SECONDS.toMillis(30)));
+                } catch (Exception error) {
+                    acquired.set(false);
+                }
+            }
+        });
+        waiter.start();
+
+        try {
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            assertFalse(acquired.get());
+        } finally {
+            CacheLocks.release("waited-1");
+        }
+
+        waiter.join(TimeUnit.SECONDS.toMillis(30));
+        assertTrue(acquired.get());
+        CacheLocks.release("waited-2");
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the data files exchanged with the scripts, written by {@link DataExchangeWriter}
+ * and read by {@link DataExchangeReader}
+ * @author Ariel.Lenis
+ */
+public class DataExchangeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsTheWrittenEntries() throws IOException {
+        File data = new File(this.folder.getRoot(), "data.bin");
+
+        try (DataExchangeWriter writer = new DataExchangeWriter(data)) {
+            writer.put("text", "caf\u00e9".getBytes("UTF-8"));
+            writer.put("empty", new byte[0]);
+            writer.put("cl\u00e9", new byte[]{1, 2, 3});
+        }
+
+        try (DataExchangeReader reader = new DataExchangeReader(data)) {
+            assertEquals(Arrays.asList("text", "empty", "cl\u00e9"), Arrays.asList(reader.getKeys().toArray()));
+            assertEquals("caf\u00e9", reader.getString("text"));
+            assertEquals(0, reader.getLength("empty"));
+            assertEquals("", reader.getString("empty"));
+            assertEquals(3, reader.getLength("cl\u00e9"));
+
+            ByteBuffer buffer = reader.getData("cl\u00e9");
+            byte[] content = new byte[buffer.remaining()];
+            buffer.get(content);
+            assertArrayEquals(new byte[]{1, 2, 3}, content);
+
+            assertEquals(-1, reader.getLength("missing"));
+            assertNull(reader.getData("missing"));
+            assertNull(reader.getString("missing"));
+        }
+    }
+
+    @Test
+    public void copiesFilesInAndOut() throws IOException {
+        File source = new File(this.folder.getRoot(), "source.bin");
+        File data = new File(this.folder.getRoot(), "data.bin");
+        File target = new File(this.folder.getRoot(), "target.bin");
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(content);
+        Files.write(source.toPath(), content);
+
+        try (DataExchangeWriter writer = new DataExchangeWriter(data)) {
+            writer.put("before", new byte[]{9});
+            writer.put("file", source);
+            writer.put("after", new byte[]{8});
+        }
+
+        try (DataExchangeReader reader = new DataExchangeReader(data)) {
+            assertEquals(content.length, reader.getLength("file"));
+            assertTrue(reader.copyTo("file", target));
+            assertFalse(reader.copyTo("missing", new File(this.folder.getRoot(), "missing.bin")));
+            assertEquals(1, reader.getLength("after"));
+        }
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void keepsTheLastEntryOfAKey() throws IOException {
+        File data = new File(this.folder.getRoot(), "data.bin");
+
+        try (DataExchangeWriter writer = new DataExchangeWriter(data)) {
+            writer.put("key", "first".getBytes("UTF-8"));
+            writer.put("other", "other".getBytes("UTF-8"));
+            writer.put("key", "second".getBytes("UTF-8"));
+        }
+
+        try (DataExchangeReader reader = new DataExchangeReader(data)) {
+            assertEquals(Arrays.asList("other", "key"), Arrays.asList(reader.getKeys().toArray()));
+            assertEquals("second", reader.getString("key"));
+        }
+    }
+
+    @Test
+    public void replacesTheFile() throws IOException {
+        File data = new File(this.folder.getRoot(), "data.bin");
+        Files.write(data.toPath(), new byte[64 * 1024]);
+
+        try (DataExchangeWriter writer = new DataExchangeWriter(data)) {
+            writer.put("key", new byte[]{1});
+        }
+
+        assertEquals(16 + 12 + 3 + 1, data.length());
+    }
+
+    @Test
+    public void rejectsInvalidFiles() throws IOException {
+        File data = new File(this.folder.getRoot(), "data.bin");
+        Files.write(data.toPath(), "not a data file at all".getBytes("UTF-8"));
+
+        try {
+            new DataExchangeReader(data).close();
+            fail("The file must be rejected.");
+        } catch (IOException error) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedFiles() throws IOException {
+        File data = new File(this.folder.getRoot(), "data.bin");
+
+        try (DataExchangeWriter writer = new DataExchangeWriter(data)) {
+            writer.put("key", new byte[100]);
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(data, "rw")) {
+            file.setLength(data.length() - 1);
+        }
+
+        try {
+            new DataExchangeReader(data).close();
+            fail("The truncated file must be rejected.");
+        } catch (IOException error) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the resolution of the ScriptMain method from the declarations of the scripts
+ * @author Ariel.Lenis
+ */
+public class EntryPointToolsTest {
+
+    @Test
+    public void resolvesStaticVoidMethod() {
+        String code = "public class Script\n{\n    public static void ScriptMain()\n    {\n    }\n}\n";
+
+        assertEquals("global::Script.ScriptMain(); return 0;", EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void resolvesExitCode() {
+        String code = "namespace Tools\n{\n    public class Script\n    {\n        public static int ScriptMain() { return 1; }\n    }\n}\n";
+
+        assertEquals("return global::Tools.Script.ScriptMain();", EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void resolvesArgumentsAndManager() {
+        String code = "public class Script\n{\n    public static void ScriptMain(JenkinsManager jenkins, string[] args) { }\n}\n";
+
+        assertEquals("global::Script.ScriptMain(manager, args); return 0;", EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void resolvesParamsArguments() {
+        String code = "public class Script\n{\n    public static void ScriptMain(params string[] args) { }\n}\n";
+
+        assertEquals("global::Script.ScriptMain(args); return 0;", EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void leavesUnsupportedParametersToReflection() {
+        String code = "public class Script\n{\n    public static void ScriptMain(int retries) { }\n}\n";
+
+        assertNull(EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void leavesOverloadsToReflection() {
+        String code = "public class Script\n{\n    public static void ScriptMain() { }\n    public static void ScriptMain(string[] args) { }\n}\n";
+
+        assertNull(EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void leavesGenericTypesToReflection() {
+        String code = "public class Script<T> where T : class\n{\n    public static void ScriptMain() { }\n}\n";
+
+        assertNull(EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void resolvesPublicNestedType() {
+        String code = "public class Outer\n{\n    public class Script\n    {\n        public static void ScriptMain() { }\n    }\n}\n";
+
+        assertEquals("global::Outer.Script.ScriptMain(); return 0;", EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void leavesPrivateNestedTypeToReflection() {
+        String code = "public class Outer\n{\n    private class Script\n    {\n        public static void ScriptMain() { }\n    }\n}\n";
+
+        assertNull(EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void resolvesFileScopedNamespace() {
+        String code = "using System;\n\nnamespace Tools.Build;\n\npublic static class Script\n{\n    public static void ScriptMain() { }\n}\n";
+
+        assertEquals("global::Tools.Build.Script.ScriptMain(); return 0;", EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void resolvesBatchWrappedScript() {
+        String code = "namespace DotNetTools.Jenkins.Steps.Step2\n{\npublic class Script\n{\n    public static void ScriptMain() { }\n}\n}\n";
+
+        assertEquals("global::DotNetTools.Jenkins.Steps.Step2.Script.ScriptMain(); return 0;", EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void ignoresCommentsAndLiterals() {
+        String code = "public class Script\n{\n    // public static void ScriptMain(string[] args) { }\n"
+                + "    public static void ScriptMain()\n    {\n        Console.WriteLine(\"ScriptMain() { }\");\n    }\n}\n";
+
+        assertEquals("global::Script.ScriptMain(); return 0;", EntryPointTools.getEntryPointCall(code));
+    }
+
+    @Test
+    public void findsUsedNames() {
+        assertTrue(EntryPointTools.usesName("using Newtonsoft.Json;\n", "Newtonsoft.Json"));
+        assertTrue(EntryPointTools.usesName("var value = Newtonsoft.Json.Linq.JObject.Parse(text);", "Newtonsoft.Json"));
+        assertFalse(EntryPointTools.usesName("// Newtonsoft.Json is not used\nvar name = \"Newtonsoft.Json\";", "Newtonsoft.Json"));
+        assertFalse(EntryPointTools.usesName("using Newtonsoft.JsonPatch;", "Newtonsoft.Json"));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Tests the reader of the result channel frames
+ * @author Ariel.Lenis
+ */
+public class ResultFrameReaderTest {
+
+    @Test
+    public void readsFramesInOrder() throws IOException {
+        ResultFrameReader reader = new ResultFrameReader(new StringReader(
+                "{\"type\":\"variable\",\"key\":\"A\",\"value\":\"1\"}\n{\"type\": \"end\"}\n"));
+        Map<String, String> frame = new HashMap<>();
+
+        assertTrue(reader.readFrame(frame));
+        assertEquals(3, frame.size());
+        assertEquals("variable", frame.get("type"));
+        assertEquals("A", frame.get("key"));
+        assertEquals("1", frame.get("value"));
+
+        assertTrue(reader.readFrame(frame));
+        assertEquals(1, frame.size());
+        assertEquals("end", frame.get("type"));
+
+        assertFalse(reader.readFrame(frame));
+        assertTrue(frame.isEmpty());
+    }
+
+    @Test
+    public void unescapesStrings() throws IOException {
+        ResultFrameReader reader = new ResultFrameReader(new StringReader(
+                "{\"value\":\"a\\nb\\t\\\"c\\\"\\\\d\\/e\\u00e9\\u20AC\"}\n"));
+        Map<String, String> frame = new HashMap<>();
+
+        assertTrue(reader.readFrame(frame));
+        assertEquals("a\nb\t\"c\"\\d/e\u00e9\u20ac", frame.get("value"));
+    }
+
+    @Test
+    public void keepsLiteralsAsText() throws IOException {
+        ResultFrameReader reader = new ResultFrameReader(new StringReader("{ \"index\" : 3 , \"exit\":-1, \"flag\":true, \"none\":null }"));
+        Map<String, String> frame = new HashMap<>();
+
+        assertTrue(reader.readFrame(frame));
+        assertEquals("3", frame.get("index"));
+        assertEquals("-1", frame.get("exit"));
+        assertEquals("true", frame.get("flag"));
+        assertEquals("null", frame.get("none"));
+    }
+
+    @Test
+    public void readsEmptyFramesAndCarriageReturns() throws IOException {
+        ResultFrameReader reader = new ResultFrameReader(new StringReader("{}\r\n\r\n{\"type\":\"end\"}\r\n"));
+        Map<String, String> frame = new HashMap<>();
+
+        assertTrue(reader.readFrame(frame));
+        assertTrue(frame.isEmpty());
+        assertTrue(reader.readFrame(frame));
+        assertEquals("end", frame.get("type"));
+        assertFalse(reader.readFrame(frame));
+    }
+
+    @Test
+    public void skipsInvalidFrames() throws IOException {
+        ResultFrameReader reader = new ResultFrameReader(new StringReader(
+                "{\"type\":\"value\",\"value\":{\"nested\":1}}\n{\"type\":\"end\"}\n"));
+        Map<String, String> frame = new HashMap<>();
+
+        try {
+            reader.readFrame(frame);
+            fail("The nested value must be rejected.");
+        } catch (IOException error) {
+            // The reader continues with the next line
+        }
+
+        assertTrue(reader.readFrame(frame));
+        assertEquals("end", frame.get("type"));
+        assertFalse(reader.readFrame(frame));
+    }
+
+    @Test
+    public void rejectsTruncatedFrames() throws IOException {
+        String[] frames = { "{\"type\":\"varia", "{\"type\"", "{\"type\":", "{\"value\":\"\\x\"}", "{\"value\":\"\\u00g1\"}" };
+
+        for (String content : frames) {
+            ResultFrameReader reader = new ResultFrameReader(new StringReader(content));
+
+            try {
+                reader.readFrame(new HashMap<String, String>());
+                fail("The frame " + content + " must be rejected.");
+            } catch (IOException error) {
+                // Expected
+            }
+
+            assertFalse(reader.readFrame(new HashMap<String, String>()));
+        }
+    }
+}
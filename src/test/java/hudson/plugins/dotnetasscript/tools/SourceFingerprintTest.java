@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ariel.Lenis.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.dotnetasscript.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the fingerprint of the script sources
+ * @author Ariel.Lenis
+ */
+public class SourceFingerprintTest {
+    private static final String SCRIPT = "public class Script\n{\n    public static void ScriptMain()\n    {\n        Console.WriteLine(\"Hello\");\n    }\n}\n";
+
+    @Test
+    public void ignoresWhitespacesAndLineEndings() throws Exception {
+        String reformatted = "public  class Script {\r\n\tpublic static void ScriptMain() { Console.WriteLine( \"Hello\" ); }\r\n}";
+
+        assertEquals(SourceFingerprint.getSourceHash(SCRIPT), SourceFingerprint.getSourceHash(reformatted));
+    }
+
+    @Test
+    public void ignoresComments() throws Exception {
+        String commented = "// The script\npublic class Script /* the type */\n{\n    public static void ScriptMain()\n    {\n        Console.WriteLine(\"Hello\"); // greets\n    }\n}\n";
+
+        assertEquals(SourceFingerprint.getSourceHash(SCRIPT), SourceFingerprint.getSourceHash(commented));
+    }
+
+    @Test
+    public void keepsLiterals() throws Exception {
+        assertFalse(SourceFingerprint.getSourceHash(SCRIPT).equals(SourceFingerprint.getSourceHash(SCRIPT.replace("\"Hello\"", "\"Hello \""))));
+        assertFalse(SourceFingerprint.getSourceHash("var text = \"// not a comment\";").equals(SourceFingerprint.getSourceHash("var text = \"\";")));
+        assertFalse(SourceFingerprint.getSourceHash("var text = @\"a  b\";").equals(SourceFingerprint.getSourceHash("var text = @\"a b\";")));
+        assertFalse(SourceFingerprint.getSourceHash("var text = \"\"\"a  b\"\"\";").equals(SourceFingerprint.getSourceHash("var text = \"\"\"a b\"\"\";")));
+    }
+
+    @Test
+    public void keepsInterpolatedLiterals() throws Exception {
+        String code = "var text = $\"{value} {(flag ? \"a  b\" : \"c\")}\";";
+
+        assertFalse(SourceFingerprint.getSourceHash(code).equals(SourceFingerprint.getSourceHash(code.replace("a  b", "a b"))));
+    }
+
+    @Test
+    public void keepsDirectives() throws Exception {
+        String code = "#if DEBUG\nvar value = 1;\n#endif\n";
+
+        assertFalse(SourceFingerprint.getSourceHash(code).equals(SourceFingerprint.getSourceHash("#if RELEASE\nvar value = 1;\n#endif\n")));
+        assertFalse(SourceFingerprint.getSourceHash(code).equals(SourceFingerprint.getSourceHash("var value = 1;\n")));
+    }
+
+    @Test
+    public void keepsSeparatorsBetweenTokens() throws Exception {
+        assertFalse(SourceFingerprint.getSourceHash("return value;").equals(SourceFingerprint.getSourceHash("returnvalue;")));
+        assertFalse(SourceFingerprint.getSourceHash("a = b + +c;").equals(SourceFingerprint.getSourceHash("a = b ++c;")));
+        assertEquals(SourceFingerprint.getSourceHash("a=b+c;"), SourceFingerprint.getSourceHash("a = b + c ;"));
+    }
+
+    @Test
+    public void separatesLabelsAndSources() throws Exception {
+        String first = new SourceFingerprint().addSource("A.cs", "class A {}").addSource("B.cs", "class B {}").getKey();
+        String renamed = new SourceFingerprint().addSource("C.cs", "class A {}").addSource("B.cs", "class B {}").getKey();
+        String moved = new SourceFingerprint().addSource("A.cs", "class A {} class B {}").addSource("B.cs", "").getKey();
+
+        assertFalse(first.equals(renamed));
+        assertFalse(first.equals(moved));
+    }
+
+    @Test
+    public void hashesTextsAsTheyAre() throws Exception {
+        String key = new SourceFingerprint().addText("packages", "{\"a\": \"1\"}").getKey();
+
+        assertFalse(key.equals(new SourceFingerprint().addText("packages", "{\"a\":\"1\"}").getKey()));
+        assertEquals(key, new SourceFingerprint().addText("packages", "{\"a\": \"1\"}").getKey());
+    }
+
+    @Test
+    public void hashesLargeSourcesInChunks() throws Exception {
+        StringBuilder code = new StringBuilder();
+        StringBuilder reformatted = new StringBuilder();
+
+        for (int i = 0; i < 5000; i++) {
+            code.append("var value").append(i).append(" = \"\uD83D\uDE00\";\n");
+            reformatted.append("var   value").append(i).append("=\"\uD83D\uDE00\";  // line ").append(i).append("\r\n");
+        }
+
+        assertEquals(SourceFingerprint.getSourceHash(code.toString()), SourceFingerprint.getSourceHash(reformatted.toString()));
+    }
+
+    @Test
+    public void hasFixedWidthKeys() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            String key = SourceFingerprint.getSourceHash("var value = " + i + ";");
+
+            assertEquals(40, key.length());
+            assertTrue(key.matches("[0-9a-f]+"));
+        }
+    }
+}